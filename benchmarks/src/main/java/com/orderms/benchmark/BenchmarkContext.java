@@ -0,0 +1,30 @@
+package com.orderms.benchmark;
+
+import com.orderms.OrderManagementApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// Boots the application against a private in-memory H2 database with SQL logging,
+// sample data and background jobs turned off so they do not skew measurements.
+// Passed as arguments so they take precedence over application.yml.
+final class BenchmarkContext {
+
+    private BenchmarkContext() {}
+
+    static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(OrderManagementApplication.class)
+            .run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.sql.init.mode=never",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.orderms=WARN",
+                "--logging.level.org.hibernate.SQL=OFF",
+                "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=OFF",
+                "--notifications.enabled=false",
+                "--orders.stats.reconcile-interval-ms=3600000",
+                "--orders.outbox.poll-interval-ms=3600000");
+    }
+}
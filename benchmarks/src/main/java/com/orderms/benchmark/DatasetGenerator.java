@@ -0,0 +1,86 @@
+package com.orderms.benchmark;
+
+import com.orderms.model.OrderStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Bulk-loads a deterministic dataset straight through JDBC; going through the service
+// would take far longer than the benchmarks themselves at 1M orders
+final class DatasetGenerator {
+
+    static final int ITEMS_PER_ORDER = 3;
+    static final int ORDERS_PER_CUSTOMER = 5;
+
+    private static final int CHUNK = 1000;
+
+    private static final String[] FIRST_NAMES = {
+        "John", "Jane", "Mike", "Sarah", "David", "Emma", "Liam", "Olivia", "Noah", "Ava",
+        "Lucas", "Mia", "Ethan", "Sofia", "Mason", "Isabella", "Logan", "Amelia", "James", "Harper"
+    };
+    private static final String[] LAST_NAMES = {
+        "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Martinez", "Lopez",
+        "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin", "Lee", "Thompson", "White"
+    };
+    private static final String[] PRODUCTS = {
+        "Premium Coffee Beans", "Ceramic Mug", "Wireless Headphones", "Phone Case", "Laptop Stand",
+        "USB-C Cable", "Running Shoes", "Yoga Mat", "Water Bottle", "Desk Lamp",
+        "Notebook", "Backpack", "Sunglasses", "Bluetooth Speaker", "Green Tea"
+    };
+    private static final String[] CATEGORIES = {
+        "Beverages", "Accessories", "Electronics", "Sports", "Office"
+    };
+
+    private DatasetGenerator() {}
+
+    static void populate(JdbcTemplate jdbcTemplate, int orderCount) {
+        Random random = new Random(42);
+        OrderStatus[] statuses = OrderStatus.values();
+        LocalDateTime now = LocalDateTime.now();
+        long itemId = 1;
+
+        for (int from = 1; from <= orderCount; from += CHUNK) {
+            int to = Math.min(orderCount, from + CHUNK - 1);
+            List<Object[]> orders = new ArrayList<>(CHUNK);
+            List<Object[]> items = new ArrayList<>(CHUNK * ITEMS_PER_ORDER);
+            for (int id = from; id <= to; id++) {
+                int customer = (id - 1) / ORDERS_PER_CUSTOMER;
+                String first = FIRST_NAMES[customer % FIRST_NAMES.length];
+                String last = LAST_NAMES[(customer / FIRST_NAMES.length) % LAST_NAMES.length];
+                Timestamp createdAt = Timestamp.valueOf(now.minusMinutes((long) (orderCount - id) * 5));
+
+                double total = 0;
+                for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+                    int quantity = 1 + random.nextInt(4);
+                    double price = 5 + random.nextInt(9500) / 100.0;
+                    total += quantity * price;
+                    int product = random.nextInt(PRODUCTS.length);
+                    items.add(new Object[] {
+                        itemId++, id, PRODUCTS[product], PRODUCTS[product] + " description",
+                        quantity, price, CATEGORIES[product % CATEGORIES.length]
+                    });
+                }
+                orders.add(new Object[] {
+                    id, String.format("CUST%07d", customer), first + " " + last,
+                    (first + "." + last + customer + "@email.com").toLowerCase(),
+                    String.format("+1-555-%07d", customer), statuses[random.nextInt(statuses.length)].name(),
+                    Math.round(total * 100) / 100.0, (100 + customer % 900) + " Main St, Springfield",
+                    null, createdAt, createdAt, 0L
+                });
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO orders (id, customer_id, customer_name, customer_email, " +
+                "customer_phone, order_status, total_amount, delivery_address, order_notes, created_at, updated_at, " +
+                "version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", orders);
+            jdbcTemplate.batchUpdate("INSERT INTO order_items (id, order_id, product_name, product_description, " +
+                "quantity, price, category) VALUES (?, ?, ?, ?, ?, ?, ?)", items);
+        }
+
+        // Leave room above the generated ids for the pooled sequence blocks
+        jdbcTemplate.execute("ALTER SEQUENCE orders_seq RESTART WITH " + (orderCount + 1000));
+        jdbcTemplate.execute("ALTER SEQUENCE order_items_seq RESTART WITH " + (itemId + 1000));
+    }
+}
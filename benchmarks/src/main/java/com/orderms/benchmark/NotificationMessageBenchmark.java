@@ -0,0 +1,40 @@
+package com.orderms.benchmark;
+
+import com.orderms.model.Order;
+import com.orderms.service.NotificationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Payload rendering done for every outbox row, inside the writing transaction
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NotificationMessageBenchmark {
+
+    private NotificationService notificationService;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        notificationService = new NotificationService();
+        order = SerializationBenchmark.sampleOrder(3);
+    }
+
+    @Benchmark
+    public String createNotificationMessage() {
+        return notificationService.createNotificationMessage(order, "Order status updated from Placed to Processing");
+    }
+}
@@ -0,0 +1,59 @@
+package com.orderms.benchmark;
+
+import com.orderms.repository.OrderRepository;
+import com.orderms.service.OrderSearchIndex;
+import com.orderms.service.OrderService;
+import com.orderms.service.OrderStatsService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// One application context and generated dataset per trial
+@State(Scope.Benchmark)
+public class OrderDataState {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int orders;
+
+    ConfigurableApplicationContext context;
+    OrderService orderService;
+    OrderStatsService orderStatsService;
+    OrderRepository orderRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+        context = BenchmarkContext.start();
+        orderService = context.getBean(OrderService.class);
+        orderStatsService = context.getBean(OrderStatsService.class);
+        orderRepository = context.getBean(OrderRepository.class);
+
+        DatasetGenerator.populate(context.getBean(JdbcTemplate.class), orders);
+        orderStatsService.reconcile();
+        awaitSearchIndex(context.getBean(OrderSearchIndex.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    long randomOrderId() {
+        return 1 + ThreadLocalRandom.current().nextInt(orders);
+    }
+
+    private void awaitSearchIndex(OrderSearchIndex index) throws InterruptedException {
+        index.requestRebuild();
+        while (!Boolean.TRUE.equals(index.getStats().get("ready"))
+                || Boolean.TRUE.equals(index.getStats().get("rebuilding"))
+                || ((Number) index.getStats().get("documents")).intValue() < orders) {
+            Thread.sleep(100);
+        }
+    }
+}
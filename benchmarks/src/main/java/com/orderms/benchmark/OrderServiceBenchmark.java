@@ -0,0 +1,81 @@
+package com.orderms.benchmark;
+
+import com.orderms.dto.OrderCursor;
+import com.orderms.dto.OrderRequest;
+import com.orderms.model.Order;
+import com.orderms.model.OrderStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+public class OrderServiceBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    @Benchmark
+    public Order createOrder(OrderDataState state) {
+        return state.orderService.createOrder(newOrderRequest());
+    }
+
+    // Random targets mix real transitions, same-status no-ops and rejected transitions,
+    // all of which go through the status read and are part of the measured path
+    @Benchmark
+    public Object updateOrderStatus(OrderDataState state) {
+        OrderStatus status = STATUSES[ThreadLocalRandom.current().nextInt(STATUSES.length)];
+        try {
+            return state.orderService.updateOrderStatus(state.randomOrderId(), status);
+        } catch (IllegalStateException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Page<Order> getAllOrdersOffsetPage(OrderDataState state) {
+        int pages = Math.max(1, state.orders / PAGE_SIZE);
+        int page = ThreadLocalRandom.current().nextInt(pages);
+        return state.orderService.getAllOrders(PageRequest.of(page, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "id")));
+    }
+
+    @Benchmark
+    public Slice<Order> getOrdersCursorPage(OrderDataState state) {
+        long id = state.randomOrderId();
+        OrderCursor cursor = new OrderCursor("id", true, String.valueOf(id), id);
+        return state.orderService.getOrdersAfter("id", true, cursor, PAGE_SIZE);
+    }
+
+    static OrderRequest newOrderRequest() {
+        OrderRequest.OrderItemRequest item = new OrderRequest.OrderItemRequest();
+        item.setProductName("Wireless Headphones");
+        item.setProductDescription("Over-ear, noise cancelling");
+        item.setQuantity(1);
+        item.setPrice(99.99);
+        item.setCategory("Electronics");
+
+        OrderRequest request = new OrderRequest();
+        request.setCustomerId("CUST-BENCH");
+        request.setCustomerName("Bench Mark");
+        request.setCustomerEmail("bench.mark@email.com");
+        request.setCustomerPhone("+1-555-0000");
+        request.setDeliveryAddress("1 Benchmark Way");
+        request.setItems(List.of(item));
+        return request;
+    }
+}
@@ -0,0 +1,48 @@
+package com.orderms.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.concurrent.TimeUnit;
+
+// Ranked index search against the LIKE '%term%' scan it replaced
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+
+    // A common surname, a two-letter prefix, a product word and a rare customer id
+    @Param({"smith", "ja", "headphones", "cust0000042"})
+    public String term;
+
+    private final Pageable firstPage = PageRequest.of(0, 20);
+
+    @Benchmark
+    public Object searchOrders(OrderDataState state) {
+        return state.orderService.searchOrders(term, firstPage);
+    }
+
+    @Benchmark
+    public Object searchOrderSummaries(OrderDataState state) {
+        return state.orderService.searchOrderSummaries(term, firstPage);
+    }
+
+    @Benchmark
+    public Page<Long> likeScan(OrderDataState state) {
+        return state.orderRepository.searchIds(term, firstPage);
+    }
+}
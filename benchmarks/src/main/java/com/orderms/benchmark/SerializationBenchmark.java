@@ -0,0 +1,93 @@
+package com.orderms.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orderms.dto.OrderDetail;
+import com.orderms.dto.OrderItemView;
+import com.orderms.dto.OrderSummary;
+import com.orderms.model.Order;
+import com.orderms.model.OrderItem;
+import com.orderms.model.OrderStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Response body serialization of an order with items; no database involved
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({"3", "20"})
+    public int items;
+
+    private ObjectMapper objectMapper;
+    private Order order;
+    private OrderDetail detail;
+
+    @Setup
+    public void setUp() {
+        // Same defaults Spring Boot applies to the MVC message converter
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        order = sampleOrder(items);
+
+        List<OrderItemView> views = new ArrayList<>();
+        for (OrderItem item : order.getItems()) {
+            views.add(new OrderItemView(item.getId(), item.getProductName(), item.getProductDescription(),
+                item.getQuantity(), item.getPrice(), item.getCategory()));
+        }
+        detail = OrderDetail.of(OrderSummary.from(order), views);
+    }
+
+    @Benchmark
+    public byte[] serializeOrderEntity() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public byte[] serializeOrderDetail() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(detail);
+    }
+
+    static Order sampleOrder(int itemCount) {
+        Order order = new Order();
+        order.setId(42L);
+        order.setCustomerId("CUST0000042");
+        order.setCustomerName("Jane Smith");
+        order.setCustomerEmail("jane.smith42@email.com");
+        order.setCustomerPhone("+1-555-0000042");
+        order.setStatus(OrderStatus.ORDER_PROCESSING);
+        order.setDeliveryAddress("456 Oak Ave, Los Angeles, CA 90210");
+        order.setOrderNotes("Leave at front door");
+        order.setCreatedAt(LocalDateTime.of(2024, 1, 15, 11, 15));
+        order.setUpdatedAt(LocalDateTime.of(2024, 1, 15, 11, 45));
+        for (int i = 0; i < itemCount; i++) {
+            OrderItem item = new OrderItem();
+            item.setId((long) i + 1);
+            item.setProductName("Product " + i);
+            item.setProductDescription("Description of product " + i);
+            item.setQuantity(1 + i % 3);
+            item.setPrice(9.99 + i);
+            item.setCategory("Electronics");
+            order.addItem(item);
+        }
+        return order;
+    }
+}
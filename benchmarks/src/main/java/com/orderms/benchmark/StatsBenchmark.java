@@ -0,0 +1,32 @@
+package com.orderms.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// /stats is served from in-memory counters; the GROUP BY query is what reconciliation runs
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+public class StatsBenchmark {
+
+    @Benchmark
+    public Map<String, Object> getStats(OrderDataState state) {
+        return state.orderStatsService.getStats();
+    }
+
+    @Benchmark
+    public List<Object[]> countAndSumByStatus(OrderDataState state) {
+        return state.orderRepository.countAndSumByStatus();
+    }
+}
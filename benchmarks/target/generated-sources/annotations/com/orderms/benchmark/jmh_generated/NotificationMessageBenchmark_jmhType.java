@@ -0,0 +1,4 @@
+package com.orderms.benchmark.jmh_generated;
+public class NotificationMessageBenchmark_jmhType extends NotificationMessageBenchmark_jmhType_B3 {
+}
+
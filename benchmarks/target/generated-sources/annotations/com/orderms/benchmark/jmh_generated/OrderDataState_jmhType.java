@@ -0,0 +1,4 @@
+package com.orderms.benchmark.jmh_generated;
+public class OrderDataState_jmhType extends OrderDataState_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.orderms.benchmark.jmh_generated;
+public class OrderServiceBenchmark_jmhType extends OrderServiceBenchmark_jmhType_B3 {
+}
+
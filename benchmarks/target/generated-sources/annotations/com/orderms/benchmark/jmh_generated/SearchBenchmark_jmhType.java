@@ -0,0 +1,4 @@
+package com.orderms.benchmark.jmh_generated;
+public class SearchBenchmark_jmhType extends SearchBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.orderms.benchmark.jmh_generated;
+public class StatsBenchmark_jmhType extends StatsBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,47 @@
+package com.orderms.config;
+
+import com.orderms.service.ArchiveStorage;
+import com.orderms.service.LocalArchiveStorage;
+import com.orderms.service.S3ArchiveStorage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.nio.file.Paths;
+
+@Configuration
+public class ArchiveConfig {
+    
+    @Value("${orders.archive.storage:local}")
+    private String storageType;
+    
+    @Value("${orders.archive.local.path:./archive}")
+    private String localPath;
+    
+    @Value("${orders.archive.s3.bucket:}")
+    private String bucket;
+    
+    @Value("${orders.archive.s3.prefix:}")
+    private String prefix;
+    
+    @Value("${aws.region:us-east-1}")
+    private String awsRegion;
+    
+    @Bean
+    public ArchiveStorage archiveStorage() {
+        if ("s3".equalsIgnoreCase(storageType)) {
+            if (bucket.isBlank()) {
+                throw new IllegalStateException("orders.archive.s3.bucket is required for S3 archive storage");
+            }
+            S3Client s3Client = S3Client.builder()
+                    .region(Region.of(awsRegion))
+                    .credentialsProvider(DefaultCredentialsProvider.create())
+                    .build();
+            return new S3ArchiveStorage(s3Client, bucket, prefix);
+        }
+        return new LocalArchiveStorage(Paths.get(localPath).toAbsolutePath());
+    }
+}
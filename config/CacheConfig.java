@@ -0,0 +1,32 @@
+package com.orderms.config;
+
+import com.orderms.service.InMemorySharedOrderCache;
+import com.orderms.service.SharedOrderCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class CacheConfig {
+    
+    @Value("${orders.cache.shared.type:none}")
+    private String sharedType;
+    
+    @Value("${orders.cache.shared.ttl-seconds:300}")
+    private long sharedTtlSeconds;
+    
+    @Value("${orders.cache.shared.max-size:100000}")
+    private int sharedMaxSize;
+    
+    // Other nodes' local copies are not notified of invalidations, so with a shared tier
+    // the local TTL bounds how stale a node can be
+    @Bean
+    public SharedOrderCache sharedOrderCache() {
+        if ("memory".equalsIgnoreCase(sharedType)) {
+            return new InMemorySharedOrderCache(Duration.ofSeconds(sharedTtlSeconds), sharedMaxSize);
+        }
+        return SharedOrderCache.none();
+    }
+}
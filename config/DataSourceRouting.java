@@ -0,0 +1,47 @@
+package com.orderms.config;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.function.Supplier;
+
+// Scopes in which read-only transactions must still use the primary database
+public final class DataSourceRouting {
+    
+    private static final String PINNED_ATTRIBUTE = DataSourceRouting.class.getName() + ".PINNED";
+    
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+    
+    private DataSourceRouting() {
+    }
+    
+    // For readers that must observe the latest committed state, such as caches refilled after
+    // an invalidation; a lagging replica would hand them the version that was just replaced
+    public static <T> T onPrimary(Supplier<T> work) {
+        if (Boolean.TRUE.equals(PRIMARY.get())) {
+            return work.get();
+        }
+        PRIMARY.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            PRIMARY.remove();
+        }
+    }
+    
+    // Once a request has written, its later reads go to the primary so they see that write
+    static void pinRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(PINNED_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+    
+    static boolean isPinnedToPrimary() {
+        if (Boolean.TRUE.equals(PRIMARY.get())) {
+            return true;
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes != null && attributes.getAttribute(PINNED_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null;
+    }
+}
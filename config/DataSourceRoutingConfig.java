@@ -0,0 +1,79 @@
+package com.orderms.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+// Primary/replica split for read-only transactions. The replica pool is not a bean, so the
+// datasource health check only covers the primary; a lost replica degrades to primary reads
+// instead of taking the instance out of service.
+@Configuration
+@ConditionalOnProperty(name = "orders.datasource.routing.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+    
+    @Value("${orders.datasource.replica.url}")
+    private String replicaUrl;
+    
+    @Value("${orders.datasource.replica.username:${spring.datasource.username:}}")
+    private String replicaUsername;
+    
+    @Value("${orders.datasource.replica.password:${spring.datasource.password:}}")
+    private String replicaPassword;
+    
+    @Value("${orders.datasource.replica.pool-size:20}")
+    private int replicaPoolSize;
+    
+    @Value("${orders.datasource.replica.connection-timeout-ms:1000}")
+    private long replicaConnectionTimeoutMs;
+    
+    @Value("${orders.datasource.replica.max-lag-seconds:5}")
+    private long maxLagSeconds;
+    
+    // Bound to spring.datasource.hikari like Boot's own pool would be
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryPool(DataSourceProperties properties) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("orders-primary");
+        return primary;
+    }
+    
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties properties,
+                                                             MeterRegistry meterRegistry) {
+        HikariDataSource primary = primaryPool(properties);
+        
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName("orders-replica");
+        replica.setJdbcUrl(replicaUrl);
+        replica.setDriverClassName(properties.determineDriverClassName());
+        replica.setUsername(replicaUsername);
+        replica.setPassword(replicaPassword);
+        replica.setMaximumPoolSize(replicaPoolSize);
+        // Kept short: a read waiting on a dead replica should fall back to the primary quickly
+        replica.setConnectionTimeout(replicaConnectionTimeoutMs);
+        replica.setDataSourceProperties(primary.getDataSourceProperties());
+        replica.setReadOnly(true);
+        // Start even when the replica is down; reads fall back until it comes up
+        replica.setInitializationFailTimeout(-1);
+        replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        
+        return new ReplicaRoutingDataSource(primary, replica, maxLagSeconds, meterRegistry);
+    }
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
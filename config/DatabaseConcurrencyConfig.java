@@ -0,0 +1,60 @@
+package com.orderms.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(name = "orders.threads.limiter.enabled", havingValue = "true")
+public class DatabaseConcurrencyConfig {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseConcurrencyConfig.class);
+    
+    @Value("${orders.threads.limiter.requests-per-connection:2}")
+    private int requestsPerConnection;
+    
+    @Value("${orders.threads.limiter.max-concurrent:0}")
+    private int maxConcurrent;
+    
+    @Value("${orders.threads.limiter.acquire-timeout-ms:1000}")
+    private long acquireTimeoutMs;
+    
+    @Bean
+    public FilterRegistrationBean<DatabaseConcurrencyFilter> databaseConcurrencyFilter(DataSource dataSource,
+                                                                                      MeterRegistry meterRegistry) {
+        int limit = maxConcurrent > 0 ? maxConcurrent : poolSize(dataSource) * requestsPerConnection;
+        logger.info("Limiting concurrent API requests to {}", limit);
+        FilterRegistrationBean<DatabaseConcurrencyFilter> registration =
+            new FilterRegistrationBean<>(new DatabaseConcurrencyFilter(limit, acquireTimeoutMs, meterRegistry));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+    
+    // With read/write routing the limit follows the primary pool, which serves every write.
+    // Sharded, it follows one shard's pool: a scatter read holds a connection on every shard.
+    private static int poolSize(DataSource dataSource) {
+        if (dataSource instanceof LazyConnectionDataSourceProxy proxy) {
+            dataSource = proxy.getTargetDataSource();
+        }
+        if (dataSource instanceof ReplicaRoutingDataSource routing) {
+            dataSource = routing.getPrimary();
+        }
+        if (dataSource instanceof ShardRoutingDataSource sharded) {
+            dataSource = sharded.getShard(0);
+        }
+        // Hikari reports -1 until the pool validates its configuration, then defaults to 10
+        if (dataSource instanceof HikariDataSource hikari && hikari.getMaximumPoolSize() > 0) {
+            return hikari.getMaximumPoolSize();
+        }
+        return 10;
+    }
+}
@@ -0,0 +1,111 @@
+package com.orderms.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Caps concurrent API requests at a multiple of the connection pool size. Without a thread
+// pool in front, virtual threads would all queue inside Hikari and fail after its connection
+// timeout; here excess requests wait briefly for a permit and are then shed with a 503.
+public class DatabaseConcurrencyFilter extends OncePerRequestFilter {
+    
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final long acquireTimeoutMs;
+    private final Counter rejected;
+    
+    public DatabaseConcurrencyFilter(int maxConcurrent, long acquireTimeoutMs, MeterRegistry meterRegistry) {
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxConcurrent = maxConcurrent;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.rejected = meterRegistry.counter("orders.requests.rejected", "reason", "concurrency-limit");
+        meterRegistry.gauge("orders.requests.active", permits, p -> maxConcurrent - p.availablePermits());
+    }
+    
+    // The SSE stream holds its request open without using the database
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().endsWith("/stream");
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejected.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After", "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Server busy, please retry\"}");
+            return;
+        }
+        // An async handler such as the streaming export keeps reading after doFilter returns,
+        // so its permit is held until the async request completes
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        };
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new PermitReleasingListener(release));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                release.run();
+            }
+        }
+    }
+    
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+    
+    private record PermitReleasingListener(Runnable release) implements AsyncListener {
+        
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release.run();
+        }
+        
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release.run();
+        }
+        
+        @Override
+        public void onError(AsyncEvent event) {
+            release.run();
+        }
+        
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // a re-dispatch that starts async again keeps the listener registered
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
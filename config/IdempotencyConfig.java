@@ -0,0 +1,43 @@
+package com.orderms.config;
+
+import com.orderms.service.IdempotencyStore;
+import com.orderms.service.InMemoryIdempotencyStore;
+import com.orderms.service.JdbcIdempotencyStore;
+import com.orderms.service.OrderShards;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+
+@Configuration
+public class IdempotencyConfig {
+    
+    @Value("${orders.idempotency.store:memory}")
+    private String storeType;
+    
+    @Value("${orders.idempotency.ttl-hours:24}")
+    private long ttlHours;
+    
+    @Value("${orders.idempotency.max-keys:100000}")
+    private long maxKeys;
+    
+    @Value("${orders.idempotency.claim-lease-ms:60000}")
+    private long claimLeaseMs;
+    
+    @Value("${orders.idempotency.poll-ms:50}")
+    private long pollMs;
+    
+    // The in-process store only deduplicates retries that reach the same node
+    @Bean
+    public IdempotencyStore idempotencyStore(JdbcTemplate jdbcTemplate, OrderShards orderShards,
+                                             MeterRegistry meterRegistry) {
+        if ("jdbc".equalsIgnoreCase(storeType)) {
+            return new JdbcIdempotencyStore(jdbcTemplate, orderShards, Duration.ofHours(ttlHours),
+                Duration.ofMillis(claimLeaseMs), pollMs);
+        }
+        return new InMemoryIdempotencyStore(Duration.ofHours(ttlHours), maxKeys, meterRegistry);
+    }
+}
@@ -0,0 +1,31 @@
+package com.orderms.config;
+
+import org.hibernate.SessionEventListener;
+
+// Registered through hibernate.session.events.auto, one instance per session. Only statement
+// execution is counted; result set reads happen afterwards inside Hibernate's row processing.
+public class JdbcTimingSessionListener implements SessionEventListener {
+    
+    private long statementStart;
+    private long batchStart;
+    
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+    
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        RequestTimings.recordStatement(System.nanoTime() - statementStart);
+    }
+    
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+    
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        RequestTimings.recordStatement(System.nanoTime() - batchStart);
+    }
+}
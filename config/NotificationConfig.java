@@ -0,0 +1,22 @@
+package com.orderms.config;
+
+import com.orderms.service.NotificationPublisher;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.services.sns.SnsClient;
+
+@Configuration
+public class NotificationConfig {
+    
+    @Value("${aws.sns.topic-arn:}")
+    private String topicArn;
+    
+    @Bean
+    public NotificationPublisher notificationPublisher(ObjectProvider<SnsClient> snsClient,
+                                                       MeterRegistry meterRegistry) {
+        return new NotificationPublisher(snsClient.getIfAvailable(), topicArn, meterRegistry);
+    }
+}
@@ -0,0 +1,152 @@
+package com.orderms.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Sends read-only transactions to the replica pool and everything else to the primary.
+// Must sit behind a LazyConnectionDataSourceProxy: the JPA transaction manager asks for a
+// connection before it marks the transaction read-only, and the proxy defers the real fetch
+// until the first statement, when the flag is visible here.
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    
+    private final HikariDataSource primary;
+    private final HikariDataSource replica;
+    private final long maxLagSeconds;
+    
+    // Reads stay on the primary until the first health check has passed
+    private volatile boolean replicaAvailable;
+    private volatile long replicaLagSeconds;
+    
+    private final Counter replicaReads;
+    private final Counter fallbackUnavailable;
+    private final Counter fallbackError;
+    
+    public ReplicaRoutingDataSource(HikariDataSource primary, HikariDataSource replica, long maxLagSeconds,
+                                    MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLagSeconds = maxLagSeconds;
+        this.replicaReads = meterRegistry.counter("orders.datasource.replica.reads");
+        this.fallbackUnavailable = meterRegistry.counter("orders.datasource.replica.fallbacks", "reason", "unavailable");
+        this.fallbackError = meterRegistry.counter("orders.datasource.replica.fallbacks", "reason", "error");
+        meterRegistry.gauge("orders.datasource.replica.available", this, r -> r.replicaAvailable ? 1 : 0);
+        meterRegistry.gauge("orders.datasource.replica.lag", this, r -> r.replicaLagSeconds);
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!routeToReplica()) {
+            return primary.getConnection();
+        }
+        try {
+            Connection connection = replica.getConnection();
+            replicaReads.increment();
+            return connection;
+        } catch (SQLException e) {
+            // Reads carry on against the primary until the next health check succeeds
+            markReplicaDown("connection failed: " + e.getMessage());
+            fallbackError.increment();
+            return primary.getConnection();
+        }
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("Credentials are configured per pool");
+    }
+    
+    private boolean routeToReplica() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                DataSourceRouting.pinRequest();
+            }
+            return false;
+        }
+        if (DataSourceRouting.isPinnedToPrimary()) {
+            return false;
+        }
+        if (!replicaAvailable) {
+            fallbackUnavailable.increment();
+            return false;
+        }
+        return true;
+    }
+    
+    // Replication lag is only known for MySQL replicas; other replicas are checked for liveness
+    @Scheduled(fixedDelayString = "${orders.datasource.replica.check-interval-ms:2000}")
+    public void checkReplica() {
+        try (Connection connection = replica.getConnection()) {
+            if (!connection.getMetaData().getDatabaseProductName().contains("MySQL")) {
+                markReplicaUp(0);
+                return;
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet status = statement.executeQuery("SHOW REPLICA STATUS")) {
+                if (!status.next()) {
+                    // Not configured as a replica, so there is nothing to lag behind
+                    markReplicaUp(0);
+                    return;
+                }
+                long lag = status.getLong("Seconds_Behind_Source");
+                recordLag(status.wasNull() ? null : lag);
+            }
+        } catch (SQLException e) {
+            markReplicaDown("health check failed: " + e.getMessage());
+        }
+    }
+    
+    // Null when replication is not running
+    void recordLag(Long lagSeconds) {
+        if (lagSeconds == null) {
+            markReplicaDown("replication is not running");
+        } else if (lagSeconds > maxLagSeconds) {
+            replicaLagSeconds = lagSeconds;
+            markReplicaDown("lagging " + lagSeconds + "s behind the primary");
+        } else {
+            markReplicaUp(lagSeconds);
+        }
+    }
+    
+    public HikariDataSource getPrimary() {
+        return primary;
+    }
+    
+    public boolean isReplicaAvailable() {
+        return replicaAvailable;
+    }
+    
+    @Override
+    public void close() {
+        replica.close();
+        primary.close();
+    }
+    
+    private void markReplicaUp(long lagSeconds) {
+        replicaLagSeconds = lagSeconds;
+        if (!replicaAvailable) {
+            replicaAvailable = true;
+            logger.info("Replica available, routing read-only transactions to it");
+        }
+    }
+    
+    private void markReplicaDown(String reason) {
+        if (replicaAvailable) {
+            replicaAvailable = false;
+            logger.warn("Routing reads to the primary, replica {}", reason);
+        }
+    }
+}
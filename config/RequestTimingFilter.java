@@ -0,0 +1,69 @@
+package com.orderms.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Splits each API request's time into JDBC execution and response serialization, tagged like
+// http.server.requests so the three series line up per endpoint
+public class RequestTimingFilter extends OncePerRequestFilter {
+    
+    private final MeterRegistry meterRegistry;
+    
+    public RequestTimingFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().endsWith("/stream");
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestTimings timings = RequestTimings.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestTimings.clear();
+            record(request, timings);
+        }
+    }
+    
+    private void record(HttpServletRequest request, RequestTimings timings) {
+        // Requests that matched no handler would each add a new uri series
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern == null) {
+            return;
+        }
+        Tags tags = Tags.of("method", request.getMethod(), "uri", pattern.toString());
+        Timer.builder("orders.http.db.time")
+            .description("JDBC statement execution time per request")
+            .tags(tags)
+            .publishPercentileHistogram()
+            .register(meterRegistry)
+            .record(timings.getDbNanos(), TimeUnit.NANOSECONDS);
+        Timer.builder("orders.http.serialization.time")
+            .description("JSON response serialization time per request")
+            .tags(tags)
+            .publishPercentileHistogram()
+            .register(meterRegistry)
+            .record(timings.getSerializationNanos(), TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("orders.http.db.statements")
+            .description("JDBC statements executed per request")
+            .tags(tags)
+            .register(meterRegistry)
+            .record(timings.getStatements());
+    }
+}
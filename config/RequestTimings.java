@@ -0,0 +1,52 @@
+package com.orderms.config;
+
+// Time spent in JDBC and in JSON serialization during one API request. Bound to the request
+// thread by RequestTimingFilter; work handed to other threads is not attributed to the request.
+public final class RequestTimings {
+    
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+    
+    private long dbNanos;
+    private long serializationNanos;
+    private int statements;
+    
+    private RequestTimings() {
+    }
+    
+    static RequestTimings start() {
+        RequestTimings timings = new RequestTimings();
+        CURRENT.set(timings);
+        return timings;
+    }
+    
+    static void clear() {
+        CURRENT.remove();
+    }
+    
+    public static void recordStatement(long nanos) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.dbNanos += nanos;
+            timings.statements++;
+        }
+    }
+    
+    public static void recordSerialization(long nanos) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.serializationNanos += nanos;
+        }
+    }
+    
+    long getDbNanos() {
+        return dbNanos;
+    }
+    
+    long getSerializationNanos() {
+        return serializationNanos;
+    }
+    
+    int getStatements() {
+        return statements;
+    }
+}
@@ -2,11 +2,15 @@ package com.orderms.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.header.writers.ReferrerPolicyHeaderWriter;
 
+import static org.springframework.security.web.util.matcher.AntPathRequestMatcher.antMatcher;
+
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
@@ -17,9 +21,16 @@ public class SecurityConfig {
             .cors(cors -> cors.configurationSource(new CorsConfig().corsConfigurationSource()))
             .csrf(csrf -> csrf.disable())
             .authorizeHttpRequests(authz -> authz
-                .requestMatchers("/api/**", "/h2-console/**", "/actuator/**").permitAll()
+                // Ant matchers: with the H2 console registered as a second servlet, plain string
+                // patterns cannot be resolved against Spring MVC and the chain fails to build.
+                // /error is permitted so framework errors keep their status instead of becoming 403s.
+                .requestMatchers(antMatcher(HttpMethod.GET, "/actuator/**")).permitAll()
+                // Actuator write and delete operations run jobs and remove data: the admin account only
+                .requestMatchers(antMatcher("/actuator/**")).hasRole("ADMIN")
+                .requestMatchers(antMatcher("/api/**"), antMatcher("/h2-console/**"), antMatcher("/error")).permitAll()
                 .anyRequest().authenticated()
             )
+            .httpBasic(Customizer.withDefaults())
             .headers(headers -> headers
                 .frameOptions().deny()
                 .contentTypeOptions().and()
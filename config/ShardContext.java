@@ -0,0 +1,75 @@
+package com.orderms.config;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+// Which shard the current work runs against. A transaction is bound to exactly one shard: the
+// first connection it opens fixes the shard, and asking for another one inside it fails instead
+// of silently reading or writing the wrong database. Outside a transaction the thread's scope
+// decides, and work with no scope goes to the home shard (shard 0).
+public final class ShardContext {
+    
+    private static final Object TRANSACTION_KEY = new Object();
+    
+    private static final ThreadLocal<Integer> SHARD = new ThreadLocal<>();
+    
+    private ShardContext() {
+    }
+    
+    public static <T> T onShard(int shard, Supplier<T> work) {
+        Integer previous = SHARD.get();
+        SHARD.set(shard);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                SHARD.remove();
+            } else {
+                SHARD.set(previous);
+            }
+        }
+    }
+    
+    // Must be called before the transaction's first statement
+    public static void bindTransaction(int shard) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Shard routing needs an active transaction");
+        }
+        Integer bound = (Integer) TransactionSynchronizationManager.getResource(TRANSACTION_KEY);
+        if (bound == null) {
+            TransactionSynchronizationManager.bindResource(TRANSACTION_KEY, shard);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_KEY);
+                }
+            });
+        } else if (bound != shard) {
+            throw new IllegalStateException(String.format(
+                "Transaction is bound to shard %d and cannot also use shard %d", bound, shard));
+        }
+    }
+    
+    public static int current() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            Integer bound = (Integer) TransactionSynchronizationManager.getResource(TRANSACTION_KEY);
+            if (bound != null) {
+                return bound;
+            }
+        }
+        Integer scoped = SHARD.get();
+        return scoped != null ? scoped : 0;
+    }
+    
+    // The shard a new connection goes to; inside a transaction it also becomes the bound shard
+    static int forConnection() {
+        int shard = current();
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && TransactionSynchronizationManager.isActualTransactionActive()) {
+            bindTransaction(shard);
+        }
+        return shard;
+    }
+}
@@ -0,0 +1,48 @@
+package com.orderms.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+// One pool per shard; connections go to the shard chosen by ShardContext. Sits behind a
+// LazyConnectionDataSourceProxy so a transaction's connection is only fetched at its first
+// statement, after the service has routed it.
+public class ShardRoutingDataSource extends AbstractDataSource implements Closeable {
+    
+    private final List<HikariDataSource> shards;
+    
+    public ShardRoutingDataSource(List<HikariDataSource> shards) {
+        this.shards = List.copyOf(shards);
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        int shard = ShardContext.forConnection();
+        if (shard < 0 || shard >= shards.size()) {
+            throw new SQLException("No shard " + shard + " configured");
+        }
+        return shards.get(shard).getConnection();
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("Credentials are configured per pool");
+    }
+    
+    public int getShardCount() {
+        return shards.size();
+    }
+    
+    public HikariDataSource getShard(int shard) {
+        return shards.get(shard);
+    }
+    
+    @Override
+    public void close() {
+        shards.forEach(HikariDataSource::close);
+    }
+}
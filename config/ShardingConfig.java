@@ -0,0 +1,116 @@
+package com.orderms.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Orders split across orders.sharding.shards by customer. Every shard gets the full schema from
+// the Flyway migrations; shard 0 is the home shard and also holds the bucket map and the tables
+// that are not sharded (rollups). Shards may only be appended: their position is their id.
+@Configuration
+@ConditionalOnProperty(name = "orders.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ShardingConfig.class);
+    
+    private static final long MAX_SAFE_INTEGER = (1L << 53) - 1;
+    
+    public record Shard(String url, String username, String password, Integer poolSize) {}
+    
+    @Value("${orders.datasource.routing.enabled:false}")
+    private boolean replicaRouting;
+    
+    @Value("${spring.jpa.open-in-view:true}")
+    private boolean openInView;
+    
+    @Value("${orders.sharding.migrate:true}")
+    private boolean migrate;
+    
+    @Value("${spring.datasource.username:}")
+    private String defaultUsername;
+    
+    @Value("${spring.datasource.password:}")
+    private String defaultPassword;
+    
+    @Bean(destroyMethod = "close")
+    public ShardRoutingDataSource shardRoutingDataSource(Environment environment, MeterRegistry meterRegistry) {
+        if (replicaRouting) {
+            throw new IllegalStateException("orders.sharding and orders.datasource.routing cannot be enabled together");
+        }
+        if (openInView) {
+            // A request-wide session holds on to the first shard's connection, so later
+            // transactions in the same request would silently run against that shard
+            throw new IllegalStateException("orders.sharding requires spring.jpa.open-in-view=false");
+        }
+        Binder binder = Binder.get(environment);
+        List<Shard> definitions = binder.bind("orders.sharding.shards", Bindable.listOf(Shard.class))
+            .orElseThrow(() -> new IllegalStateException("orders.sharding.shards must list at least one shard"));
+        
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (int i = 0; i < definitions.size(); i++) {
+            Shard shard = definitions.get(i);
+            HikariDataSource pool = new HikariDataSource();
+            // Same driver settings as the unsharded pool would get
+            binder.bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+            pool.setPoolName("orders-shard-" + i);
+            pool.setJdbcUrl(shard.url());
+            pool.setUsername(shard.username() != null ? shard.username() : defaultUsername);
+            pool.setPassword(shard.password() != null ? shard.password() : defaultPassword);
+            if (shard.poolSize() != null) {
+                pool.setMaximumPoolSize(shard.poolSize());
+                pool.setMinimumIdle(Math.min(pool.getMinimumIdle(), shard.poolSize()));
+            }
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            if (migrate) {
+                Flyway.configure().dataSource(pool).locations("classpath:db/migration").load().migrate();
+            }
+            pools.add(pool);
+        }
+        logger.info("Sharding orders across {} databases", pools.size());
+        return new ShardRoutingDataSource(pools);
+    }
+    
+    // Sharded order ids need 63 bits, more than a JavaScript number holds exactly, so longs past
+    // 2^53 are written as strings. Jackson reads them back into long fields either way.
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer largeLongsAsStrings() {
+        StdSerializer<Long> serializer = new StdSerializer<>(Long.class) {
+            @Override
+            public void serialize(Long value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+                if (Math.abs(value) > MAX_SAFE_INTEGER) {
+                    generator.writeString(value.toString());
+                } else {
+                    generator.writeNumber(value);
+                }
+            }
+        };
+        return builder -> builder.serializerByType(Long.class, serializer).serializerByType(Long.TYPE, serializer);
+    }
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+}
@@ -0,0 +1,34 @@
+package com.orderms.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+
+// Opt-in virtual-thread mode: every Tomcat request and @Async task runs on its own virtual
+// thread, so blocking JDBC and SNS calls park the virtual thread instead of a pooled
+// platform thread. Concurrency is bounded by DatabaseConcurrencyFilter rather than pool size.
+@Configuration
+@ConditionalOnProperty(name = "orders.threads.virtual", havingValue = "true")
+public class VirtualThreadConfig {
+    
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+    
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        logger.info("Handling requests on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.perTaskExecutor("http-vt-"));
+    }
+    
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+                  AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(VirtualThreads.perTaskExecutor("task-vt-"));
+    }
+}
@@ -0,0 +1,19 @@
+package com.orderms.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+// Factories for named virtual threads used when orders.threads.virtual is on
+final class VirtualThreads {
+    
+    private VirtualThreads() {}
+    
+    static ThreadFactory factory(String prefix) {
+        return Thread.ofVirtual().name(prefix, 1).factory();
+    }
+    
+    static ExecutorService perTaskExecutor(String prefix) {
+        return Executors.newThreadPerTaskExecutor(factory(prefix));
+    }
+}
@@ -0,0 +1,63 @@
+package com.orderms.controller;
+
+import com.orderms.dto.RollupBucket;
+import com.orderms.model.OrderRollup;
+import com.orderms.service.OrderAnalyticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Revenue and volume over time, answered from order_rollups only
+@RestController
+@RequestMapping("/api/analytics")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:80"})
+public class AnalyticsController {
+    
+    @Autowired
+    private OrderAnalyticsService orderAnalyticsService;
+    
+    // One row per bucket and status or category; value narrows it to a single status or category
+    @GetMapping("/rollups")
+    public ResponseEntity<?> getRollups(
+            @RequestParam(defaultValue = "hour") String granularity,
+            @RequestParam(defaultValue = "status") String dimension,
+            @RequestParam(required = false) String value,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            OrderRollup.Granularity rollupGranularity = OrderAnalyticsService.parseGranularity(granularity);
+            OrderRollup.Dimension rollupDimension = OrderAnalyticsService.parseDimension(dimension);
+            List<RollupBucket> buckets = orderAnalyticsService.getBuckets(rollupGranularity, rollupDimension, value, from, to);
+            return ResponseEntity.ok(buckets);
+        } catch (IllegalArgumentException e) {
+            return badRequest(e);
+        }
+    }
+    
+    // Orders, items and revenue per bucket across all statuses
+    @GetMapping("/totals")
+    public ResponseEntity<?> getTotals(
+            @RequestParam(defaultValue = "hour") String granularity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            OrderRollup.Granularity rollupGranularity = OrderAnalyticsService.parseGranularity(granularity);
+            return ResponseEntity.ok(orderAnalyticsService.getTotals(rollupGranularity, from, to));
+        } catch (IllegalArgumentException e) {
+            return badRequest(e);
+        }
+    }
+    
+    private static ResponseEntity<?> badRequest(IllegalArgumentException e) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", e.getMessage());
+        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+    }
+}
@@ -0,0 +1,50 @@
+package com.orderms.controller;
+
+import com.orderms.service.OrderAnalyticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+// /actuator/orderanalytics: pending deltas and last flush; POST {"from":"2024-01-01","to":"2024-02-01"}
+// rebuilds the rollups for those days from the order tables, at most orders.analytics.max-buckets days
+@Component
+@Endpoint(id = "orderanalytics")
+public class OrderAnalyticsEndpoint {
+    
+    @Autowired
+    private OrderAnalyticsService orderAnalyticsService;
+    
+    @ReadOperation
+    public Map<String, Object> stats() {
+        return orderAnalyticsService.getStats();
+    }
+    
+    @WriteOperation
+    public WebEndpointResponse<Map<String, Object>> rebuild(@Nullable String from, @Nullable String to) {
+        try {
+            long orders = orderAnalyticsService.rebuild(parseDay("from", from), parseDay("to", to));
+            return new WebEndpointResponse<>(Map.of("orders", orders));
+        } catch (IllegalArgumentException e) {
+            return new WebEndpointResponse<>(Map.of("error", e.getMessage()), WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+    }
+    
+    private static LocalDate parseDay(String name, String value) {
+        if (value == null) {
+            throw new IllegalArgumentException(name + " is required (yyyy-MM-dd)");
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(name + " is not a date (yyyy-MM-dd): " + value);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.orderms.controller;
+
+import com.orderms.service.OrderArchiveService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// /actuator/orderarchive: archived order and block counts; POST runs the archive job now
+@Component
+@Endpoint(id = "orderarchive")
+public class OrderArchiveEndpoint {
+    
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+    
+    @ReadOperation
+    public Map<String, Object> stats() {
+        return orderArchiveService.getStats();
+    }
+    
+    @WriteOperation
+    public Map<String, Object> run() {
+        int archived = orderArchiveService.archive();
+        return archived < 0 ? Map.of("status", "already running") : Map.of("archived", archived);
+    }
+}
@@ -0,0 +1,30 @@
+package com.orderms.controller;
+
+import com.orderms.service.OrderDetailCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// /actuator/ordercache: hit/miss/eviction counts for the order detail cache
+@Component
+@Endpoint(id = "ordercache")
+public class OrderCacheEndpoint {
+    
+    @Autowired
+    private OrderDetailCache orderDetailCache;
+    
+    @ReadOperation
+    public Map<String, Object> stats() {
+        return orderDetailCache.getStats();
+    }
+    
+    @DeleteOperation
+    public void evict(@Selector Long id) {
+        orderDetailCache.invalidate(id);
+    }
+}
@@ -1,23 +1,53 @@
 package com.orderms.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orderms.dto.BatchOrderResult;
+import com.orderms.dto.BulkStatusRequest;
+import com.orderms.dto.BulkStatusResult;
+import com.orderms.dto.OrderCursor;
+import com.orderms.dto.OrderDetail;
+import com.orderms.dto.OrderPatchRequest;
 import com.orderms.dto.OrderRequest;
+import com.orderms.dto.OrderSummary;
+import com.orderms.model.CustomerOrderSummary;
 import com.orderms.model.Order;
 import com.orderms.model.OrderStatus;
+import com.orderms.service.CustomerSummaryService;
+import com.orderms.service.OrderBatchService;
+import com.orderms.service.OrderDetailCache;
+import com.orderms.service.OrderExportService;
+import com.orderms.service.OrderIdempotencyService;
 import com.orderms.service.OrderService;
+import com.orderms.service.OrderStatsService;
+import com.orderms.service.OrderStreamService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -27,11 +57,56 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
     
+    @Autowired
+    private OrderStatsService orderStatsService;
+    
+    @Autowired
+    private OrderBatchService orderBatchService;
+    
+    @Autowired
+    private OrderStreamService orderStreamService;
+    
+    @Autowired
+    private OrderDetailCache orderDetailCache;
+    
+    @Autowired
+    private OrderIdempotencyService orderIdempotencyService;
+    
+    @Autowired
+    private OrderExportService orderExportService;
+    
+    @Autowired
+    private CustomerSummaryService customerSummaryService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
     @PostMapping
-    public ResponseEntity<?> createOrder(@Valid @RequestBody OrderRequest orderRequest) {
+    public ResponseEntity<?> createOrder(
+            @Valid @RequestBody OrderRequest orderRequest,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         try {
-            Order createdOrder = orderService.createOrder(orderRequest);
-            return new ResponseEntity<>(createdOrder, HttpStatus.CREATED);
+            if (idempotencyKey == null) {
+                Order createdOrder = orderService.createOrder(orderRequest);
+                return new ResponseEntity<>(createdOrder, HttpStatus.CREATED);
+            }
+            if (idempotencyKey.isBlank() || idempotencyKey.length() > 128) {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", "Idempotency-Key must be 1 to 128 characters");
+                return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+            }
+            OrderIdempotencyService.Result result = orderIdempotencyService.createOrder(idempotencyKey, orderRequest);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                .header("Idempotent-Replayed", String.valueOf(result.replayed()))
+                .body(result.order());
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return new ResponseEntity<>(error, HttpStatus.UNPROCESSABLE_ENTITY);
+        } catch (IllegalStateException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return new ResponseEntity<>(error, HttpStatus.CONFLICT);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Failed to create order: " + e.getMessage());
@@ -39,18 +114,71 @@ public class OrderController {
         }
     }
     
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> createOrdersBatch(@RequestBody List<OrderRequest> orderRequests) {
+        try {
+            return ResponseEntity.ok(batchResponse(orderBatchService.importOrders(orderRequests)));
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Failed to import orders: " + e.getMessage());
+            return new ResponseEntity<>(error, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+    
+    @PostMapping(value = "/batch", consumes = "application/x-ndjson")
+    public ResponseEntity<?> createOrdersBatchNdjson(HttpServletRequest request) {
+        try {
+            return ResponseEntity.ok(batchResponse(orderBatchService.importNdjson(request.getReader())));
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Failed to import orders: " + e.getMessage());
+            return new ResponseEntity<>(error, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+    
+    private Map<String, Object> batchResponse(List<BatchOrderResult> results) {
+        long created = results.stream()
+            .filter(result -> result.status() == BatchOrderResult.Status.CREATED)
+            .count();
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("received", results.size());
+        response.put("created", created);
+        response.put("rejected", results.size() - created);
+        response.put("truncated", !results.isEmpty() && results.get(results.size() - 1).status() == BatchOrderResult.Status.TRUNCATED);
+        response.put("results", results);
+        return response;
+    }
+    
     @GetMapping
     public ResponseEntity<?> getAllOrders(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @RequestParam(defaultValue = "full") String view) {
         try {
+            // Any cursor parameter (empty for the first page) switches to keyset paging
+            if (cursor != null) {
+                return ResponseEntity.ok(getOrdersByCursor(size, sortBy, sortDir, cursor, includeTotal));
+            }
+            
             Sort sort = sortDir.equalsIgnoreCase("desc") ? 
                 Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
             Pageable pageable = PageRequest.of(page, size, sort);
             
-            Page<Order> orders = orderService.getAllOrders(pageable);
+            Page<?> orders = isSummaryView(view) ?
+                orderService.getOrderSummaries(pageable) : orderService.getAllOrders(pageable);
             
             Map<String, Object> response = new HashMap<>();
             response.put("orders", orders.getContent());
@@ -59,6 +187,10 @@ public class OrderController {
             response.put("totalPages", orders.getTotalPages());
             
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Failed to fetch orders: " + e.getMessage());
@@ -66,9 +198,37 @@ public class OrderController {
         }
     }
     
+    private Map<String, Object> getOrdersByCursor(int size, String sortBy, String sortDir, 
+                                                  String cursor, boolean includeTotal) {
+        if (size < 1 || size > 500) {
+            throw new IllegalArgumentException("Page size must be between 1 and 500");
+        }
+        boolean descending = sortDir.equalsIgnoreCase("desc");
+        OrderCursor position = cursor.isEmpty() ? null : OrderCursor.decode(cursor);
+        Slice<Order> orders = orderService.getOrdersAfter(sortBy, descending, position, size);
+        
+        String nextCursor = null;
+        if (orders.hasNext()) {
+            List<Order> content = orders.getContent();
+            nextCursor = OrderCursor.after(content.get(content.size() - 1), sortBy, descending).encode();
+        }
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("orders", orders.getContent());
+        response.put("nextCursor", nextCursor);
+        response.put("hasMore", orders.hasNext());
+        if (includeTotal) {
+            response.put("totalItems", orderService.getTotalOrderCount());
+        }
+        return response;
+    }
+    
     @GetMapping("/all")
-    public ResponseEntity<?> getAllOrdersSimple() {
+    public ResponseEntity<?> getAllOrdersSimple(@RequestParam(defaultValue = "full") String view) {
         try {
+            if (isSummaryView(view)) {
+                return ResponseEntity.ok(orderService.getAllOrderSummaries());
+            }
             List<Order> orders = orderService.getAllOrders();
             return ResponseEntity.ok(orders);
         } catch (Exception e) {
@@ -78,10 +238,54 @@ public class OrderController {
         }
     }
     
+    // Full export without materializing the result: rows are written as they are read.
+    // Declared as StreamingResponseBody so MVC writes it asynchronously, errors included.
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) List<OrderStatus> status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        try {
+            OrderExportService.Format exportFormat = OrderExportService.parseFormat(format);
+            if (from != null && to != null && !from.isBefore(to)) {
+                throw new IllegalArgumentException("'from' must be before 'to'");
+            }
+            boolean compress = gzip || (acceptEncoding != null && acceptEncoding.contains("gzip"));
+            String extension = exportFormat == OrderExportService.Format.CSV ? "csv" : "ndjson";
+            
+            StreamingResponseBody body = out -> {
+                if (compress) {
+                    GZIPOutputStream gzipOut = new GZIPOutputStream(out, 64 * 1024);
+                    orderExportService.export(exportFormat, status, from, to, gzipOut);
+                    gzipOut.finish();
+                } else {
+                    orderExportService.export(exportFormat, status, from, to, out);
+                }
+            };
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat == OrderExportService.Format.CSV ?
+                    "text/csv;charset=UTF-8" : "application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders." + extension + "\"");
+            if (compress) {
+                response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            return response.body(body);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> objectMapper.writeValue(out, error));
+        }
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<?> getOrderById(@PathVariable Long id) {
         try {
-            Optional<Order> order = orderService.getOrderById(id);
+            Optional<OrderDetail> order = orderDetailCache.get(id);
             return order.map(ResponseEntity::ok)
                        .orElse(ResponseEntity.notFound().build());
         } catch (Exception e) {
@@ -92,8 +296,13 @@ public class OrderController {
     }
     
     @GetMapping("/customer/{customerId}")
-    public ResponseEntity<?> getOrdersByCustomerId(@PathVariable String customerId) {
+    public ResponseEntity<?> getOrdersByCustomerId(
+            @PathVariable String customerId,
+            @RequestParam(defaultValue = "full") String view) {
         try {
+            if (isSummaryView(view)) {
+                return ResponseEntity.ok(orderService.getOrderSummariesByCustomerId(customerId));
+            }
             List<Order> orders = orderService.getOrdersByCustomerId(customerId);
             return ResponseEntity.ok(orders);
         } catch (Exception e) {
@@ -103,9 +312,62 @@ public class OrderController {
         }
     }
     
+    // Newest orders first, one bounded page at a time; pass nextCursor back to continue
+    @GetMapping("/customer/{customerId}/recent")
+    public ResponseEntity<?> getRecentOrdersByCustomerId(
+            @PathVariable String customerId,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor) {
+        try {
+            if (size < 1 || size > 100) {
+                throw new IllegalArgumentException("Page size must be between 1 and 100");
+            }
+            OrderCursor position = cursor == null || cursor.isEmpty() ? null : OrderCursor.decode(cursor);
+            Slice<OrderSummary> orders = orderService.getRecentOrderSummaries(customerId, position, size);
+            
+            String nextCursor = null;
+            if (orders.hasNext()) {
+                OrderSummary last = orders.getContent().get(orders.getContent().size() - 1);
+                nextCursor = new OrderCursor("createdAt", true, last.createdAt().toString(), last.id()).encode();
+            }
+            Map<String, Object> response = new HashMap<>();
+            response.put("orders", orders.getContent());
+            response.put("nextCursor", nextCursor);
+            response.put("hasMore", orders.hasNext());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Failed to fetch customer orders: " + e.getMessage());
+            return new ResponseEntity<>(error, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+    
+    // Lifetime order count and spend, last order and open orders by status, read from one row
+    @GetMapping("/customer/{customerId}/summary")
+    public ResponseEntity<?> getCustomerSummary(@PathVariable String customerId) {
+        try {
+            Optional<CustomerOrderSummary> summary = customerSummaryService.getSummary(customerId);
+            return summary.map(ResponseEntity::ok)
+                       .orElse(ResponseEntity.notFound().build());
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Failed to fetch customer summary: " + e.getMessage());
+            return new ResponseEntity<>(error, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+    
     @GetMapping("/status/{status}")
-    public ResponseEntity<?> getOrdersByStatus(@PathVariable OrderStatus status) {
+    public ResponseEntity<?> getOrdersByStatus(
+            @PathVariable OrderStatus status,
+            @RequestParam(defaultValue = "full") String view) {
         try {
+            if (isSummaryView(view)) {
+                return ResponseEntity.ok(orderService.getOrderSummariesByStatus(status));
+            }
             List<Order> orders = orderService.getOrdersByStatus(status);
             return ResponseEntity.ok(orders);
         } catch (Exception e) {
@@ -115,10 +377,42 @@ public class OrderController {
         }
     }
     
+    @PostMapping("/status/bulk")
+    public ResponseEntity<?> updateOrderStatuses(@Valid @RequestBody BulkStatusRequest bulkRequest) {
+        try {
+            List<BulkStatusResult> results = orderBatchService.updateStatuses(bulkRequest);
+            Map<BulkStatusResult.Outcome, Long> counts = results.stream()
+                .collect(Collectors.groupingBy(BulkStatusResult::outcome, () -> new EnumMap<>(BulkStatusResult.Outcome.class),
+                    Collectors.counting()));
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("requested", results.size());
+            response.put("outcomes", counts);
+            response.put("results", results);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Failed to update order statuses: " + e.getMessage());
+            return new ResponseEntity<>(error, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+    
     @GetMapping("/search")
-    public ResponseEntity<?> searchOrders(@RequestParam String q) {
+    public ResponseEntity<?> searchOrders(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "full") String view) {
         try {
-            List<Order> orders = orderService.searchOrders(q);
+            Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), 100));
+            if (isSummaryView(view)) {
+                return ResponseEntity.ok(orderService.searchOrderSummaries(q, pageable));
+            }
+            Page<Order> orders = orderService.searchOrders(q, pageable);
             return ResponseEntity.ok(orders);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
@@ -130,10 +424,21 @@ public class OrderController {
     @PutMapping("/{id}/status")
     public ResponseEntity<?> updateOrderStatus(
             @PathVariable Long id, 
-            @RequestParam OrderStatus status) {
+            @RequestParam OrderStatus status,
+            @RequestParam(defaultValue = "full") String view) {
         try {
-            Order updatedOrder = orderService.updateOrderStatus(id, status);
-            return ResponseEntity.ok(updatedOrder);
+            OrderSummary updatedOrder = orderService.updateOrderStatus(id, status);
+            if (isSummaryView(view)) {
+                return ResponseEntity.ok(updatedOrder);
+            }
+            // The full order with items and version, read after the update has committed
+            Order order = orderService.getOrderWithItems(id)
+                .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
+            return ResponseEntity.ok(order);
+        } catch (IllegalStateException | OptimisticLockingFailureException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return new ResponseEntity<>(error, HttpStatus.CONFLICT);
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -152,6 +457,40 @@ public class OrderController {
         try {
             Order updatedOrder = orderService.updateOrder(id, orderRequest);
             return ResponseEntity.ok(updatedOrder);
+        } catch (OptimisticLockingFailureException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Order was modified concurrently, reload and retry");
+            return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Failed to update order: " + e.getMessage());
+            return new ResponseEntity<>(error, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+    
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patchOrder(
+            @PathVariable Long id,
+            @Valid @RequestBody OrderPatchRequest patchRequest) {
+        try {
+            Order updatedOrder = orderService.patchOrder(id, patchRequest);
+            return ResponseEntity.ok(updatedOrder);
+        } catch (OptimisticLockingFailureException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Order was modified concurrently, reload and retry");
+            return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -170,6 +509,10 @@ public class OrderController {
             Map<String, String> response = new HashMap<>();
             response.put("message", "Order deleted successfully");
             return ResponseEntity.ok(response);
+        } catch (OptimisticLockingFailureException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Order was modified concurrently, reload and retry");
+            return new ResponseEntity<>(error, HttpStatus.CONFLICT);
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -181,23 +524,32 @@ public class OrderController {
         }
     }
     
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrderChanges(
+            @RequestParam(required = false) List<OrderStatus> status,
+            @RequestParam(required = false) String customerId) {
+        try {
+            EnumSet<OrderStatus> statuses = status == null || status.isEmpty() ?
+                EnumSet.noneOf(OrderStatus.class) : EnumSet.copyOf(status);
+            return orderStreamService.subscribe(statuses, customerId);
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+    }
+    
     @GetMapping("/stats")
     public ResponseEntity<?> getOrderStats() {
         try {
-            Map<String, Object> stats = new HashMap<>();
-            stats.put("totalOrders", orderService.getTotalOrderCount());
-            
-            Map<String, Long> statusCounts = new HashMap<>();
-            for (OrderStatus status : OrderStatus.values()) {
-                statusCounts.put(status.name(), (long) orderService.getOrdersByStatus(status).size());
-            }
-            stats.put("statusCounts", statusCounts);
-            
-            return ResponseEntity.ok(stats);
+            return ResponseEntity.ok(orderStatsService.getStats());
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Failed to fetch order statistics: " + e.getMessage());
             return new ResponseEntity<>(error, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
+    
+    // view=summary returns item-less projections instead of full orders
+    private boolean isSummaryView(String view) {
+        return "summary".equalsIgnoreCase(view);
+    }
 }
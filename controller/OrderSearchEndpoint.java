@@ -0,0 +1,29 @@
+package com.orderms.controller;
+
+import com.orderms.service.OrderSearchIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// /actuator/ordersearch: index size and state; POST rebuilds it from the database
+@Component
+@Endpoint(id = "ordersearch")
+public class OrderSearchEndpoint {
+    
+    @Autowired
+    private OrderSearchIndex orderSearchIndex;
+    
+    @ReadOperation
+    public Map<String, Object> stats() {
+        return orderSearchIndex.getStats();
+    }
+    
+    @WriteOperation
+    public void rebuild() {
+        orderSearchIndex.requestRebuild();
+    }
+}
@@ -0,0 +1,37 @@
+package com.orderms.controller;
+
+import com.orderms.service.OrderShards;
+import com.orderms.service.ShardRebalancer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// /actuator/ordershards: buckets per shard and rebalance progress; POST starts a rebalance
+// after shards have been added
+@Component
+@Endpoint(id = "ordershards")
+public class OrderShardEndpoint {
+    
+    @Autowired
+    private OrderShards orderShards;
+    
+    @Autowired
+    private ShardRebalancer shardRebalancer;
+    
+    @ReadOperation
+    public Map<String, Object> stats() {
+        return shardRebalancer.getStats();
+    }
+    
+    @WriteOperation
+    public Map<String, Object> rebalance() {
+        if (!orderShards.isEnabled()) {
+            return Map.of("status", "sharding is not enabled");
+        }
+        return Map.of("status", shardRebalancer.start() ? "started" : "already running");
+    }
+}
@@ -0,0 +1,64 @@
+-- Order schema for MySQL 8. Hibernate emulates the id sequences with single-row tables.
+
+CREATE TABLE orders (
+    id               BIGINT       NOT NULL,
+    customer_id      VARCHAR(255) NOT NULL,
+    customer_name    VARCHAR(255),
+    customer_email   VARCHAR(255),
+    customer_phone   VARCHAR(255),
+    order_status     VARCHAR(32)  NOT NULL,
+    total_amount     DOUBLE,
+    delivery_address VARCHAR(255),
+    order_notes      VARCHAR(255),
+    created_at       DATETIME(6)  NOT NULL,
+    updated_at       DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+-- InnoDB appends the primary key to every secondary index, so these also serve the
+-- id tie-breaker of the keyset paging queries
+CREATE INDEX idx_orders_customer_id ON orders (customer_id);
+CREATE INDEX idx_orders_customer_created ON orders (customer_id, created_at);
+CREATE INDEX idx_orders_status ON orders (order_status);
+CREATE INDEX idx_orders_created_at ON orders (created_at);
+CREATE INDEX idx_orders_total_amount ON orders (total_amount);
+
+CREATE TABLE order_items (
+    id                  BIGINT       NOT NULL,
+    order_id            BIGINT       NOT NULL,
+    product_name        VARCHAR(255) NOT NULL,
+    product_description VARCHAR(255),
+    quantity            INT          NOT NULL,
+    price               DOUBLE       NOT NULL,
+    category            VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_order_items_order FOREIGN KEY (order_id) REFERENCES orders (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_order_items_order_id ON order_items (order_id);
+
+CREATE TABLE order_outbox (
+    id              BIGINT        NOT NULL,
+    order_id        BIGINT        NOT NULL,
+    event_type      VARCHAR(255)  NOT NULL,
+    subject         VARCHAR(255)  NOT NULL,
+    payload         VARCHAR(4000) NOT NULL,
+    status          VARCHAR(32)   NOT NULL,
+    attempts        INT           NOT NULL,
+    last_error      VARCHAR(1000),
+    created_at      DATETIME(6)   NOT NULL,
+    next_attempt_at DATETIME(6)   NOT NULL,
+    delivered_at    DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_order_outbox_status_next ON order_outbox (status, next_attempt_at);
+
+CREATE TABLE orders_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO orders_seq VALUES (1);
+
+CREATE TABLE order_items_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO order_items_seq VALUES (1);
+
+CREATE TABLE order_outbox_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO order_outbox_seq VALUES (1);
@@ -0,0 +1,2 @@
+-- Optimistic locking column for Order (@Version)
+ALTER TABLE orders ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
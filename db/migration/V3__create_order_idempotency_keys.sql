@@ -0,0 +1,11 @@
+-- Idempotency-Key records for POST /api/orders (orders.idempotency.store=jdbc)
+CREATE TABLE order_idempotency_keys (
+    idem_key    VARCHAR(128) NOT NULL,
+    fingerprint VARCHAR(64)  NOT NULL,
+    order_id    BIGINT,
+    created_at  DATETIME(6)  NOT NULL,
+    expires_at  DATETIME(6)  NOT NULL,
+    PRIMARY KEY (idem_key)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_order_idempotency_expires_at ON order_idempotency_keys (expires_at);
@@ -0,0 +1,21 @@
+-- Sparse index over archived order segments: one row per compressed block
+CREATE TABLE order_archive_blocks (
+    id              BIGINT       NOT NULL,
+    segment_path    VARCHAR(512) NOT NULL,
+    partition_month VARCHAR(7)   NOT NULL,
+    block_offset    BIGINT       NOT NULL,
+    block_length    INT          NOT NULL,
+    first_order_id  BIGINT       NOT NULL,
+    last_order_id   BIGINT       NOT NULL,
+    order_count     INT          NOT NULL,
+    archived_at     DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_order_archive_blocks_ids ON order_archive_blocks (first_order_id, last_order_id);
+
+CREATE TABLE order_archive_blocks_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO order_archive_blocks_seq VALUES (1);
+
+-- Archival candidates: terminal status, oldest update first
+CREATE INDEX idx_orders_status_updated ON orders (order_status, updated_at);
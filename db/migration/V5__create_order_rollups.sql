@@ -0,0 +1,14 @@
+-- Pre-aggregated order volume and revenue per time bucket and status or item category
+CREATE TABLE order_rollups (
+    granularity     VARCHAR(8)   NOT NULL,
+    dimension       VARCHAR(16)  NOT NULL,
+    bucket_start    DATETIME(6)  NOT NULL,
+    dimension_value VARCHAR(255) NOT NULL,
+    order_count     BIGINT       NOT NULL,
+    item_count      BIGINT       NOT NULL,
+    revenue         DOUBLE       NOT NULL,
+    PRIMARY KEY (granularity, dimension, bucket_start, dimension_value)
+) ENGINE = InnoDB;
+
+-- Rebuilds and the minute retention purge select by bucket across granularities and dimensions
+CREATE INDEX idx_order_rollups_bucket ON order_rollups (bucket_start);
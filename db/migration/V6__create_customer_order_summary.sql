@@ -0,0 +1,34 @@
+-- Materialized per-customer order summary, maintained with every order write
+CREATE TABLE customer_order_summary (
+    customer_id      VARCHAR(255) NOT NULL,
+    order_count      BIGINT       NOT NULL,
+    lifetime_spend   DOUBLE       NOT NULL,
+    placed_count     BIGINT       NOT NULL,
+    processing_count BIGINT       NOT NULL,
+    ready_count      BIGINT       NOT NULL,
+    delivered_count  BIGINT       NOT NULL,
+    cancelled_count  BIGINT       NOT NULL,
+    first_order_at   DATETIME(6),
+    last_order_at    DATETIME(6),
+    last_order_id    BIGINT,
+    updated_at       DATETIME(6),
+    PRIMARY KEY (customer_id)
+) ENGINE = InnoDB;
+
+-- Backfill from the existing orders
+INSERT INTO customer_order_summary (customer_id, order_count, lifetime_spend, placed_count, processing_count,
+                                    ready_count, delivered_count, cancelled_count, first_order_at, last_order_at,
+                                    updated_at)
+SELECT customer_id, COUNT(*),
+       COALESCE(SUM(CASE WHEN order_status <> 'ORDER_CANCELLED' THEN total_amount ELSE 0 END), 0),
+       SUM(CASE WHEN order_status = 'ORDER_PLACED' THEN 1 ELSE 0 END),
+       SUM(CASE WHEN order_status = 'ORDER_PROCESSING' THEN 1 ELSE 0 END),
+       SUM(CASE WHEN order_status = 'ORDER_READY' THEN 1 ELSE 0 END),
+       SUM(CASE WHEN order_status = 'ORDER_DELIVERED' THEN 1 ELSE 0 END),
+       SUM(CASE WHEN order_status = 'ORDER_CANCELLED' THEN 1 ELSE 0 END),
+       MIN(created_at), MAX(created_at), CURRENT_TIMESTAMP(6)
+FROM orders
+GROUP BY customer_id;
+
+UPDATE customer_order_summary s SET last_order_id =
+    (SELECT o.id FROM orders o WHERE o.customer_id = s.customer_id ORDER BY o.created_at DESC, o.id DESC LIMIT 1);
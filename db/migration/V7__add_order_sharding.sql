@@ -0,0 +1,18 @@
+-- Customer bucket of every order (orders.sharding). Rows written before this migration keep a
+-- NULL bucket: an existing database becomes the home shard's data only through a fresh import.
+ALTER TABLE orders ADD COLUMN shard_bucket SMALLINT;
+
+-- Rebalancing copies and deletes one bucket at a time in id order
+CREATE INDEX idx_orders_shard_bucket ON orders (shard_bucket, id);
+
+-- Completed idempotency keys move with their orders
+CREATE INDEX idx_order_idempotency_order_id ON order_idempotency_keys (order_id);
+
+-- Bucket to shard map, only read on the home shard (shard 0)
+CREATE TABLE order_shard_buckets (
+    bucket     SMALLINT    NOT NULL,
+    shard_id   INT         NOT NULL,
+    moving     BOOLEAN     NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (bucket)
+) ENGINE = InnoDB;
@@ -0,0 +1,25 @@
+package com.orderms.dto;
+
+import java.util.List;
+
+// Outcome of one record in a batch import, in request order
+public record BatchOrderResult(int index, Status status, Long orderId, List<String> errors) {
+
+    public enum Status { CREATED, INVALID, FAILED, TRUNCATED }
+
+    public static BatchOrderResult created(int index, Long orderId) {
+        return new BatchOrderResult(index, Status.CREATED, orderId, List.of());
+    }
+
+    public static BatchOrderResult invalid(int index, List<String> errors) {
+        return new BatchOrderResult(index, Status.INVALID, null, errors);
+    }
+
+    public static BatchOrderResult failed(int index, String error) {
+        return new BatchOrderResult(index, Status.FAILED, null, List.of(error));
+    }
+
+    public static BatchOrderResult truncated(int index, String error) {
+        return new BatchOrderResult(index, Status.TRUNCATED, null, List.of(error));
+    }
+}
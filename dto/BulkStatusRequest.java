@@ -0,0 +1,39 @@
+package com.orderms.dto;
+
+import com.orderms.model.OrderStatus;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Target status for either an explicit list of ids or every order matching a filter
+// (current status, optionally narrowed to a createdAt range)
+public class BulkStatusRequest {
+    private List<Long> ids;
+    
+    private OrderStatus currentStatus;
+    private LocalDateTime createdFrom;
+    private LocalDateTime createdTo;
+    
+    @NotNull(message = "Target status is required")
+    private OrderStatus status;
+    
+    // Constructors
+    public BulkStatusRequest() {}
+    
+    // Getters and Setters
+    public List<Long> getIds() { return ids; }
+    public void setIds(List<Long> ids) { this.ids = ids; }
+    
+    public OrderStatus getCurrentStatus() { return currentStatus; }
+    public void setCurrentStatus(OrderStatus currentStatus) { this.currentStatus = currentStatus; }
+    
+    public LocalDateTime getCreatedFrom() { return createdFrom; }
+    public void setCreatedFrom(LocalDateTime createdFrom) { this.createdFrom = createdFrom; }
+    
+    public LocalDateTime getCreatedTo() { return createdTo; }
+    public void setCreatedTo(LocalDateTime createdTo) { this.createdTo = createdTo; }
+    
+    public OrderStatus getStatus() { return status; }
+    public void setStatus(OrderStatus status) { this.status = status; }
+}
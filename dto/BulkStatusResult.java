@@ -0,0 +1,17 @@
+package com.orderms.dto;
+
+import com.orderms.model.OrderStatus;
+
+// Outcome of one order in a bulk status change, in request order
+public record BulkStatusResult(Long orderId, Outcome outcome, OrderStatus previousStatus, String error) {
+
+    public enum Outcome { UPDATED, UNCHANGED, INVALID_TRANSITION, NOT_FOUND, FAILED }
+
+    public static BulkStatusResult of(Long orderId, Outcome outcome, OrderStatus previousStatus) {
+        return new BulkStatusResult(orderId, outcome, previousStatus, null);
+    }
+
+    public static BulkStatusResult failed(Long orderId, String error) {
+        return new BulkStatusResult(orderId, Outcome.FAILED, null, error);
+    }
+}
@@ -0,0 +1,80 @@
+package com.orderms.dto;
+
+import com.orderms.model.Order;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Set;
+
+// Opaque keyset position: the last row's sort value plus its id as tie-breaker
+public class OrderCursor {
+
+    public static final Set<String> SORT_KEYS = Set.of("id", "createdAt", "totalAmount");
+
+    private static final String SEPARATOR = "|";
+
+    private final String sortBy;
+    private final boolean descending;
+    private final String value;
+    private final Long id;
+
+    public OrderCursor(String sortBy, boolean descending, String value, Long id) {
+        this.sortBy = sortBy;
+        this.descending = descending;
+        this.value = value;
+        this.id = id;
+    }
+
+    public static OrderCursor after(Order order, String sortBy, boolean descending) {
+        String value;
+        switch (sortBy) {
+            case "createdAt":
+                value = order.getCreatedAt().toString();
+                break;
+            case "totalAmount":
+                value = String.valueOf(order.getTotalAmount());
+                break;
+            default:
+                value = String.valueOf(order.getId());
+        }
+        return new OrderCursor(sortBy, descending, value, order.getId());
+    }
+
+    public static OrderCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, 4);
+            if (parts.length != 4 || !SORT_KEYS.contains(parts[0])) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            OrderCursor cursor = new OrderCursor(parts[0], "desc".equals(parts[1]), parts[2], Long.valueOf(parts[3]));
+            // Parse eagerly so a tampered token fails here rather than in the query
+            cursor.getCreatedAt();
+            cursor.getTotalAmount();
+            return cursor;
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        String raw = sortBy + SEPARATOR + (descending ? "desc" : "asc") + SEPARATOR + value + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getSortBy() { return sortBy; }
+
+    public boolean isDescending() { return descending; }
+
+    public Long getId() { return id; }
+
+    public LocalDateTime getCreatedAt() {
+        return "createdAt".equals(sortBy) ? LocalDateTime.parse(value) : null;
+    }
+
+    public Double getTotalAmount() {
+        return "totalAmount".equals(sortBy) ? Double.valueOf(value) : null;
+    }
+}
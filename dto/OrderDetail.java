@@ -0,0 +1,50 @@
+package com.orderms.dto;
+
+import com.orderms.model.Order;
+import com.orderms.model.OrderStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Immutable order with items; serializes to the same shape as the Order entity
+public record OrderDetail(
+        Long id,
+        String customerId,
+        String customerName,
+        String customerEmail,
+        String customerPhone,
+        OrderStatus status,
+        Double totalAmount,
+        String deliveryAddress,
+        String orderNotes,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        Long version,
+        List<OrderItemView> items) {
+
+    public static OrderDetail of(OrderSummary summary, List<OrderItemView> items) {
+        return new OrderDetail(
+            summary.id(),
+            summary.customerId(),
+            summary.customerName(),
+            summary.customerEmail(),
+            summary.customerPhone(),
+            summary.status(),
+            summary.totalAmount(),
+            summary.deliveryAddress(),
+            summary.orderNotes(),
+            summary.createdAt(),
+            summary.updatedAt(),
+            summary.version(),
+            List.copyOf(items));
+    }
+
+    // Requires the order's items to be loaded
+    public static OrderDetail from(Order order) {
+        List<OrderItemView> items = order.getItems().stream()
+            .map(item -> new OrderItemView(item.getId(), item.getProductName(), item.getProductDescription(),
+                item.getQuantity(), item.getPrice(), item.getCategory()))
+            .toList();
+        return of(OrderSummary.from(order), items);
+    }
+}
@@ -0,0 +1,17 @@
+package com.orderms.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record OrderItemView(
+        Long id,
+        String productName,
+        String productDescription,
+        Integer quantity,
+        Double price,
+        String category) {
+
+    @JsonProperty("totalPrice")
+    public Double totalPrice() {
+        return price * quantity;
+    }
+}
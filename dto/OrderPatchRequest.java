@@ -0,0 +1,86 @@
+package com.orderms.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Positive;
+import java.util.List;
+
+// Partial update for PATCH /api/orders/{id}: null fields are left unchanged.
+// Items with an id are updated in place (again only their non-null fields), items without
+// an id are added, and removedItemIds are deleted. Items not mentioned are kept as they are.
+public class OrderPatchRequest {
+    private String customerName;
+    
+    @Email(message = "Valid email is required")
+    private String customerEmail;
+    
+    private String customerPhone;
+    private String deliveryAddress;
+    private String orderNotes;
+    
+    @Valid
+    private List<OrderItemPatch> items;
+    
+    private List<Long> removedItemIds;
+    
+    // Constructors
+    public OrderPatchRequest() {}
+    
+    // Getters and Setters
+    public String getCustomerName() { return customerName; }
+    public void setCustomerName(String customerName) { this.customerName = customerName; }
+    
+    public String getCustomerEmail() { return customerEmail; }
+    public void setCustomerEmail(String customerEmail) { this.customerEmail = customerEmail; }
+    
+    public String getCustomerPhone() { return customerPhone; }
+    public void setCustomerPhone(String customerPhone) { this.customerPhone = customerPhone; }
+    
+    public String getDeliveryAddress() { return deliveryAddress; }
+    public void setDeliveryAddress(String deliveryAddress) { this.deliveryAddress = deliveryAddress; }
+    
+    public String getOrderNotes() { return orderNotes; }
+    public void setOrderNotes(String orderNotes) { this.orderNotes = orderNotes; }
+    
+    public List<OrderItemPatch> getItems() { return items; }
+    public void setItems(List<OrderItemPatch> items) { this.items = items; }
+    
+    public List<Long> getRemovedItemIds() { return removedItemIds; }
+    public void setRemovedItemIds(List<Long> removedItemIds) { this.removedItemIds = removedItemIds; }
+    
+    public static class OrderItemPatch {
+        private Long id;
+        private String productName;
+        private String productDescription;
+        
+        @Positive(message = "Quantity must be positive")
+        private Integer quantity;
+        
+        @Positive(message = "Price must be positive")
+        private Double price;
+        
+        private String category;
+        
+        // Constructors
+        public OrderItemPatch() {}
+        
+        // Getters and Setters
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+        
+        public String getProductName() { return productName; }
+        public void setProductName(String productName) { this.productName = productName; }
+        
+        public String getProductDescription() { return productDescription; }
+        public void setProductDescription(String productDescription) { this.productDescription = productDescription; }
+        
+        public Integer getQuantity() { return quantity; }
+        public void setQuantity(Integer quantity) { this.quantity = quantity; }
+        
+        public Double getPrice() { return price; }
+        public void setPrice(Double price) { this.price = price; }
+        
+        public String getCategory() { return category; }
+        public void setCategory(String category) { this.category = category; }
+    }
+}
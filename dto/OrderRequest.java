@@ -48,6 +48,9 @@ public class OrderRequest {
     public void setItems(List<OrderItemRequest> items) { this.items = items; }
     
     public static class OrderItemRequest {
+        // Existing item to update in place; null adds a new item
+        private Long id;
+        
         @NotBlank(message = "Product name is required")
         private String productName;
         private String productDescription;
@@ -59,6 +62,9 @@ public class OrderRequest {
         public OrderItemRequest() {}
         
         // Getters and Setters
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+        
         public String getProductName() { return productName; }
         public void setProductName(String productName) { this.productName = productName; }
         
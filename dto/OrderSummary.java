@@ -0,0 +1,40 @@
+package com.orderms.dto;
+
+import com.orderms.model.Order;
+import com.orderms.model.OrderStatus;
+
+import java.time.LocalDateTime;
+
+// Read-only order row without items, selected straight from OrderRepository
+public record OrderSummary(
+        Long id,
+        String customerId,
+        String customerName,
+        String customerEmail,
+        String customerPhone,
+        OrderStatus status,
+        Double totalAmount,
+        String deliveryAddress,
+        String orderNotes,
+        Long itemCount,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        Long version) {
+
+    public static OrderSummary from(Order order) {
+        return new OrderSummary(
+            order.getId(),
+            order.getCustomerId(),
+            order.getCustomerName(),
+            order.getCustomerEmail(),
+            order.getCustomerPhone(),
+            order.getStatus(),
+            order.getTotalAmount(),
+            order.getDeliveryAddress(),
+            order.getOrderNotes(),
+            (long) order.getItems().size(),
+            order.getCreatedAt(),
+            order.getUpdatedAt(),
+            order.getVersion());
+    }
+}
@@ -0,0 +1,7 @@
+package com.orderms.dto;
+
+import java.time.LocalDateTime;
+
+// One rollup row as returned by /api/analytics; value is null for totals across a dimension
+public record RollupBucket(LocalDateTime bucketStart, String value, long orders, long items, double revenue) {
+}
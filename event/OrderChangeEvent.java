@@ -0,0 +1,69 @@
+package com.orderms.event;
+
+import com.orderms.dto.OrderSummary;
+import com.orderms.model.Order;
+import com.orderms.model.OrderStatus;
+
+import java.time.LocalDateTime;
+
+// Published by OrderService inside the write transaction; listeners act after commit
+public record OrderChangeEvent(
+        Type type,
+        Long orderId,
+        String customerId,
+        OrderStatus previousStatus,
+        OrderStatus status,
+        Double previousTotalAmount,
+        Double totalAmount,
+        LocalDateTime createdAt,
+        OrderSummary order,
+        LocalDateTime occurredAt) {
+
+    public enum Type { CREATED, UPDATED, STATUS_CHANGED, DELETED, ARCHIVED }
+
+    public static OrderChangeEvent created(Order order) {
+        return of(Type.CREATED, order, null, null);
+    }
+
+    public static OrderChangeEvent updated(Order order, Double previousTotalAmount) {
+        return of(Type.UPDATED, order, order.getStatus(), previousTotalAmount);
+    }
+
+    // Status changes applied by conditional update carry the re-read summary instead of an entity
+    public static OrderChangeEvent statusChanged(OrderSummary order, OrderStatus previousStatus) {
+        return new OrderChangeEvent(
+            Type.STATUS_CHANGED,
+            order.id(),
+            order.customerId(),
+            previousStatus,
+            order.status(),
+            order.totalAmount(),
+            order.totalAmount(),
+            order.createdAt(),
+            order,
+            LocalDateTime.now());
+    }
+
+    public static OrderChangeEvent deleted(Order order) {
+        return of(Type.DELETED, order, order.getStatus(), order.getTotalAmount());
+    }
+
+    // Moved out of the live tables into the archive; readers treat it like a delete
+    public static OrderChangeEvent archived(Order order) {
+        return of(Type.ARCHIVED, order, order.getStatus(), order.getTotalAmount());
+    }
+
+    private static OrderChangeEvent of(Type type, Order order, OrderStatus previousStatus, Double previousTotalAmount) {
+        return new OrderChangeEvent(
+            type,
+            order.getId(),
+            order.getCustomerId(),
+            previousStatus,
+            order.getStatus(),
+            previousTotalAmount,
+            order.getTotalAmount(),
+            order.getCreatedAt(),
+            OrderSummary.from(order),
+            LocalDateTime.now());
+    }
+}
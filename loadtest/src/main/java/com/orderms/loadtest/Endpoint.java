@@ -0,0 +1,27 @@
+package com.orderms.loadtest;
+
+// Request classes in the traffic mix; weights are percentages of all requests
+enum Endpoint {
+    GET_ORDER(70),
+    LIST_ORDERS(10),
+    SEARCH_ORDERS(5),
+    UPDATE_STATUS(10),
+    CREATE_ORDER(5);
+
+    private final int weight;
+
+    Endpoint(int weight) {
+        this.weight = weight;
+    }
+
+    static Endpoint pick(int percentile) {
+        int cumulative = 0;
+        for (Endpoint endpoint : values()) {
+            cumulative += endpoint.weight;
+            if (percentile < cumulative) {
+                return endpoint;
+            }
+        }
+        return GET_ORDER;
+    }
+}
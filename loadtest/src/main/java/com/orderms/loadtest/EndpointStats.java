@@ -0,0 +1,52 @@
+package com.orderms.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latency histogram and outcome counts for one endpoint during the measured window
+final class EndpointStats {
+
+    private final Recorder recorder = new Recorder(3);
+    private final Histogram histogram = new Histogram(3);
+    private final LongAdder succeeded = new LongAdder();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    void recordSuccess(long latencyNanos) {
+        recorder.recordValue(latencyNanos);
+        succeeded.increment();
+    }
+
+    // Failed requests count towards latency too; otherwise fast failures look like good news
+    void recordError(long latencyNanos, String reason) {
+        recorder.recordValue(latencyNanos);
+        errors.computeIfAbsent(reason, key -> new LongAdder()).increment();
+    }
+
+    void recordRejected() {
+        errors.computeIfAbsent("client-overload", key -> new LongAdder()).increment();
+    }
+
+    synchronized Histogram histogram() {
+        histogram.add(recorder.getIntervalHistogram());
+        return histogram;
+    }
+
+    long succeeded() {
+        return succeeded.sum();
+    }
+
+    long errorCount() {
+        return errors.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    Map<String, Long> errors() {
+        Map<String, Long> result = new TreeMap<>();
+        errors.forEach((reason, count) -> result.put(reason, count.sum()));
+        return result;
+    }
+}
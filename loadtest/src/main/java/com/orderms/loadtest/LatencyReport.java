@@ -0,0 +1,99 @@
+package com.orderms.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Per-endpoint percentiles, throughput and error rates for the measured window
+final class LatencyReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final Map<String, Object> report = new LinkedHashMap<>();
+
+    LatencyReport(LoadConfig config, Map<Endpoint, EndpointStats> stats, long elapsedNanos, int unfinished) {
+        double seconds = elapsedNanos / 1e9;
+        Histogram all = new Histogram(3);
+        long succeeded = 0;
+        long errors = 0;
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        for (Map.Entry<Endpoint, EndpointStats> entry : stats.entrySet()) {
+            EndpointStats endpointStats = entry.getValue();
+            Histogram histogram = endpointStats.histogram();
+            all.add(histogram);
+            succeeded += endpointStats.succeeded();
+            errors += endpointStats.errorCount();
+            Map<String, Object> summary = summarize(histogram, endpointStats.succeeded(), endpointStats.errorCount(), seconds);
+            summary.put("errorsByReason", endpointStats.errors());
+            endpoints.put(entry.getKey().name(), summary);
+        }
+
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("targetRps", config.rps());
+        settings.put("warmupSeconds", config.warmupSeconds());
+        settings.put("durationSeconds", config.durationSeconds());
+        settings.put("seedOrders", config.seedOrders());
+        settings.put("applicationArgs", config.applicationArgs());
+        settings.put("javaVersion", System.getProperty("java.version"));
+        settings.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+
+        report.put("settings", settings);
+        report.put("total", summarize(all, succeeded, errors, seconds));
+        report.put("unfinishedRequests", unfinished);
+        report.put("endpoints", endpoints);
+    }
+
+    void print(PrintStream out) {
+        out.printf("%n%-15s %9s %9s %8s %9s %9s %9s %9s %9s%n",
+            "endpoint", "requests", "req/s", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Object>> endpoints = (Map<String, Map<String, Object>>) report.get("endpoints");
+        endpoints.forEach((name, summary) -> printRow(out, name, summary));
+        @SuppressWarnings("unchecked")
+        Map<String, Object> total = (Map<String, Object>) report.get("total");
+        printRow(out, "TOTAL", total);
+    }
+
+    void write(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), report);
+    }
+
+    private static Map<String, Object> summarize(Histogram histogram, long succeeded, long errors, double seconds) {
+        long requests = succeeded + errors;
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", requests);
+        summary.put("throughputPerSecond", requests / seconds);
+        summary.put("errors", errors);
+        summary.put("errorRate", requests == 0 ? 0.0 : (double) errors / requests);
+        Map<String, Double> latency = new LinkedHashMap<>();
+        for (double percentile : PERCENTILES) {
+            latency.put("p" + percentile, millis(histogram.getValueAtPercentile(percentile)));
+        }
+        latency.put("max", millis(histogram.getMaxValue()));
+        latency.put("mean", histogram.getMean() / 1e6);
+        summary.put("latencyMs", latency);
+        return summary;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void printRow(PrintStream out, String name, Map<String, Object> summary) {
+        Map<String, Double> latency = (Map<String, Double>) summary.get("latencyMs");
+        out.printf("%-15s %9d %9.1f %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n", name,
+            (Long) summary.get("requests"), (Double) summary.get("throughputPerSecond"), (Long) summary.get("errors"),
+            latency.get("p50.0"), latency.get("p90.0"), latency.get("p99.0"), latency.get("p99.9"), latency.get("max"));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,59 @@
+package com.orderms.loadtest;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Driver settings from --load.* arguments; every other argument is handed to the application
+record LoadConfig(
+        String baseUrl,
+        int rps,
+        int warmupSeconds,
+        int durationSeconds,
+        int seedOrders,
+        int maxInFlight,
+        long seed,
+        Path report,
+        List<String> applicationArgs) {
+
+    static LoadConfig parse(String[] args) {
+        String baseUrl = null;
+        int rps = 200;
+        int warmupSeconds = 15;
+        int durationSeconds = 60;
+        int seedOrders = 10_000;
+        int maxInFlight = 2_000;
+        long seed = 42;
+        Path report = Path.of("target", "loadtest-report.json");
+        List<String> applicationArgs = new ArrayList<>();
+
+        for (String arg : args) {
+            if (!arg.startsWith("--load.")) {
+                applicationArgs.add(arg);
+                continue;
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected --load.<name>=<value>: " + arg);
+            }
+            String name = arg.substring("--load.".length(), eq);
+            String value = arg.substring(eq + 1);
+            switch (name) {
+                case "base-url" -> baseUrl = value;
+                case "rps" -> rps = Integer.parseInt(value);
+                case "warmup-seconds" -> warmupSeconds = Integer.parseInt(value);
+                case "duration-seconds" -> durationSeconds = Integer.parseInt(value);
+                case "seed-orders" -> seedOrders = Integer.parseInt(value);
+                case "max-in-flight" -> maxInFlight = Integer.parseInt(value);
+                case "seed" -> seed = Long.parseLong(value);
+                case "report" -> report = Path.of(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (rps <= 0 || durationSeconds <= 0) {
+            throw new IllegalArgumentException("load.rps and load.duration-seconds must be positive");
+        }
+        return new LoadConfig(baseUrl, rps, warmupSeconds, durationSeconds, seedOrders, maxInFlight, seed,
+            report, List.copyOf(applicationArgs));
+    }
+}
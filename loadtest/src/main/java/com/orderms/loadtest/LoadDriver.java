@@ -0,0 +1,196 @@
+package com.orderms.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orderms.model.OrderStatus;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+// Open-model driver: requests are issued on a fixed schedule whatever the response times,
+// and latency is measured from each request's scheduled start, so a stalled server shows
+// up as queueing delay instead of silently lowering the offered load
+final class LoadDriver {
+
+    private static final int SEED_CHUNK = 1000;
+    private static final String[] SEARCH_TERMS = {"smith", "john", "ja", "coffee", "cust0000042"};
+    private static final String[] FIRST_NAMES = {"John", "Jane", "Mike", "Sarah", "David", "Emma", "Liam", "Olivia"};
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller"};
+    private static final String[] PRODUCTS = {"Premium Coffee Beans", "Ceramic Mug", "Wireless Headphones", "Laptop Stand"};
+
+    private final LoadConfig config;
+    private final String apiUrl;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client;
+    private final Random random;
+    private final List<Long> orderIds = new ArrayList<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+    private volatile boolean measuring;
+
+    LoadDriver(LoadConfig config, String baseUrl) {
+        this.config = config;
+        this.apiUrl = baseUrl + "/api/orders";
+        this.random = new Random(config.seed());
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors())))
+            .build();
+        for (Endpoint endpoint : Endpoint.values()) {
+            stats.put(endpoint, new EndpointStats());
+        }
+    }
+
+    void seed() throws IOException, InterruptedException {
+        for (int from = 0; from < config.seedOrders(); from += SEED_CHUNK) {
+            int count = Math.min(SEED_CHUNK, config.seedOrders() - from);
+            List<Map<String, Object>> batch = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                batch.add(orderRequest(from + i));
+            }
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(apiUrl + "/batch"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(batch)))
+                    .build(),
+                HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Seeding failed with HTTP " + response.statusCode() + ": " + response.body());
+            }
+            for (JsonNode result : objectMapper.readTree(response.body()).path("results")) {
+                if (result.hasNonNull("orderId")) {
+                    orderIds.add(result.get("orderId").asLong());
+                }
+            }
+        }
+        if (orderIds.isEmpty()) {
+            throw new IllegalStateException("No orders were seeded");
+        }
+    }
+
+    LatencyReport run() throws InterruptedException {
+        measuring = false;
+        drive(config.warmupSeconds());
+        measuring = true;
+        long start = System.nanoTime();
+        drive(config.durationSeconds());
+        // Requests still outstanding at the end belong to the measured window
+        long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        measuring = false;
+        return new LatencyReport(config, stats, elapsedNanos, inFlight.get());
+    }
+
+    private void drive(int seconds) {
+        long intervalNanos = 1_000_000_000L / config.rps();
+        long total = (long) seconds * config.rps();
+        long start = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long scheduled = start + i * intervalNanos;
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            send(Endpoint.pick(random.nextInt(100)), scheduled);
+        }
+    }
+
+    private void send(Endpoint endpoint, long scheduled) {
+        boolean measured = measuring;
+        EndpointStats endpointStats = stats.get(endpoint);
+        if (inFlight.get() >= config.maxInFlight()) {
+            if (measured) {
+                endpointStats.recordRejected();
+            }
+            return;
+        }
+
+        HttpRequest request = request(endpoint);
+        inFlight.incrementAndGet();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            inFlight.decrementAndGet();
+            if (!measured) {
+                return;
+            }
+            long latency = System.nanoTime() - scheduled;
+            if (error != null) {
+                endpointStats.recordError(latency, error.getClass().getSimpleName());
+            } else if (response.statusCode() >= 400 && !(endpoint == Endpoint.UPDATE_STATUS && response.statusCode() == 409)) {
+                // Random target statuses are often not allowed from the current one; the 409 is a normal answer
+                endpointStats.recordError(latency, "HTTP " + response.statusCode());
+            } else {
+                endpointStats.recordSuccess(latency);
+            }
+        });
+    }
+
+    private HttpRequest request(Endpoint endpoint) {
+        long id = orderIds.get(random.nextInt(orderIds.size()));
+        return switch (endpoint) {
+            case GET_ORDER -> get(apiUrl + "/" + id);
+            case LIST_ORDERS -> get(apiUrl + "?cursor=&size=20");
+            case SEARCH_ORDERS -> get(apiUrl + "/search?size=20&q="
+                + URLEncoder.encode(SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)], StandardCharsets.UTF_8));
+            case UPDATE_STATUS -> {
+                OrderStatus status = OrderStatus.values()[random.nextInt(OrderStatus.values().length)];
+                yield HttpRequest.newBuilder(URI.create(apiUrl + "/" + id + "/status?status=" + status.name()))
+                    .PUT(HttpRequest.BodyPublishers.noBody())
+                    .build();
+            }
+            case CREATE_ORDER -> {
+                try {
+                    yield HttpRequest.newBuilder(URI.create(apiUrl))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                            objectMapper.writeValueAsString(orderRequest(random.nextInt(1_000_000)))))
+                        .build();
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).GET().build();
+    }
+
+    private static Map<String, Object> orderRequest(int n) {
+        int customer = n / 5;
+        String first = FIRST_NAMES[customer % FIRST_NAMES.length];
+        String last = LAST_NAMES[(customer / FIRST_NAMES.length) % LAST_NAMES.length];
+
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("productName", PRODUCTS[n % PRODUCTS.length]);
+        item.put("quantity", 1 + n % 3);
+        item.put("price", 9.99 + n % 50);
+        item.put("category", "General");
+
+        Map<String, Object> order = new LinkedHashMap<>();
+        order.put("customerId", String.format("CUST%07d", customer));
+        order.put("customerName", first + " " + last);
+        order.put("customerEmail", (first + "." + last + customer + "@email.com").toLowerCase());
+        order.put("customerPhone", String.format("+1-555-%07d", customer));
+        order.put("deliveryAddress", (100 + customer % 900) + " Main St, Springfield");
+        order.put("items", List.of(item));
+        return order;
+    }
+}
@@ -0,0 +1,75 @@
+package com.orderms.loadtest;
+
+import com.orderms.OrderManagementApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Boots the application on a random port (unless --load.base-url points at a running one),
+// seeds orders through the batch API, drives the traffic mix and prints the latency report.
+// Arguments other than --load.* are application properties, e.g. --orders.cache.ttl-seconds=5
+public final class LoadTestMain {
+
+    private static final List<String> APPLICATION_DEFAULTS = List.of(
+        "--server.port=0",
+        "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "--spring.sql.init.mode=never",
+        "--spring.jpa.show-sql=false",
+        "--spring.jpa.properties.hibernate.format_sql=false",
+        "--logging.level.root=WARN",
+        "--logging.level.com.orderms=WARN",
+        "--logging.level.org.hibernate.SQL=OFF",
+        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=OFF",
+        "--notifications.enabled=false");
+
+    private LoadTestMain() {}
+
+    public static void main(String[] args) throws Exception {
+        LoadConfig config = LoadConfig.parse(args);
+        ConfigurableApplicationContext context = null;
+        String baseUrl = config.baseUrl();
+        if (baseUrl == null) {
+            context = new SpringApplicationBuilder(OrderManagementApplication.class)
+                .run(applicationArgs(config.applicationArgs()));
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+
+        try {
+            LoadDriver driver = new LoadDriver(config, baseUrl);
+            System.out.printf("Seeding %d orders at %s%n", config.seedOrders(), baseUrl);
+            driver.seed();
+            System.out.printf("Driving %d req/s: %ds warmup, %ds measured%n",
+                config.rps(), config.warmupSeconds(), config.durationSeconds());
+            LatencyReport report = driver.run();
+            report.print(System.out);
+            report.write(config.report());
+            System.out.printf("%nReport written to %s%n", config.report().toAbsolutePath());
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+        System.exit(0);
+    }
+
+    // Later arguments replace defaults with the same key; Spring would otherwise join
+    // repeated command-line keys into one comma-separated value
+    private static String[] applicationArgs(List<String> overrides) {
+        Map<String, String> args = new LinkedHashMap<>();
+        for (String arg : APPLICATION_DEFAULTS) {
+            args.put(key(arg), arg);
+        }
+        for (String arg : overrides) {
+            args.put(key(arg), arg);
+        }
+        return args.values().toArray(new String[0]);
+    }
+
+    private static String key(String arg) {
+        int eq = arg.indexOf('=');
+        return eq < 0 ? arg : arg.substring(0, eq);
+    }
+}
@@ -0,0 +1,91 @@
+package com.orderms.model;
+
+import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// One row per customer, maintained by CustomerSummaryService in the same transaction as the order writes
+@Entity
+@Table(name = "customer_order_summary")
+public class CustomerOrderSummary {
+    
+    @Id
+    @Column(name = "customer_id")
+    private String customerId;
+    
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+    
+    // Total of all orders that are not cancelled
+    @Column(name = "lifetime_spend", nullable = false)
+    private double lifetimeSpend;
+    
+    @JsonIgnore
+    @Column(name = "placed_count", nullable = false)
+    private long placedCount;
+    
+    @JsonIgnore
+    @Column(name = "processing_count", nullable = false)
+    private long processingCount;
+    
+    @JsonIgnore
+    @Column(name = "ready_count", nullable = false)
+    private long readyCount;
+    
+    @JsonIgnore
+    @Column(name = "delivered_count", nullable = false)
+    private long deliveredCount;
+    
+    @JsonIgnore
+    @Column(name = "cancelled_count", nullable = false)
+    private long cancelledCount;
+    
+    @Column(name = "first_order_at")
+    private LocalDateTime firstOrderAt;
+    
+    @Column(name = "last_order_at")
+    private LocalDateTime lastOrderAt;
+    
+    @Column(name = "last_order_id")
+    private Long lastOrderId;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    // Constructors
+    public CustomerOrderSummary() {}
+    
+    // Getters
+    public String getCustomerId() { return customerId; }
+    public long getOrderCount() { return orderCount; }
+    public double getLifetimeSpend() { return lifetimeSpend; }
+    public LocalDateTime getFirstOrderAt() { return firstOrderAt; }
+    public LocalDateTime getLastOrderAt() { return lastOrderAt; }
+    public Long getLastOrderId() { return lastOrderId; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    
+    public long getCount(OrderStatus status) {
+        return switch (status) {
+            case ORDER_PLACED -> placedCount;
+            case ORDER_PROCESSING -> processingCount;
+            case ORDER_READY -> readyCount;
+            case ORDER_DELIVERED -> deliveredCount;
+            case ORDER_CANCELLED -> cancelledCount;
+        };
+    }
+    
+    public long getOpenOrders() {
+        return placedCount + processingCount + readyCount;
+    }
+    
+    public Map<OrderStatus, Long> getOrdersByStatus() {
+        Map<OrderStatus, Long> counts = new LinkedHashMap<>();
+        for (OrderStatus status : OrderStatus.values()) {
+            counts.put(status, getCount(status));
+        }
+        return counts;
+    }
+}
@@ -3,17 +3,37 @@ package com.orderms.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+    @Index(name = "idx_orders_customer_id", columnList = "customer_id"),
+    @Index(name = "idx_orders_customer_created", columnList = "customer_id, created_at"),
+    @Index(name = "idx_orders_status", columnList = "order_status"),
+    @Index(name = "idx_orders_status_updated", columnList = "order_status, updated_at"),
+    @Index(name = "idx_orders_created_at", columnList = "created_at"),
+    @Index(name = "idx_orders_total_amount", columnList = "total_amount"),
+    @Index(name = "idx_orders_shard_bucket", columnList = "shard_bucket, id")
+})
+// UPDATE statements only carry the columns that changed
+@DynamicUpdate
 public class Order {
+    // Pooled sequence ids keep JDBC insert batching enabled (IDENTITY disables it); sharded,
+    // ids are generated in process instead (see OrderIdGenerator)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "orders_seq")
+    @GenericGenerator(name = "orders_seq", type = OrderIdGenerator.class, parameters = {
+        @Parameter(name = "sequence_name", value = "orders_seq"),
+        @Parameter(name = "increment_size", value = "50")
+    })
     private Long id;
     
     @NotNull
@@ -44,12 +64,22 @@ public class Order {
     @Column(name = "order_notes")
     private String orderNotes;
     
+    // Logical shard bucket of the customer; rebalancing moves orders bucket by bucket
+    @JsonIgnore
+    @Column(name = "shard_bucket")
+    private Integer shardBucket;
+    
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
     
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    // Concurrent read-modify-write updates fail on flush instead of overwriting each other
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+    
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
     @JsonManagedReference
     private List<OrderItem> items = new ArrayList<>();
@@ -73,11 +103,16 @@ public class Order {
                 .sum();
     }
     
-    // Helper method to add items
+    // Helper method to add items; keeps the total as a running sum instead of re-adding every item
     public void addItem(OrderItem item) {
         items.add(item);
         item.setOrder(this);
-        calculateTotalAmount();
+        totalAmount = (totalAmount == null ? 0.0 : totalAmount) + item.getPrice() * item.getQuantity();
+    }
+    
+    // Orphan removal deletes the row on flush
+    public void removeItem(OrderItem item) {
+        items.remove(item);
     }
     
     // Getters and Setters
@@ -111,12 +146,18 @@ public class Order {
     public String getOrderNotes() { return orderNotes; }
     public void setOrderNotes(String orderNotes) { this.orderNotes = orderNotes; }
     
+    public Integer getShardBucket() { return shardBucket; }
+    public void setShardBucket(Integer shardBucket) { this.shardBucket = shardBucket; }
+    
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
     
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+    
     public List<OrderItem> getItems() { return items; }
     public void setItems(List<OrderItem> items) { 
         this.items = items;
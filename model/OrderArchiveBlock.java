@@ -0,0 +1,75 @@
+package com.orderms.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import java.time.LocalDateTime;
+
+// Sparse index over archive segments: one row per compressed block of archived orders,
+// holding the block's byte range and the id range it covers
+@Entity
+@Table(name = "order_archive_blocks", indexes = {
+    @Index(name = "idx_order_archive_blocks_ids", columnList = "first_order_id, last_order_id")
+})
+public class OrderArchiveBlock {
+    
+    @Id
+    @GeneratedValue(generator = "order_archive_blocks_seq")
+    @GenericGenerator(name = "order_archive_blocks_seq", type = OrderIdGenerator.class, parameters = {
+        @Parameter(name = "sequence_name", value = "order_archive_blocks_seq"),
+        @Parameter(name = "increment_size", value = "50")
+    })
+    private Long id;
+    
+    @Column(name = "segment_path", nullable = false, length = 512)
+    private String segmentPath;
+    
+    // yyyy-MM of the orders' creation date
+    @Column(name = "partition_month", nullable = false, length = 7)
+    private String partitionMonth;
+    
+    @Column(name = "block_offset", nullable = false)
+    private long blockOffset;
+    
+    @Column(name = "block_length", nullable = false)
+    private int blockLength;
+    
+    @Column(name = "first_order_id", nullable = false)
+    private Long firstOrderId;
+    
+    @Column(name = "last_order_id", nullable = false)
+    private Long lastOrderId;
+    
+    @Column(name = "order_count", nullable = false)
+    private int orderCount;
+    
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+    
+    // Constructors
+    public OrderArchiveBlock() {}
+    
+    public OrderArchiveBlock(String segmentPath, String partitionMonth, long blockOffset, int blockLength,
+                             Long firstOrderId, Long lastOrderId, int orderCount) {
+        this.segmentPath = segmentPath;
+        this.partitionMonth = partitionMonth;
+        this.blockOffset = blockOffset;
+        this.blockLength = blockLength;
+        this.firstOrderId = firstOrderId;
+        this.lastOrderId = lastOrderId;
+        this.orderCount = orderCount;
+        this.archivedAt = LocalDateTime.now();
+    }
+    
+    // Getters
+    public Long getId() { return id; }
+    public String getSegmentPath() { return segmentPath; }
+    public String getPartitionMonth() { return partitionMonth; }
+    public long getBlockOffset() { return blockOffset; }
+    public int getBlockLength() { return blockLength; }
+    public Long getFirstOrderId() { return firstOrderId; }
+    public Long getLastOrderId() { return lastOrderId; }
+    public int getOrderCount() { return orderCount; }
+    public LocalDateTime getArchivedAt() { return archivedAt; }
+}
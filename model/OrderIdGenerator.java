@@ -0,0 +1,97 @@
+package com.orderms.model;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Ids for entities stored on every shard. Unsharded, ids come from the pooled database sequence
+// as before. With sharding enabled they are generated in process, because a pooled range fetched
+// from one shard's sequence would collide with the ranges of the others. Order, item and outbox
+// ids encode the order's shard bucket, so they can be routed without a lookup, and they stay
+// globally unique when rows move between shards:
+//   40 bits milliseconds since 2024-01-01 | 10 bits bucket | 5 bits node | 8 bits sequence
+// Ids are time ordered (newest last) across all shards and nodes. A node issuing more than 256 ids in a
+// millisecond, or whose clock steps back, carries on from its last id into the next millisecond
+// instead of waiting, so ids can briefly run ahead of the clock.
+public class OrderIdGenerator extends SequenceStyleGenerator {
+    
+    public static final int BUCKET_BITS = 10;
+    public static final int BUCKETS = 1 << BUCKET_BITS;
+    public static final int MAX_NODES = 1 << 5;
+    
+    private static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    private static final int SEQUENCE_BITS = 8;
+    private static final int NODE_BITS = 5;
+    private static final int BUCKET_SHIFT = SEQUENCE_BITS + NODE_BITS;
+    private static final int TIME_SHIFT = BUCKET_SHIFT + BUCKET_BITS;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    
+    private static volatile boolean sharded;
+    private static volatile int node;
+    
+    // Last issued milliseconds and sequence, packed as (millis << SEQUENCE_BITS) | sequence
+    private static final AtomicLong last = new AtomicLong();
+    
+    // Called once at startup by OrderShards
+    public static void enableSharding(int nodeId) {
+        if (nodeId < 0 || nodeId >= MAX_NODES) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + (MAX_NODES - 1));
+        }
+        node = nodeId;
+        sharded = true;
+    }
+    
+    // Called when OrderShards shuts down, so a later application context in the same JVM starts unsharded
+    public static void disableSharding() {
+        sharded = false;
+        node = 0;
+    }
+    
+    public static int bucketOf(long id) {
+        return (int) ((id >>> BUCKET_SHIFT) & (BUCKETS - 1));
+    }
+    
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        if (!sharded) {
+            return super.generate(session, object);
+        }
+        return next(bucketFor(object));
+    }
+    
+    private static int bucketFor(Object entity) {
+        if (entity instanceof Order order) {
+            if (order.getShardBucket() == null) {
+                throw new IllegalStateException("Order has no shard bucket");
+            }
+            return order.getShardBucket();
+        }
+        if (entity instanceof OrderItem item) {
+            return bucketFor(item.getOrder());
+        }
+        if (entity instanceof OrderOutboxEvent event) {
+            return bucketOf(event.getOrderId());
+        }
+        // Not routed by id (archive blocks); only needs to be unique
+        return 0;
+    }
+    
+    private static long next(int bucket) {
+        return next(bucket, System.currentTimeMillis());
+    }
+    
+    // Lock free: generating threads never block each other, and never wait for the clock
+    static long next(int bucket, long currentMillis) {
+        long now = (currentMillis - EPOCH) << SEQUENCE_BITS;
+        while (true) {
+            long previous = last.get();
+            long issued = now > previous ? now : previous + 1;
+            if (last.compareAndSet(previous, issued)) {
+                return ((issued >>> SEQUENCE_BITS) << TIME_SHIFT) | ((long) bucket << BUCKET_SHIFT)
+                    | ((long) node << SEQUENCE_BITS) | (issued & SEQUENCE_MASK);
+            }
+        }
+    }
+}
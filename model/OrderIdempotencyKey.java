@@ -0,0 +1,40 @@
+package com.orderms.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// Dedup record for an Idempotency-Key on order creation. Mapped so the schema is generated
+// alongside the orders; JdbcIdempotencyStore works on the table with plain SQL because a
+// claim is an INSERT that must fail on a duplicate key.
+@Entity
+@Table(name = "order_idempotency_keys", indexes = {
+    @Index(name = "idx_order_idempotency_expires_at", columnList = "expires_at")
+})
+public class OrderIdempotencyKey {
+    
+    @Id
+    @Column(name = "idem_key", length = 128)
+    private String key;
+    
+    @Column(name = "fingerprint", nullable = false, length = 64)
+    private String fingerprint;
+    
+    // Null while the first request is still running
+    @Column(name = "order_id")
+    private Long orderId;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+    
+    public OrderIdempotencyKey() {}
+    
+    public String getKey() { return key; }
+    public String getFingerprint() { return fingerprint; }
+    public Long getOrderId() { return orderId; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+}
@@ -4,12 +4,24 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 @Entity
-@Table(name = "order_items")
+@Table(name = "order_items", indexes = {
+    @Index(name = "idx_order_items_order_id", columnList = "order_id")
+})
+@DynamicUpdate
 public class OrderItem {
+    // Pooled sequence ids keep JDBC insert batching enabled (IDENTITY disables it); sharded,
+    // items take ids in the same scheme as their order
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "order_items_seq")
+    @GenericGenerator(name = "order_items_seq", type = OrderIdGenerator.class, parameters = {
+        @Parameter(name = "sequence_name", value = "order_items_seq"),
+        @Parameter(name = "increment_size", value = "50")
+    })
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
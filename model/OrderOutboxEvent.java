@@ -0,0 +1,127 @@
+package com.orderms.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import java.time.LocalDateTime;
+
+// Notification written in the same transaction as the order change it describes
+@Entity
+@Table(name = "order_outbox", indexes = {
+    @Index(name = "idx_order_outbox_status_next", columnList = "status, next_attempt_at")
+})
+public class OrderOutboxEvent {
+    
+    // IN_FLIGHT: claimed by a relay that is publishing it; claimable again once next_attempt_at passes.
+    // SUPERSEDED: never sent because a newer event of the same type for the order was sent instead
+    public enum Status { PENDING, IN_FLIGHT, DELIVERED, FAILED, SUPERSEDED }
+    
+    @Id
+    @GeneratedValue(generator = "order_outbox_seq")
+    @GenericGenerator(name = "order_outbox_seq", type = OrderIdGenerator.class, parameters = {
+        @Parameter(name = "sequence_name", value = "order_outbox_seq"),
+        @Parameter(name = "increment_size", value = "50")
+    })
+    private Long id;
+    
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+    
+    @Column(name = "event_type", nullable = false)
+    private String eventType;
+    
+    @Column(name = "subject", nullable = false)
+    private String subject;
+    
+    @Column(name = "payload", nullable = false, length = 4000)
+    private String payload;
+    
+    @Column(name = "status", nullable = false)
+    @Enumerated(EnumType.STRING)
+    private Status status = Status.PENDING;
+    
+    @Column(name = "attempts", nullable = false)
+    private int attempts = 0;
+    
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+    
+    @Column(name = "delivered_at")
+    private LocalDateTime deliveredAt;
+    
+    // Constructors
+    public OrderOutboxEvent() {}
+    
+    public OrderOutboxEvent(Long orderId, String eventType, String subject, String payload) {
+        this.orderId = orderId;
+        this.eventType = eventType;
+        this.subject = subject;
+        this.payload = payload;
+        this.createdAt = LocalDateTime.now();
+        this.nextAttemptAt = this.createdAt;
+    }
+    
+    public void markInFlight(LocalDateTime leaseUntil) {
+        this.status = Status.IN_FLIGHT;
+        this.nextAttemptAt = leaseUntil;
+    }
+    
+    public void markDelivered() {
+        this.status = Status.DELIVERED;
+        this.deliveredAt = LocalDateTime.now();
+        this.lastError = null;
+    }
+    
+    public void markSuperseded() {
+        this.status = Status.SUPERSEDED;
+        this.lastError = null;
+    }
+    
+    public void markFailedAttempt(String error, LocalDateTime nextAttemptAt, int maxAttempts) {
+        this.attempts++;
+        this.lastError = error != null && error.length() > 1000 ? error.substring(0, 1000) : error;
+        this.nextAttemptAt = nextAttemptAt;
+        this.status = attempts >= maxAttempts ? Status.FAILED : Status.PENDING;
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+    
+    public String getEventType() { return eventType; }
+    public void setEventType(String eventType) { this.eventType = eventType; }
+    
+    public String getSubject() { return subject; }
+    public void setSubject(String subject) { this.subject = subject; }
+    
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+    
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+    
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+    
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+    
+    public LocalDateTime getDeliveredAt() { return deliveredAt; }
+    public void setDeliveredAt(LocalDateTime deliveredAt) { this.deliveredAt = deliveredAt; }
+}
@@ -0,0 +1,106 @@
+package com.orderms.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+
+// Pre-aggregated order volume and revenue for one time bucket and one status or item category.
+// Maintained incrementally by OrderAnalyticsService; buckets are keyed by the orders' createdAt.
+@Entity
+@Table(name = "order_rollups", indexes = {
+    @Index(name = "idx_order_rollups_bucket", columnList = "bucket_start")
+})
+public class OrderRollup {
+    
+    public enum Granularity {
+        MINUTE(ChronoUnit.MINUTES), HOUR(ChronoUnit.HOURS), DAY(ChronoUnit.DAYS);
+        
+        private final ChronoUnit unit;
+        
+        Granularity(ChronoUnit unit) {
+            this.unit = unit;
+        }
+        
+        public LocalDateTime bucketOf(LocalDateTime time) {
+            return time.truncatedTo(unit);
+        }
+        
+        public ChronoUnit getUnit() {
+            return unit;
+        }
+    }
+    
+    public enum Dimension { STATUS, CATEGORY }
+    
+    @EmbeddedId
+    private Key id;
+    
+    // STATUS: orders in that status. CATEGORY: orders with at least one item in the category.
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+    
+    // Item lines
+    @Column(name = "item_count", nullable = false)
+    private long itemCount;
+    
+    @Column(name = "revenue", nullable = false)
+    private double revenue;
+    
+    // Constructors
+    public OrderRollup() {}
+    
+    // Getters
+    public Key getId() { return id; }
+    public long getOrderCount() { return orderCount; }
+    public long getItemCount() { return itemCount; }
+    public double getRevenue() { return revenue; }
+    
+    // Primary key order matches the range queries: one granularity and dimension, a run of buckets
+    @Embeddable
+    public static class Key implements Serializable {
+        
+        @Enumerated(EnumType.STRING)
+        @Column(name = "granularity", length = 8, nullable = false)
+        private Granularity granularity;
+        
+        @Enumerated(EnumType.STRING)
+        @Column(name = "dimension", length = 16, nullable = false)
+        private Dimension dimension;
+        
+        @Column(name = "bucket_start", nullable = false)
+        private LocalDateTime bucketStart;
+        
+        @Column(name = "dimension_value", nullable = false)
+        private String dimensionValue;
+        
+        public Key() {}
+        
+        public Key(Granularity granularity, Dimension dimension, LocalDateTime bucketStart, String dimensionValue) {
+            this.granularity = granularity;
+            this.dimension = dimension;
+            this.bucketStart = bucketStart;
+            this.dimensionValue = dimensionValue;
+        }
+        
+        public Granularity getGranularity() { return granularity; }
+        public Dimension getDimension() { return dimension; }
+        public LocalDateTime getBucketStart() { return bucketStart; }
+        public String getDimensionValue() { return dimensionValue; }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return granularity == key.granularity && dimension == key.dimension
+                && Objects.equals(bucketStart, key.bucketStart) && Objects.equals(dimensionValue, key.dimensionValue);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(granularity, dimension, bucketStart, dimensionValue);
+        }
+    }
+}
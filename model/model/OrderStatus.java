@@ -16,4 +16,18 @@ public enum OrderStatus {
     public String getDisplayName() {
         return displayName;
     }
+    
+    // Orders only move forward; delivered and cancelled orders are final
+    public boolean canTransitionTo(OrderStatus next) {
+        return switch (this) {
+            case ORDER_PLACED -> next == ORDER_PROCESSING || next == ORDER_CANCELLED;
+            case ORDER_PROCESSING -> next == ORDER_READY || next == ORDER_CANCELLED;
+            case ORDER_READY -> next == ORDER_DELIVERED || next == ORDER_CANCELLED;
+            case ORDER_DELIVERED, ORDER_CANCELLED -> false;
+        };
+    }
+    
+    public boolean isOpen() {
+        return this != ORDER_DELIVERED && this != ORDER_CANCELLED;
+    }
 }
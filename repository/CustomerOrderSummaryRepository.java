@@ -0,0 +1,9 @@
+package com.orderms.repository;
+
+import com.orderms.model.CustomerOrderSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CustomerOrderSummaryRepository extends JpaRepository<CustomerOrderSummary, String> {
+}
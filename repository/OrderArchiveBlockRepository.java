@@ -0,0 +1,20 @@
+package com.orderms.repository;
+
+import com.orderms.model.OrderArchiveBlock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OrderArchiveBlockRepository extends JpaRepository<OrderArchiveBlock, Long> {
+    
+    // Blocks of different month partitions can cover overlapping id ranges; newest first
+    @Query("SELECT b FROM OrderArchiveBlock b WHERE b.firstOrderId <= :id AND b.lastOrderId >= :id ORDER BY b.id DESC")
+    List<OrderArchiveBlock> findCovering(@Param("id") Long id);
+    
+    @Query("SELECT COALESCE(SUM(b.orderCount), 0) FROM OrderArchiveBlock b")
+    long countArchivedOrders();
+}
@@ -0,0 +1,46 @@
+package com.orderms.repository;
+
+import com.orderms.model.OrderOutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrderOutboxRepository extends JpaRepository<OrderOutboxEvent, Long> {
+    
+    // Row-locks the claimed batch; lock timeout -2 is Hibernate's SKIP LOCKED, so concurrent
+    // relays on other nodes pick up different rows instead of blocking
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OrderOutboxEvent e WHERE e.status IN :statuses AND e.nextAttemptAt <= :now ORDER BY e.id")
+    List<OrderOutboxEvent> claimDue(@Param("statuses") Collection<OrderOutboxEvent.Status> statuses,
+                                    @Param("now") LocalDateTime now, Pageable pageable);
+    
+    // Due retries, plus in-flight events whose relay's lease ran out before it recorded an outcome
+    default List<OrderOutboxEvent> claimPending(LocalDateTime now, Pageable pageable) {
+        return claimDue(List.of(OrderOutboxEvent.Status.PENDING, OrderOutboxEvent.Status.IN_FLIGHT), now, pageable);
+    }
+    
+    long countByStatusIn(Collection<OrderOutboxEvent.Status> statuses);
+    
+    @Modifying
+    @Query("DELETE FROM OrderOutboxEvent e WHERE e.status = :status AND e.deliveredAt < :before")
+    int deleteByStatusAndDeliveredAtBefore(@Param("status") OrderOutboxEvent.Status status,
+                                           @Param("before") LocalDateTime before);
+    
+    @Modifying
+    @Query("DELETE FROM OrderOutboxEvent e WHERE e.status = :status AND e.createdAt < :before")
+    int deleteByStatusAndCreatedAtBefore(@Param("status") OrderOutboxEvent.Status status,
+                                         @Param("before") LocalDateTime before);
+}
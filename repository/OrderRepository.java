@@ -1,20 +1,41 @@
 package com.orderms.repository;
 
+import com.orderms.dto.OrderItemView;
+import com.orderms.dto.OrderSummary;
 import com.orderms.model.Order;
 import com.orderms.model.OrderStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     
+    String SUMMARY_SELECT = "SELECT new com.orderms.dto.OrderSummary(o.id, o.customerId, o.customerName, " +
+        "o.customerEmail, o.customerPhone, o.status, o.totalAmount, o.deliveryAddress, o.orderNotes, " +
+        "(SELECT COUNT(i) FROM OrderItem i WHERE i.order = o), o.createdAt, o.updatedAt, o.version) FROM Order o";
+    
+    // Unpaged list reads load items in the same query via an entity graph
+    @Override
+    @EntityGraph(attributePaths = "items")
+    List<Order> findAll();
+    
+    @EntityGraph(attributePaths = "items")
     List<Order> findByCustomerId(String customerId);
     
+    @EntityGraph(attributePaths = "items")
     List<Order> findByStatus(OrderStatus status);
     
     List<Order> findByCustomerIdAndStatus(String customerId, OrderStatus status);
@@ -23,6 +44,7 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     
     List<Order> findByTotalAmountGreaterThan(Double amount);
     
+    @EntityGraph(attributePaths = "items")
     List<Order> findByCustomerNameContainingIgnoreCaseOrCustomerEmailContainingIgnoreCase(
         String customerName, String customerEmail);
     
@@ -33,6 +55,126 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT COUNT(o) FROM Order o WHERE o.status = :status")
     long countByStatus(@Param("status") OrderStatus status);
     
+    @Query("SELECT o.status, COUNT(o), COALESCE(SUM(o.totalAmount), 0) FROM Order o GROUP BY o.status")
+    List<Object[]> countAndSumByStatus();
+    
+    // Keyset (seek) pagination: first page without a COUNT query
+    List<Order> findAllBy(Pageable pageable);
+    
+    @Query("SELECT o FROM Order o WHERE o.id < :id ORDER BY o.id DESC")
+    List<Order> findPageAfterIdDesc(@Param("id") Long id, Pageable pageable);
+    
+    @Query("SELECT o FROM Order o WHERE o.id > :id ORDER BY o.id ASC")
+    List<Order> findPageAfterIdAsc(@Param("id") Long id, Pageable pageable);
+    
+    @Query("SELECT o FROM Order o WHERE o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findPageAfterCreatedAtDesc(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                           Pageable pageable);
+    
+    @Query("SELECT o FROM Order o WHERE o.createdAt > :createdAt OR (o.createdAt = :createdAt AND o.id > :id) " +
+           "ORDER BY o.createdAt ASC, o.id ASC")
+    List<Order> findPageAfterCreatedAtAsc(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                          Pageable pageable);
+    
+    @Query("SELECT o FROM Order o WHERE o.totalAmount < :amount OR (o.totalAmount = :amount AND o.id < :id) " +
+           "ORDER BY o.totalAmount DESC, o.id DESC")
+    List<Order> findPageAfterTotalAmountDesc(@Param("amount") Double amount, @Param("id") Long id,
+                                             Pageable pageable);
+    
+    @Query("SELECT o FROM Order o WHERE o.totalAmount > :amount OR (o.totalAmount = :amount AND o.id > :id) " +
+           "ORDER BY o.totalAmount ASC, o.id ASC")
+    List<Order> findPageAfterTotalAmountAsc(@Param("amount") Double amount, @Param("id") Long id,
+                                            Pageable pageable);
+    
     @Query("SELECT o FROM Order o LEFT JOIN FETCH o.items WHERE o.id = :id")
     Order findByIdWithItems(@Param("id") Long id);
+    
+    // Second phase for paged reads: fetch-join items for an already selected page of ids
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.items WHERE o.id IN :ids")
+    List<Order> findAllWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT o.status FROM Order o WHERE o.id = :id")
+    Optional<OrderStatus> findStatusById(@Param("id") Long id);
+    
+    // Compare-and-set on the status without loading the entity. Bumping the version makes any
+    // concurrently loaded copy of the order fail its optimistic check on flush.
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :to, o.updatedAt = :now, o.version = o.version + 1 " +
+           "WHERE o.id = :id AND o.status = :from")
+    int updateStatusIfCurrent(@Param("id") Long id, @Param("from") OrderStatus from,
+                              @Param("to") OrderStatus to, @Param("now") LocalDateTime now);
+    
+    // Bulk status changes: the locked read gives each order's previous status, the conditional
+    // update then only moves rows whose current status may transition to the target
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o.id, o.status FROM Order o WHERE o.id IN :ids ORDER BY o.id")
+    List<Object[]> lockStatusesByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :to, o.updatedAt = :now, o.version = o.version + 1 " +
+           "WHERE o.id IN :ids AND o.status IN :from")
+    int updateStatusesIfCurrent(@Param("ids") Collection<Long> ids, @Param("from") Collection<OrderStatus> from,
+                                @Param("to") OrderStatus to, @Param("now") LocalDateTime now);
+    
+    @Query("SELECT o.id FROM Order o WHERE o.status = :status AND o.createdAt >= :from AND o.createdAt < :to ORDER BY o.id")
+    List<Long> findIdsByStatusAndCreatedAtRange(@Param("status") OrderStatus status, @Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to, Pageable pageable);
+    
+    // Archival candidates after afterId, locked so a concurrent status change or edit waits for the move
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.status IN :statuses AND o.updatedAt < :before AND o.id > :afterId ORDER BY o.id")
+    List<Order> lockArchivable(@Param("statuses") Collection<OrderStatus> statuses,
+                               @Param("before") LocalDateTime before, @Param("afterId") Long afterId,
+                               Pageable pageable);
+    
+    // Flushes first: pending inserts to other tables would otherwise be dropped by the clear below
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM OrderItem i WHERE i.order.id IN :ids")
+    int deleteItemsByOrderIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Order o WHERE o.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Read model: DTO projections that never materialize managed entities
+    @Query(SUMMARY_SELECT + " WHERE o.id = :id")
+    Optional<OrderSummary> findSummaryById(@Param("id") Long id);
+    
+    @Query("SELECT new com.orderms.dto.OrderItemView(i.id, i.productName, i.productDescription, " +
+           "i.quantity, i.price, i.category) FROM OrderItem i WHERE i.order.id = :orderId ORDER BY i.id")
+    List<OrderItemView> findItemViewsByOrderId(@Param("orderId") Long orderId);
+    
+    @Query(value = SUMMARY_SELECT, countQuery = "SELECT COUNT(o) FROM Order o")
+    Page<OrderSummary> findSummaries(Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + " ORDER BY o.id")
+    List<OrderSummary> findAllSummaries();
+    
+    @Query(SUMMARY_SELECT + " WHERE o.customerId = :customerId ORDER BY o.id")
+    List<OrderSummary> findSummariesByCustomerId(@Param("customerId") String customerId);
+    
+    // Newest first, walked backwards along idx_orders_customer_created (the primary key breaks ties)
+    @Query(SUMMARY_SELECT + " WHERE o.customerId = :customerId ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderSummary> findRecentSummariesByCustomerId(@Param("customerId") String customerId, Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + " WHERE o.customerId = :customerId " +
+           "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderSummary> findRecentSummariesByCustomerIdBefore(@Param("customerId") String customerId,
+                                                             @Param("createdAt") LocalDateTime createdAt,
+                                                             @Param("id") Long id, Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + " WHERE o.status = :status ORDER BY o.id")
+    List<OrderSummary> findSummariesByStatus(@Param("status") OrderStatus status);
+    
+    @Query(SUMMARY_SELECT + " WHERE o.id IN :ids")
+    List<OrderSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Unindexed LIKE scan, only used while the search index is being built
+    @Query(value = "SELECT o.id FROM Order o WHERE LOWER(o.customerName) LIKE LOWER(CONCAT('%', :term, '%')) " +
+           "OR LOWER(o.customerEmail) LIKE LOWER(CONCAT('%', :term, '%')) ORDER BY o.id DESC",
+           countQuery = "SELECT COUNT(o) FROM Order o WHERE LOWER(o.customerName) LIKE LOWER(CONCAT('%', :term, '%')) " +
+           "OR LOWER(o.customerEmail) LIKE LOWER(CONCAT('%', :term, '%'))")
+    Page<Long> searchIds(@Param("term") String term, Pageable pageable);
 }
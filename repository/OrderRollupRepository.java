@@ -0,0 +1,38 @@
+package com.orderms.repository;
+
+import com.orderms.dto.RollupBucket;
+import com.orderms.model.OrderRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OrderRollupRepository extends JpaRepository<OrderRollup, OrderRollup.Key> {
+    
+    @Query("SELECT new com.orderms.dto.RollupBucket(r.id.bucketStart, r.id.dimensionValue, r.orderCount, r.itemCount, r.revenue) " +
+           "FROM OrderRollup r WHERE r.id.granularity = :granularity AND r.id.dimension = :dimension " +
+           "AND r.id.bucketStart >= :from AND r.id.bucketStart < :to ORDER BY r.id.bucketStart, r.id.dimensionValue")
+    List<RollupBucket> findBuckets(@Param("granularity") OrderRollup.Granularity granularity,
+                                   @Param("dimension") OrderRollup.Dimension dimension,
+                                   @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Query("SELECT new com.orderms.dto.RollupBucket(r.id.bucketStart, r.id.dimensionValue, r.orderCount, r.itemCount, r.revenue) " +
+           "FROM OrderRollup r WHERE r.id.granularity = :granularity AND r.id.dimension = :dimension " +
+           "AND r.id.dimensionValue = :value AND r.id.bucketStart >= :from AND r.id.bucketStart < :to ORDER BY r.id.bucketStart")
+    List<RollupBucket> findBucketsForValue(@Param("granularity") OrderRollup.Granularity granularity,
+                                           @Param("dimension") OrderRollup.Dimension dimension,
+                                           @Param("value") String value,
+                                           @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    // Called with Dimension.STATUS: every order has exactly one status, so those rows sum to the bucket totals
+    @Query("SELECT new com.orderms.dto.RollupBucket(r.id.bucketStart, CAST(NULL AS String), SUM(r.orderCount), SUM(r.itemCount), SUM(r.revenue)) " +
+           "FROM OrderRollup r WHERE r.id.granularity = :granularity AND r.id.dimension = :dimension " +
+           "AND r.id.bucketStart >= :from AND r.id.bucketStart < :to GROUP BY r.id.bucketStart ORDER BY r.id.bucketStart")
+    List<RollupBucket> findTotals(@Param("granularity") OrderRollup.Granularity granularity,
+                                  @Param("dimension") OrderRollup.Dimension dimension,
+                                  @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,12 @@
+package com.orderms.service;
+
+import java.io.IOException;
+
+// Write-once object storage for archived order segments, addressed by relative path
+public interface ArchiveStorage {
+    
+    void write(String path, byte[] content) throws IOException;
+    
+    // Reads one block of a segment without fetching the whole object
+    byte[] read(String path, long offset, int length) throws IOException;
+}
@@ -0,0 +1,270 @@
+package com.orderms.service;
+
+import com.orderms.model.CustomerOrderSummary;
+import com.orderms.model.Order;
+import com.orderms.model.OrderStatus;
+import com.orderms.repository.CustomerOrderSummaryRepository;
+import com.orderms.repository.OrderRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+// Maintains customer_order_summary from the order writes. Changes are collected per customer for
+// the duration of the order transaction and applied just before it commits, as one relative
+// UPDATE per customer in customer id order, so the summary commits atomically with the orders
+// while its row lock is only held for the commit itself. A missing row is computed from the
+// customer's orders through idx_orders_customer_created. Archiving leaves summaries untouched:
+// they describe the customer's whole history, not just the live orders.
+@Service
+public class CustomerSummaryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerSummaryService.class);
+
+    private static final String AGGREGATE = "SELECT customer_id, COUNT(*), " +
+        "COALESCE(SUM(CASE WHEN order_status <> 'ORDER_CANCELLED' THEN total_amount ELSE 0 END), 0), " +
+        "SUM(CASE WHEN order_status = 'ORDER_PLACED' THEN 1 ELSE 0 END), " +
+        "SUM(CASE WHEN order_status = 'ORDER_PROCESSING' THEN 1 ELSE 0 END), " +
+        "SUM(CASE WHEN order_status = 'ORDER_READY' THEN 1 ELSE 0 END), " +
+        "SUM(CASE WHEN order_status = 'ORDER_DELIVERED' THEN 1 ELSE 0 END), " +
+        "SUM(CASE WHEN order_status = 'ORDER_CANCELLED' THEN 1 ELSE 0 END), " +
+        "MIN(created_at), MAX(created_at), ? FROM orders";
+
+    private static final String INSERT = "INSERT INTO customer_order_summary (customer_id, order_count, " +
+        "lifetime_spend, placed_count, processing_count, ready_count, delivered_count, cancelled_count, " +
+        "first_order_at, last_order_at, updated_at) ";
+
+    private static final String SET_LAST_ORDER_ID = "UPDATE customer_order_summary s SET last_order_id = " +
+        "(SELECT o.id FROM orders o WHERE o.customer_id = s.customer_id ORDER BY o.created_at DESC, o.id DESC LIMIT 1)";
+
+    private static final String UPDATE_COUNTS = "order_count = order_count + ?, lifetime_spend = lifetime_spend + ?, " +
+        "placed_count = placed_count + ?, processing_count = processing_count + ?, ready_count = ready_count + ?, " +
+        "delivered_count = delivered_count + ?, cancelled_count = cancelled_count + ?, updated_at = ?";
+
+    private static final String UPDATE = "UPDATE customer_order_summary SET " + UPDATE_COUNTS + " WHERE customer_id = ?";
+
+    // last_order_id is assigned before last_order_at: MySQL applies SET assignments left to right,
+    // so both conditions still compare against the previous last_order_at
+    private static final String UPDATE_WITH_LAST_ORDER = "UPDATE customer_order_summary SET " + UPDATE_COUNTS + ", " +
+        "first_order_at = COALESCE(first_order_at, ?), " +
+        "last_order_id = CASE WHEN last_order_at IS NULL OR ? >= last_order_at THEN ? ELSE last_order_id END, " +
+        "last_order_at = CASE WHEN last_order_at IS NULL OR ? >= last_order_at THEN ? ELSE last_order_at END " +
+        "WHERE customer_id = ?";
+
+    // Two index lookups on (customer_id, created_at)
+    private static final String RESET_FIRST_AND_LAST = "UPDATE customer_order_summary SET " +
+        "first_order_at = (SELECT MIN(created_at) FROM orders WHERE customer_id = ?), " +
+        "last_order_at = (SELECT MAX(created_at) FROM orders WHERE customer_id = ?), " +
+        "last_order_id = (SELECT id FROM orders WHERE customer_id = ? ORDER BY created_at DESC, id DESC LIMIT 1) " +
+        "WHERE customer_id = ?";
+
+    @Autowired
+    private CustomerOrderSummaryRepository summaryRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderShards orderShards;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public CustomerSummaryService(DataSource dataSource, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Changes to one customer's summary within the current transaction
+    private static class Delta {
+        long orders;
+        double spend;
+        // Indexed by ordinal, which follows the column order of the status counts
+        final long[] statuses = new long[OrderStatus.values().length];
+        LocalDateTime lastOrderAt;
+        Long lastOrderId;
+        // A deleted order may have been the first or last one
+        boolean resetFirstAndLast;
+
+        boolean isEmpty() {
+            if (orders != 0 || spend != 0 || lastOrderAt != null || resetFirstAndLast) {
+                return false;
+            }
+            for (long count : statuses) {
+                if (count != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    // Seeds the table when it starts out empty (dev databases populated by data.sql); the
+    // Flyway migration that creates it backfills production databases
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        // Summaries live on the shard of their customer's orders
+        orderShards.forEachShard(shard -> {
+            if (summaryRepository.count() == 0 && orderRepository.count() > 0) {
+                int customers = rebuild();
+                logger.info("Built order summaries for {} customers on shard {}", customers, shard);
+            }
+        });
+    }
+
+    public void recordCreated(Order order) {
+        Delta delta = delta(order.getCustomerId());
+        delta.orders++;
+        delta.statuses[order.getStatus().ordinal()]++;
+        if (order.getStatus() != OrderStatus.ORDER_CANCELLED) {
+            delta.spend += amount(order.getTotalAmount());
+        }
+        if (delta.lastOrderAt == null || !order.getCreatedAt().isBefore(delta.lastOrderAt)) {
+            delta.lastOrderAt = order.getCreatedAt();
+            delta.lastOrderId = order.getId();
+        }
+    }
+
+    public void recordStatusChanged(String customerId, OrderStatus oldStatus, OrderStatus newStatus, Double amount) {
+        if (oldStatus == newStatus) {
+            return;
+        }
+        Delta delta = delta(customerId);
+        delta.statuses[oldStatus.ordinal()]--;
+        delta.statuses[newStatus.ordinal()]++;
+        if (newStatus == OrderStatus.ORDER_CANCELLED) {
+            delta.spend -= amount(amount);
+        } else if (oldStatus == OrderStatus.ORDER_CANCELLED) {
+            delta.spend += amount(amount);
+        }
+    }
+
+    public void recordAmountChanged(String customerId, OrderStatus status, Double oldAmount, Double newAmount) {
+        double change = amount(newAmount) - amount(oldAmount);
+        if (change == 0 || status == OrderStatus.ORDER_CANCELLED) {
+            return;
+        }
+        delta(customerId).spend += change;
+    }
+
+    public void recordDeleted(Order order) {
+        Delta delta = delta(order.getCustomerId());
+        delta.orders--;
+        delta.statuses[order.getStatus().ordinal()]--;
+        if (order.getStatus() != OrderStatus.ORDER_CANCELLED) {
+            delta.spend -= amount(order.getTotalAmount());
+        }
+        delta.resetFirstAndLast = true;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<CustomerOrderSummary> getSummary(String customerId) {
+        orderShards.routeToCustomer(customerId);
+        return summaryRepository.findById(customerId);
+    }
+
+    // Recomputes every summary from the order tables; archived orders are no longer counted
+    public int rebuildAll() {
+        return orderShards.mapShards(shard -> rebuild()).stream().mapToInt(Integer::intValue).sum();
+    }
+
+    private int rebuild() {
+        Integer customers = transactionTemplate.execute(status -> {
+            jdbcTemplate.update("DELETE FROM customer_order_summary");
+            int inserted = jdbcTemplate.update(INSERT + AGGREGATE + " GROUP BY customer_id",
+                Timestamp.valueOf(LocalDateTime.now()));
+            jdbcTemplate.update(SET_LAST_ORDER_ID);
+            return inserted;
+        });
+        return customers;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Delta delta(String customerId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Customer summaries can only be changed inside a transaction");
+        }
+        Map<String, Delta> deltas = (Map<String, Delta>) TransactionSynchronizationManager.getResource(this);
+        if (deltas == null) {
+            // Sorted so concurrent commits lock summary rows in the same order
+            Map<String, Delta> bound = new TreeMap<>();
+            TransactionSynchronizationManager.bindResource(this, bound);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    apply(bound);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CustomerSummaryService.this);
+                }
+            });
+            deltas = bound;
+        }
+        return deltas.computeIfAbsent(customerId, id -> new Delta());
+    }
+
+    private void apply(Map<String, Delta> deltas) {
+        // Pending inserts and deletes must be visible to the statements below
+        entityManager.flush();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (Map.Entry<String, Delta> entry : deltas.entrySet()) {
+            String customerId = entry.getKey();
+            Delta delta = entry.getValue();
+            if (delta.isEmpty()) {
+                continue;
+            }
+            if (update(customerId, delta, now) == 0) {
+                try {
+                    // Already includes this transaction's changes
+                    jdbcTemplate.update(INSERT + AGGREGATE + " WHERE customer_id = ? GROUP BY customer_id", now, customerId);
+                    delta.resetFirstAndLast = true;
+                } catch (DuplicateKeyException e) {
+                    // A concurrent transaction created the row first
+                    update(customerId, delta, now);
+                }
+            }
+            if (delta.resetFirstAndLast) {
+                jdbcTemplate.update(RESET_FIRST_AND_LAST, customerId, customerId, customerId, customerId);
+            }
+        }
+    }
+
+    private int update(String customerId, Delta delta, Timestamp now) {
+        long[] statuses = delta.statuses;
+        if (delta.lastOrderAt == null) {
+            return jdbcTemplate.update(UPDATE, delta.orders, delta.spend, statuses[0], statuses[1], statuses[2],
+                statuses[3], statuses[4], now, customerId);
+        }
+        Timestamp lastOrderAt = Timestamp.valueOf(delta.lastOrderAt);
+        return jdbcTemplate.update(UPDATE_WITH_LAST_ORDER, delta.orders, delta.spend, statuses[0], statuses[1],
+            statuses[2], statuses[3], statuses[4], now, lastOrderAt, lastOrderAt, delta.lastOrderId,
+            lastOrderAt, lastOrderAt, customerId);
+    }
+
+    private static double amount(Double amount) {
+        return amount != null ? amount : 0.0;
+    }
+}
@@ -0,0 +1,24 @@
+package com.orderms.service;
+
+import java.time.Duration;
+
+// Remembers which order an Idempotency-Key created. A key is claimed by the first request,
+// completed inside that request's transaction and expires after a fixed time.
+public interface IdempotencyStore {
+    
+    enum State { CLAIMED, IN_PROGRESS, COMPLETED }
+    
+    // CLAIMED means the caller now owns the key; otherwise the earlier request's state
+    record Claim(State state, String fingerprint, Long orderId) {}
+    
+    Claim claim(String key, String fingerprint);
+    
+    // Called inside the creating transaction; other requests see it once that commits
+    void complete(String key, Long orderId);
+    
+    // The owner failed; waiting duplicates may claim the key again
+    void release(String key);
+    
+    // Blocks up to the timeout or until the key's owner completes or releases it
+    void awaitChange(String key, Duration timeout);
+}
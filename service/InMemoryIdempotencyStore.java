@@ -0,0 +1,84 @@
+package com.orderms.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// Single-node store bounded by size and TTL. Under size pressure the oldest keys are evicted
+// early, after which a late retry is treated as a new request.
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+    
+    private record Entry(String fingerprint, CompletableFuture<Long> orderId) {}
+    
+    private final Cache<String, Entry> entries;
+    
+    public InMemoryIdempotencyStore(Duration ttl, long maxKeys, MeterRegistry meterRegistry) {
+        this.entries = Caffeine.newBuilder()
+            .expireAfterWrite(ttl)
+            .maximumSize(maxKeys)
+            .build();
+        meterRegistry.gauge("orders.idempotency.keys", entries, Cache::estimatedSize);
+    }
+    
+    @Override
+    public Claim claim(String key, String fingerprint) {
+        Entry created = new Entry(fingerprint, new CompletableFuture<>());
+        Entry existing = entries.asMap().putIfAbsent(key, created);
+        if (existing == null) {
+            return new Claim(State.CLAIMED, fingerprint, null);
+        }
+        CompletableFuture<Long> orderId = existing.orderId();
+        if (orderId.isDone() && !orderId.isCompletedExceptionally()) {
+            return new Claim(State.COMPLETED, existing.fingerprint(), orderId.join());
+        }
+        return new Claim(State.IN_PROGRESS, existing.fingerprint(), null);
+    }
+    
+    @Override
+    public void complete(String key, Long orderId) {
+        Entry entry = entries.getIfPresent(key);
+        if (entry == null) {
+            return;
+        }
+        // Duplicates must not replay an order that could still roll back
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    entry.orderId().complete(orderId);
+                }
+            });
+        } else {
+            entry.orderId().complete(orderId);
+        }
+    }
+    
+    @Override
+    public void release(String key) {
+        Entry entry = entries.asMap().remove(key);
+        if (entry != null) {
+            entry.orderId().cancel(false);
+        }
+    }
+    
+    @Override
+    public void awaitChange(String key, Duration timeout) {
+        Entry entry = entries.getIfPresent(key);
+        if (entry == null) {
+            return;
+        }
+        try {
+            entry.orderId().get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Timed out or released; the caller re-reads the key's state
+        }
+    }
+}
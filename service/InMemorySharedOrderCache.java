@@ -0,0 +1,49 @@
+package com.orderms.service;
+
+import com.orderms.dto.OrderDetail;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Single-process stand-in for a shared tier, for local runs and tests
+public class InMemorySharedOrderCache implements SharedOrderCache {
+    
+    private record Entry(OrderDetail order, long expiresAtNanos) {}
+    
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int maxEntries;
+    
+    public InMemorySharedOrderCache(Duration ttl, int maxEntries) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+    }
+    
+    @Override
+    public Optional<OrderDetail> get(Long id) {
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (System.nanoTime() - entry.expiresAtNanos() > 0) {
+            entries.remove(id, entry);
+            return Optional.empty();
+        }
+        return Optional.of(entry.order());
+    }
+    
+    @Override
+    public void put(OrderDetail order) {
+        if (entries.size() >= maxEntries) {
+            entries.clear();
+        }
+        entries.put(order.id(), new Entry(order, System.nanoTime() + ttlNanos));
+    }
+    
+    @Override
+    public void evict(Long id) {
+        entries.remove(id);
+    }
+}
@@ -0,0 +1,113 @@
+package com.orderms.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Shared store for multi-node deployments. Claims are autocommitted INSERTs so concurrent
+// duplicates on other nodes see them immediately; the order id is written by the creating
+// transaction, so a key is never completed with an order that rolled back. Sharded, a key is
+// stored on the shard of the customer it creates an order for.
+// A claim is a lease: until the order id is written it expires after claimLease, so a node that
+// dies mid-request only blocks retries briefly. Completing extends the row to the full ttl.
+public class JdbcIdempotencyStore implements IdempotencyStore {
+    
+    private static final Logger logger = LoggerFactory.getLogger(JdbcIdempotencyStore.class);
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final OrderShards orderShards;
+    private final Duration ttl;
+    private final Duration claimLease;
+    private final long pollMillis;
+    
+    public JdbcIdempotencyStore(JdbcTemplate jdbcTemplate, OrderShards orderShards, Duration ttl,
+                                Duration claimLease, long pollMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.orderShards = orderShards;
+        this.ttl = ttl;
+        this.claimLease = claimLease;
+        this.pollMillis = pollMillis;
+    }
+    
+    private record Row(String fingerprint, Long orderId, LocalDateTime expiresAt) {}
+    
+    @Override
+    public Claim claim(String key, String fingerprint) {
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            try {
+                jdbcTemplate.update("INSERT INTO order_idempotency_keys (idem_key, fingerprint, created_at, expires_at) " +
+                    "VALUES (?, ?, ?, ?)", key, fingerprint, Timestamp.valueOf(now), Timestamp.valueOf(now.plus(claimLease)));
+                return new Claim(State.CLAIMED, fingerprint, null);
+            } catch (DuplicateKeyException e) {
+                Row row = find(key);
+                if (row == null) {
+                    // Released between our insert and read; try again
+                    continue;
+                }
+                // Expired keys and abandoned claims whose lease ran out are taken over
+                if (row.expiresAt().isBefore(now)) {
+                    jdbcTemplate.update("DELETE FROM order_idempotency_keys WHERE idem_key = ? AND expires_at < ?",
+                        key, Timestamp.valueOf(now));
+                    continue;
+                }
+                return row.orderId() != null
+                    ? new Claim(State.COMPLETED, row.fingerprint(), row.orderId())
+                    : new Claim(State.IN_PROGRESS, row.fingerprint(), null);
+            }
+        }
+    }
+    
+    @Override
+    public void complete(String key, Long orderId) {
+        int updated = jdbcTemplate.update("UPDATE order_idempotency_keys SET order_id = ?, expires_at = ? " +
+            "WHERE idem_key = ? AND order_id IS NULL", orderId, Timestamp.valueOf(LocalDateTime.now().plus(ttl)), key);
+        if (updated == 0) {
+            // The lease ran out and another request took the key over; rolling back this order
+            // keeps it to one order per key
+            throw new IllegalStateException("Idempotency-Key claim expired before the order was created");
+        }
+    }
+    
+    @Override
+    public void release(String key) {
+        jdbcTemplate.update("DELETE FROM order_idempotency_keys WHERE idem_key = ? AND order_id IS NULL", key);
+    }
+    
+    // Other nodes cannot signal completion, so duplicates poll
+    @Override
+    public void awaitChange(String key, Duration timeout) {
+        try {
+            Thread.sleep(Math.min(pollMillis, Math.max(1, timeout.toMillis())));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${orders.idempotency.cleanup-interval-ms:600000}")
+    public void removeExpired() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int removed = orderShards.mapShards(shard ->
+                jdbcTemplate.update("DELETE FROM order_idempotency_keys WHERE expires_at < ?", now))
+            .stream().mapToInt(Integer::intValue).sum();
+        if (removed > 0) {
+            logger.debug("Removed {} expired idempotency keys", removed);
+        }
+    }
+    
+    private Row find(String key) {
+        List<Row> rows = jdbcTemplate.query(
+            "SELECT fingerprint, order_id, expires_at FROM order_idempotency_keys WHERE idem_key = ?",
+            (rs, rowNum) -> new Row(rs.getString("fingerprint"), rs.getObject("order_id", Long.class),
+                rs.getTimestamp("expires_at").toLocalDateTime()),
+            key);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+}
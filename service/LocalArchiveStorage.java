@@ -0,0 +1,54 @@
+package com.orderms.service;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+public class LocalArchiveStorage implements ArchiveStorage {
+    
+    private final Path root;
+    
+    public LocalArchiveStorage(Path root) {
+        this.root = root;
+    }
+    
+    // Written under a temporary name and moved into place, so readers never see a partial segment
+    @Override
+    public void write(String path, byte[] content) throws IOException {
+        Path target = resolve(path);
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, content);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    @Override
+    public byte[] read(String path, long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        try (FileChannel channel = FileChannel.open(resolve(path), StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new EOFException("Archive segment " + path + " is shorter than its index entry");
+                }
+            }
+        }
+        return buffer.array();
+    }
+    
+    private Path resolve(String path) {
+        Path resolved = root.resolve(path).normalize();
+        if (!resolved.startsWith(root.normalize())) {
+            throw new IllegalArgumentException("Archive path escapes the archive root: " + path);
+        }
+        return resolved;
+    }
+}
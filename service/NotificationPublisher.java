@@ -0,0 +1,99 @@
+package com.orderms.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.sns.SnsClient;
+import software.amazon.awssdk.services.sns.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sns.model.MessageAttributeValue;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequest;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequestEntry;
+import software.amazon.awssdk.services.sns.model.PublishBatchResponse;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Publishes outbox messages to SNS in PublishBatch calls of up to 10 entries. Queueing,
+// coalescing and retries are the outbox relay's job, so nothing is buffered or retried here.
+public class NotificationPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationPublisher.class);
+
+    static final int MAX_BATCH_SIZE = 10;
+
+    // A message whose delivery state is tracked by the caller; the id is sent as the
+    // eventId attribute so subscribers can discard redelivered duplicates
+    public record OutboundMessage(String id, String subject, String message) {}
+
+    private final SnsClient snsClient;
+    private final String topicArn;
+
+    private final Timer publishLatency;
+    private final Counter published;
+    private final Counter publishRequestErrors;
+    private final Counter publishEntryErrors;
+
+    public NotificationPublisher(SnsClient snsClient, String topicArn, MeterRegistry meterRegistry) {
+        this.snsClient = snsClient;
+        this.topicArn = topicArn;
+        this.publishLatency = Timer.builder("notifications.publish.latency")
+            .description("SNS PublishBatch call duration")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        this.published = meterRegistry.counter("notifications.published");
+        // A failed PublishBatch call versus individual entries SNS rejected within a batch
+        this.publishRequestErrors = meterRegistry.counter("notifications.publish.errors", "kind", "request");
+        this.publishEntryErrors = meterRegistry.counter("notifications.publish.errors", "kind", "entry");
+    }
+
+    // Returns the ids of messages SNS did not accept
+    public Set<String> publish(List<OutboundMessage> messages) {
+        Set<String> failed = new HashSet<>();
+        for (int from = 0; from < messages.size(); from += MAX_BATCH_SIZE) {
+            List<OutboundMessage> batch = messages.subList(from, Math.min(messages.size(), from + MAX_BATCH_SIZE));
+            List<PublishBatchRequestEntry> entries = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                OutboundMessage message = batch.get(i);
+                entries.add(PublishBatchRequestEntry.builder()
+                    .id(Integer.toString(i))
+                    .subject(message.subject())
+                    .message(message.message())
+                    .messageAttributes(Map.of("eventId", MessageAttributeValue.builder()
+                        .dataType("String")
+                        .stringValue(message.id())
+                        .build()))
+                    .build());
+            }
+
+            long start = System.nanoTime();
+            try {
+                PublishBatchResponse response = snsClient.publishBatch(PublishBatchRequest.builder()
+                    .topicArn(topicArn)
+                    .publishBatchRequestEntries(entries)
+                    .build());
+                publishLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                publishEntryErrors.increment(response.failed().size());
+                for (BatchResultErrorEntry error : response.failed()) {
+                    OutboundMessage message = batch.get(Integer.parseInt(error.id()));
+                    failed.add(message.id());
+                    logger.warn("SNS did not accept message {}: {}", message.id(), error.message());
+                }
+                published.increment(batch.size() - response.failed().size());
+            } catch (RuntimeException e) {
+                publishLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                publishRequestErrors.increment();
+                logger.warn("SNS publish of {} messages failed: {}", batch.size(), e.getMessage());
+                for (OutboundMessage message : batch) {
+                    failed.add(message.id());
+                }
+            }
+        }
+        return failed;
+    }
+}
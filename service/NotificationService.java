@@ -1,15 +1,21 @@
 package com.orderms.service;
 
+import com.orderms.dto.OrderSummary;
 import com.orderms.model.Order;
+import com.orderms.model.OrderOutboxEvent;
+import com.orderms.model.OrderStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.services.sns.SnsClient;
-import software.amazon.awssdk.services.sns.model.PublishRequest;
-import software.amazon.awssdk.services.sns.model.SnsException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 @Service
 public class NotificationService {
@@ -25,39 +31,50 @@ public class NotificationService {
     @Value("${notifications.enabled:false}")
     private boolean notificationsEnabled;
     
-    @Async
-    public void sendOrderNotification(Order order, String message) {
-        try {
-            if (!notificationsEnabled) {
-                logger.info("Notifications disabled. Would send: Order ID: {}, Customer: {}, Message: {}", 
-                    order.getId(), order.getCustomerName(), message);
-                return;
-            }
-            
-            if (snsClient == null || topicArn.isEmpty()) {
-                logger.warn("SNS not configured. Skipping notification for order: {}", order.getId());
-                return;
+    @Autowired
+    private NotificationPublisher notificationPublisher;
+    
+    // Publishes outbox rows synchronously and returns the ids SNS did not accept;
+    // when notifications are off the rows count as handled so the outbox drains
+    public Set<Long> deliver(List<OrderOutboxEvent> events) {
+        Set<Long> failed = new HashSet<>();
+        if (!notificationsEnabled) {
+            for (OrderOutboxEvent event : events) {
+                logger.info("Notifications disabled. Would send: Order ID: {}, Event: {}",
+                    event.getOrderId(), event.getEventType());
             }
-            
-            String notificationMessage = createNotificationMessage(order, message);
-            
-            PublishRequest request = PublishRequest.builder()
-                .topicArn(topicArn)
-                .message(notificationMessage)
-                .subject("Order Update - " + order.getId())
-                .build();
-                
-            snsClient.publish(request);
-            logger.info("Notification sent for order: {}", order.getId());
-            
-        } catch (SnsException e) {
-            logger.error("Failed to send SNS notification for order {}: {}", order.getId(), e.getMessage());
-        } catch (Exception e) {
-            logger.error("Unexpected error sending notification for order {}: {}", order.getId(), e.getMessage());
+            return failed;
+        }
+        
+        if (snsClient == null || topicArn.isEmpty()) {
+            logger.warn("SNS not configured. Skipping {} outbox notifications", events.size());
+            return failed;
         }
+        
+        List<NotificationPublisher.OutboundMessage> messages = new ArrayList<>(events.size());
+        for (OrderOutboxEvent event : events) {
+            messages.add(new NotificationPublisher.OutboundMessage(
+                String.valueOf(event.getId()), event.getSubject(), event.getPayload()));
+        }
+        for (String id : notificationPublisher.publish(messages)) {
+            failed.add(Long.valueOf(id));
+        }
+        return failed;
+    }
+    
+    public String createNotificationMessage(Order order, String message) {
+        return formatMessage(order.getId(), order.getCustomerName(), order.getCustomerEmail(),
+            order.getStatus(), order.getTotalAmount(), message, order.getUpdatedAt());
+    }
+    
+    public String createNotificationMessage(OrderSummary order, String message) {
+        return formatMessage(order.id(), order.customerName(), order.customerEmail(),
+            order.status(), order.totalAmount(), message, order.updatedAt());
     }
     
-    private String createNotificationMessage(Order order, String message) {
+    private static String formatMessage(Long orderId, String customerName, String customerEmail,
+                                        OrderStatus status, Double totalAmount, String message,
+                                        LocalDateTime updatedAt) {
         return String.format(
             "Order Update\n" +
             "Order ID: %d\n" +
@@ -67,35 +84,13 @@ public class NotificationService {
             "Total Amount: $%.2f\n" +
             "Message: %s\n" +
             "Time: %s",
-            order.getId(),
-            order.getCustomerName(),
-            order.getCustomerEmail(),
-            order.getStatus().getDisplayName(),
-            order.getTotalAmount(),
+            orderId,
+            customerName,
+            customerEmail,
+            status.getDisplayName(),
+            totalAmount,
             message,
-            order.getUpdatedAt()
+            updatedAt
         );
     }
-    
-    @Async
-    public void sendBulkNotification(String message) {
-        try {
-            if (!notificationsEnabled || snsClient == null || topicArn.isEmpty()) {
-                logger.info("Bulk notification disabled or not configured: {}", message);
-                return;
-            }
-            
-            PublishRequest request = PublishRequest.builder()
-                .topicArn(topicArn)
-                .message(message)
-                .subject("System Notification")
-                .build();
-                
-            snsClient.publish(request);
-            logger.info("Bulk notification sent");
-            
-        } catch (Exception e) {
-            logger.error("Failed to send bulk notification: {}", e.getMessage());
-        }
-    }
 }
@@ -0,0 +1,476 @@
+package com.orderms.service;
+
+import com.orderms.dto.OrderSummary;
+import com.orderms.dto.RollupBucket;
+import com.orderms.model.Order;
+import com.orderms.model.OrderItem;
+import com.orderms.model.OrderRollup.Dimension;
+import com.orderms.model.OrderRollup.Granularity;
+import com.orderms.model.OrderStatus;
+import com.orderms.repository.OrderRollupRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongPredicate;
+
+// Keeps order_rollups up to date without touching the order tables on reads. Writes record what
+// an order adds to or removes from its buckets after their transaction commits; the deltas are
+// merged in memory per rollup row and applied by a micro-batch every flush interval, so a burst
+// of orders into the same minute costs one UPDATE per row instead of one per order. Rollups are
+// therefore up to one flush interval behind the order tables. Buckets follow createdAt, so
+// status changes and edits adjust the bucket the order was created in.
+@Service
+public class OrderAnalyticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderAnalyticsService.class);
+
+    public static final String UNCATEGORIZED = "uncategorized";
+
+    private static final String UPDATE = "UPDATE order_rollups SET order_count = order_count + ?, " +
+        "item_count = item_count + ?, revenue = revenue + ? " +
+        "WHERE granularity = ? AND dimension = ? AND bucket_start = ? AND dimension_value = ?";
+
+    private static final String INSERT = "INSERT INTO order_rollups (granularity, dimension, bucket_start, " +
+        "dimension_value, order_count, item_count, revenue) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String REBUILD_SELECT = "SELECT o.id, o.order_status, o.total_amount, o.created_at, " +
+        "i.id AS item_id, i.quantity, i.price, i.category " +
+        "FROM orders o LEFT JOIN order_items i ON i.order_id = o.id " +
+        "WHERE o.created_at >= ? AND o.created_at < ? ORDER BY o.id";
+
+    @Autowired
+    private OrderRollupRepository rollupRepository;
+
+    @Autowired
+    private OrderShards orderShards;
+
+    @Value("${orders.analytics.max-buckets:10000}")
+    private long maxBuckets;
+
+    @Value("${orders.analytics.minute-retention-days:7}")
+    private long minuteRetentionDays;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<RollupKey, Delta> pending = new ConcurrentHashMap<>();
+    // Serializes flushes with each other and with rebuilds
+    private final ReentrantLock flushing = new ReentrantLock();
+    private final Counter flushedRows;
+    private final Counter flushErrors;
+    private volatile LocalDateTime lastFlush;
+    private volatile Map<String, Object> lastRebuild = Map.of();
+
+    public OrderAnalyticsService(DataSource dataSource,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${orders.analytics.rebuild-fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.flushedRows = meterRegistry.counter("orders.analytics.flushed.rows");
+        this.flushErrors = meterRegistry.counter("orders.analytics.flush.errors");
+        meterRegistry.gauge("orders.analytics.pending", pending, Map::size);
+    }
+
+    // Rollup row delta: orders, item lines and revenue
+    public record Delta(long orders, long items, double revenue) {
+
+        Delta plus(Delta other) {
+            return new Delta(orders + other.orders, items + other.items, revenue + other.revenue);
+        }
+
+        Delta times(int sign) {
+            return new Delta(orders * sign, items * sign, revenue * sign);
+        }
+
+        boolean isZero() {
+            return orders == 0 && items == 0 && revenue == 0;
+        }
+    }
+
+    // What one order contributes to the rollups; taken before an edit so it can be subtracted after
+    public record Contribution(LocalDateTime createdAt, OrderStatus status, double revenue, long items,
+                               Map<String, Delta> categories) {
+
+        public static Contribution of(Order order) {
+            Map<String, Delta> categories = new HashMap<>();
+            for (OrderItem item : order.getItems()) {
+                addItem(categories, item.getCategory(), item.getTotalPrice());
+            }
+            return new Contribution(order.getCreatedAt(), order.getStatus(), amount(order.getTotalAmount()),
+                order.getItems().size(), categories);
+        }
+
+        // An order counts once per category however many of its items are in it
+        private static void addItem(Map<String, Delta> categories, String category, double revenue) {
+            Delta line = new Delta(0, 1, revenue);
+            categories.merge(category == null || category.isBlank() ? UNCATEGORIZED : category,
+                new Delta(1, 1, revenue), (existing, added) -> existing.plus(line));
+        }
+    }
+
+    record RollupKey(Granularity granularity, Dimension dimension, LocalDateTime bucketStart, String value) {
+
+        // Flushes touch rows in primary key order so concurrent flushes cannot deadlock
+        static final Comparator<RollupKey> ORDER = Comparator.comparing(RollupKey::granularity)
+            .thenComparing(RollupKey::dimension)
+            .thenComparing(RollupKey::bucketStart)
+            .thenComparing(RollupKey::value);
+    }
+
+    public void recordCreated(Order order) {
+        Contribution contribution = Contribution.of(order);
+        afterCommit(() -> add(pending, contribution, 1));
+    }
+
+    public void recordUpdated(Contribution before, Order order) {
+        Contribution after = Contribution.of(order);
+        if (before.equals(after)) {
+            return;
+        }
+        afterCommit(() -> {
+            add(pending, before, -1);
+            add(pending, after, 1);
+        });
+    }
+
+    // Status only moves the order between STATUS rows; category rows are unaffected
+    public void recordStatusChanged(OrderSummary order, OrderStatus oldStatus) {
+        if (oldStatus == order.status()) {
+            return;
+        }
+        long items = order.itemCount() != null ? order.itemCount() : 0;
+        Delta delta = new Delta(1, items, amount(order.totalAmount()));
+        afterCommit(() -> {
+            for (Granularity granularity : Granularity.values()) {
+                LocalDateTime bucket = granularity.bucketOf(order.createdAt());
+                add(pending, new RollupKey(granularity, Dimension.STATUS, bucket, oldStatus.name()), delta.times(-1));
+                add(pending, new RollupKey(granularity, Dimension.STATUS, bucket, order.status().name()), delta);
+            }
+        });
+    }
+
+    public void recordDeleted(Order order) {
+        Contribution contribution = Contribution.of(order);
+        afterCommit(() -> add(pending, contribution, -1));
+    }
+
+    @Transactional(readOnly = true)
+    public List<RollupBucket> getBuckets(Granularity granularity, Dimension dimension, String value,
+                                         LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = checkRange(granularity, from, to);
+        if (value != null && !value.isBlank()) {
+            return rollupRepository.findBucketsForValue(granularity, dimension, value, start, to);
+        }
+        return rollupRepository.findBuckets(granularity, dimension, start, to);
+    }
+
+    @Transactional(readOnly = true)
+    public List<RollupBucket> getTotals(Granularity granularity, LocalDateTime from, LocalDateTime to) {
+        return rollupRepository.findTotals(granularity, Dimension.STATUS, checkRange(granularity, from, to), to);
+    }
+
+    public static Granularity parseGranularity(String granularity) {
+        try {
+            return Granularity.valueOf(granularity.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported granularity: " + granularity + " (use minute, hour or day)");
+        }
+    }
+
+    public static Dimension parseDimension(String dimension) {
+        try {
+            return Dimension.valueOf(dimension.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported dimension: " + dimension + " (use status or category)");
+        }
+    }
+
+    @Scheduled(initialDelayString = "${orders.analytics.flush-interval-ms:5000}",
+               fixedDelayString = "${orders.analytics.flush-interval-ms:5000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    // Returns the number of rollup rows written
+    public int flush() {
+        flushing.lock();
+        try {
+            return flushPending();
+        } finally {
+            flushing.unlock();
+        }
+    }
+
+    // Minute rows are only kept for recent history; hour and day rows are kept indefinitely
+    @Scheduled(cron = "${orders.analytics.purge-cron:0 15 3 * * *}")
+    public int purgeMinuteRollups() {
+        LocalDateTime before = LocalDateTime.now().minusDays(minuteRetentionDays);
+        int purged = jdbcTemplate.update("DELETE FROM order_rollups WHERE granularity = ? AND bucket_start < ?",
+            Granularity.MINUTE.name(), Timestamp.valueOf(before));
+        logger.info("Purged {} minute rollups before {}", purged, before);
+        return purged;
+    }
+
+    // Recomputes every rollup row for the days in [from, to) from the order tables, one day per
+    // transaction. For backfilling after enabling rollups or repairing drift; only live orders are
+    // seen, so days that have been partly archived lose the archived orders from their rollups.
+    // Writes to the days being rebuilt while it runs may be counted twice or not at all.
+    public long rebuild(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("from and to are required and from must be before to");
+        }
+        checkRange(Granularity.DAY, from.atStartOfDay(), to.atStartOfDay());
+        LocalDateTime startedAt = LocalDateTime.now();
+        long orders = 0;
+        flushing.lock();
+        try {
+            flushPending();
+            for (LocalDate day = from; day.isBefore(to); day = day.plusDays(1)) {
+                LocalDateTime dayStart = day.atStartOfDay();
+                LocalDateTime dayEnd = dayStart.plusDays(1);
+                Long rebuilt = transactionTemplate.execute(status -> rebuildDay(dayStart, dayEnd));
+                orders += rebuilt;
+            }
+        } finally {
+            flushing.unlock();
+        }
+        Map<String, Object> run = new HashMap<>();
+        run.put("startedAt", startedAt.toString());
+        run.put("finishedAt", LocalDateTime.now().toString());
+        run.put("from", from.toString());
+        run.put("to", to.toString());
+        run.put("orders", orders);
+        lastRebuild = run;
+        logger.info("Rebuilt rollups for {} to {} from {} orders", from, to, orders);
+        return orders;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("pendingRows", pending.size());
+        stats.put("lastFlush", lastFlush != null ? lastFlush.toString() : null);
+        stats.put("rows", rollupRepository.count());
+        stats.put("minuteRetentionDays", minuteRetentionDays);
+        stats.put("lastRebuild", lastRebuild);
+        return stats;
+    }
+
+    private int flushPending() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        Map<RollupKey, Delta> batch = new TreeMap<>(RollupKey.ORDER);
+        for (RollupKey key : pending.keySet()) {
+            Delta delta = pending.remove(key);
+            if (delta != null) {
+                batch.put(key, delta);
+            }
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(batch));
+            lastFlush = LocalDateTime.now();
+            flushedRows.increment(batch.size());
+            return batch.size();
+        } catch (RuntimeException e) {
+            // Put the deltas back; they merge with anything recorded since and are retried next flush
+            batch.forEach((key, delta) -> add(pending, key, delta));
+            flushErrors.increment();
+            logger.warn("Rollup flush of {} rows failed, will retry: {}", batch.size(), e.getMessage());
+            return 0;
+        }
+    }
+
+    // Adds the deltas to existing rows in one JDBC batch and inserts the rows that did not exist
+    private void write(Map<RollupKey, Delta> batch) {
+        List<RollupKey> keys = new ArrayList<>(batch.keySet());
+        List<Object[]> updates = new ArrayList<>(keys.size());
+        for (RollupKey key : keys) {
+            Delta delta = batch.get(key);
+            updates.add(new Object[] {delta.orders(), delta.items(), delta.revenue(), key.granularity().name(),
+                key.dimension().name(), Timestamp.valueOf(key.bucketStart()), key.value()});
+        }
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE, updates);
+
+        List<Object[]> inserts = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            int count = counts[i];
+            if (count == Statement.SUCCESS_NO_INFO) {
+                // Driver did not report per-statement counts; repeat this one alone to find out
+                count = jdbcTemplate.update(UPDATE, updates.get(i));
+            }
+            if (count == 0) {
+                inserts.add(insertArgs(keys.get(i), batch.get(keys.get(i))));
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT, inserts);
+        }
+    }
+
+    private long rebuildDay(LocalDateTime dayStart, LocalDateTime dayEnd) {
+        jdbcTemplate.update("DELETE FROM order_rollups WHERE bucket_start >= ? AND bucket_start < ?",
+            Timestamp.valueOf(dayStart), Timestamp.valueOf(dayEnd));
+        // Deltas for these buckets are covered by the rows read below
+        pending.keySet().removeIf(key -> !key.bucketStart().isBefore(dayStart) && key.bucketStart().isBefore(dayEnd));
+
+        // Rollups live on the home shard; the day's orders are read from every shard
+        Map<RollupKey, Delta> rows = new HashMap<>();
+        long orders = 0;
+        for (RebuildHandler handler : orderShards.scatter(shard -> {
+            RebuildHandler reader = new RebuildHandler(new HashMap<>(), id -> orderShards.owns(shard, id));
+            jdbcTemplate.query(REBUILD_SELECT, reader, Timestamp.valueOf(dayStart), Timestamp.valueOf(dayEnd));
+            reader.finish();
+            return reader;
+        })) {
+            handler.rows.forEach((key, delta) -> add(rows, key, delta));
+            orders += handler.orders;
+        }
+
+        List<RollupKey> keys = new ArrayList<>(rows.keySet());
+        keys.sort(RollupKey.ORDER);
+        List<Object[]> inserts = new ArrayList<>(keys.size());
+        for (RollupKey key : keys) {
+            inserts.add(insertArgs(key, rows.get(key)));
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT, inserts);
+        }
+        return orders;
+    }
+
+    // Rows arrive ordered by order id; each order's contribution is added once its last row is read
+    private static class RebuildHandler implements RowCallbackHandler {
+
+        private final Map<RollupKey, Delta> rows;
+        private final LongPredicate owned;
+        private final Map<String, Delta> categories = new HashMap<>();
+        private long orderId = -1;
+        private LocalDateTime createdAt;
+        private OrderStatus status;
+        private double revenue;
+        private long items;
+        private long orders;
+
+        RebuildHandler(Map<RollupKey, Delta> rows, LongPredicate owned) {
+            this.rows = rows;
+            this.owned = owned;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long id = rs.getLong("id");
+            if (!owned.test(id)) {
+                // Old copy of an order whose bucket is being moved
+                return;
+            }
+            if (id != orderId) {
+                finish();
+                orderId = id;
+                createdAt = rs.getTimestamp("created_at").toLocalDateTime();
+                status = OrderStatus.valueOf(rs.getString("order_status"));
+                revenue = rs.getDouble("total_amount");
+                items = 0;
+            }
+            rs.getLong("item_id");
+            if (!rs.wasNull()) {
+                items++;
+                Contribution.addItem(categories, rs.getString("category"), rs.getInt("quantity") * rs.getDouble("price"));
+            }
+        }
+
+        void finish() {
+            if (orderId < 0) {
+                return;
+            }
+            add(rows, new Contribution(createdAt, status, revenue, items, new HashMap<>(categories)), 1);
+            categories.clear();
+            orders++;
+            orderId = -1;
+        }
+    }
+
+    private static Object[] insertArgs(RollupKey key, Delta delta) {
+        return new Object[] {key.granularity().name(), key.dimension().name(), Timestamp.valueOf(key.bucketStart()),
+            key.value(), delta.orders(), delta.items(), delta.revenue()};
+    }
+
+    private static void add(Map<RollupKey, Delta> target, Contribution contribution, int sign) {
+        for (Granularity granularity : Granularity.values()) {
+            LocalDateTime bucket = granularity.bucketOf(contribution.createdAt());
+            add(target, new RollupKey(granularity, Dimension.STATUS, bucket, contribution.status().name()),
+                new Delta(1, contribution.items(), contribution.revenue()).times(sign));
+            for (Map.Entry<String, Delta> category : contribution.categories().entrySet()) {
+                add(target, new RollupKey(granularity, Dimension.CATEGORY, bucket, category.getKey()),
+                    category.getValue().times(sign));
+            }
+        }
+    }
+
+    // Deltas that cancel out (an order created and deleted between flushes) leave no row behind
+    private static void add(Map<RollupKey, Delta> target, RollupKey key, Delta delta) {
+        target.merge(key, delta, (existing, added) -> {
+            Delta sum = existing.plus(added);
+            return sum.isZero() ? null : sum;
+        });
+    }
+
+    private LocalDateTime checkRange(Granularity granularity, LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("from and to are required and from must be before to");
+        }
+        LocalDateTime start = granularity.bucketOf(from);
+        long buckets = granularity.getUnit().between(start, to);
+        if (buckets > maxBuckets) {
+            throw new IllegalArgumentException(String.format(
+                "Range covers %d %s buckets; the limit is %d", buckets, granularity.name().toLowerCase(), maxBuckets));
+        }
+        return start;
+    }
+
+    // Deltas only count once the surrounding transaction has committed
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static double amount(Double amount) {
+        return amount != null ? amount : 0.0;
+    }
+}
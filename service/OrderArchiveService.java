@@ -0,0 +1,287 @@
+package com.orderms.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orderms.dto.OrderDetail;
+import com.orderms.event.OrderChangeEvent;
+import com.orderms.model.Order;
+import com.orderms.model.OrderArchiveBlock;
+import com.orderms.model.OrderStatus;
+import com.orderms.repository.OrderArchiveBlockRepository;
+import com.orderms.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Moves delivered and cancelled orders that have not changed for orders.archive.after-days out
+// of the live tables. Each batch is written as NDJSON segments partitioned by creation month;
+// a segment is a series of independently gzipped blocks, and every block gets a row in
+// order_archive_blocks with its byte range and id range, so one order can be read back with
+// a single indexed lookup and one ranged read. Segments are written before the rows are
+// deleted and the delete commits together with the index rows, so a failed batch leaves at
+// most an unreferenced segment behind and never loses an order.
+@Service
+public class OrderArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderArchiveService.class);
+
+    private static final Set<OrderStatus> TERMINAL = EnumSet.of(OrderStatus.ORDER_DELIVERED, OrderStatus.ORDER_CANCELLED);
+    private static final DateTimeFormatter RUN_ID = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderArchiveBlockRepository blockRepository;
+
+    @Autowired
+    private ArchiveStorage archiveStorage;
+
+    @Autowired
+    private OrderStatsService orderStatsService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private OrderShards orderShards;
+
+    @Value("${orders.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${orders.archive.after-days:90}")
+    private long afterDays;
+
+    @Value("${orders.archive.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${orders.archive.block-size:256}")
+    private int blockSize;
+
+    @Value("${orders.archive.max-batches-per-run:1000}")
+    private int maxBatchesPerRun;
+
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantLock running = new ReentrantLock();
+    private final Counter archivedOrders;
+    private final Counter archivedBytes;
+    private final Counter lookupHits;
+    private final Counter lookupMisses;
+    private volatile Map<String, Object> lastRun = Map.of();
+
+    public OrderArchiveService(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archivedOrders = meterRegistry.counter("orders.archive.orders");
+        this.archivedBytes = meterRegistry.counter("orders.archive.bytes");
+        this.lookupHits = meterRegistry.counter("orders.archive.lookups", "result", "hit");
+        this.lookupMisses = meterRegistry.counter("orders.archive.lookups", "result", "miss");
+    }
+
+    @Scheduled(cron = "${orders.archive.cron:0 30 2 * * *}")
+    public void scheduledRun() {
+        if (enabled) {
+            archive();
+        }
+    }
+
+    // Returns the number of orders archived, or -1 if a run is already in progress
+    public int archive() {
+        if (!running.tryLock()) {
+            return -1;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime before = startedAt.minusDays(afterDays);
+        String runId = RUN_ID.format(startedAt);
+        int total = 0;
+        try {
+            // Shards are archived one after another, each with its own batch budget; batch numbers
+            // run on across shards so segment paths stay unique
+            int batchNumber = 0;
+            for (int shard = 0; shard < orderShards.getShardCount(); shard++) {
+                long afterId = 0;
+                for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                    int current = shard;
+                    int number = batchNumber++;
+                    long after = afterId;
+                    BatchResult result = orderShards.onShard(shard, () ->
+                        transactionTemplate.execute(status -> archiveBatch(current, before, runId, number, after)));
+                    total += result.archived();
+                    // A short locked page means the shard is done; skipped orders do not end the run early
+                    if (result.locked() < batchSize) {
+                        break;
+                    }
+                    afterId = result.lastId();
+                }
+            }
+            logger.info("Archived {} orders last updated before {}", total, before);
+            recordRun(startedAt, total, null);
+        } catch (RuntimeException e) {
+            logger.error("Archive run stopped after {} orders: {}", total, e.getMessage(), e);
+            recordRun(startedAt, total, e.getMessage());
+        } finally {
+            running.unlock();
+        }
+        return total;
+    }
+
+    public Optional<OrderDetail> findArchived(Long id) {
+        String prefix = "{\"id\":" + id + ",";
+        // The block index stays on the shard that archived the order, which a later move may have changed
+        List<OrderArchiveBlock> blocks = new ArrayList<>();
+        orderShards.scatter(shard -> blockRepository.findCovering(id)).forEach(blocks::addAll);
+        for (OrderArchiveBlock block : blocks) {
+            try {
+                byte[] compressed = archiveStorage.read(block.getSegmentPath(), block.getBlockOffset(), block.getBlockLength());
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                        new GZIPInputStream(new ByteArrayInputStream(compressed)), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        // id is the first property of every line; only the match is parsed
+                        if (line.startsWith(prefix)) {
+                            lookupHits.increment();
+                            return Optional.of(objectMapper.readValue(line, OrderDetail.class));
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read archived order " + id, e);
+            }
+        }
+        lookupMisses.increment();
+        return Optional.empty();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("running", running.isLocked());
+        stats.put("afterDays", afterDays);
+        stats.put("blocks", orderShards.scatter(shard -> blockRepository.count())
+            .stream().mapToLong(Long::longValue).sum());
+        stats.put("archivedOrders", orderShards.scatter(shard -> blockRepository.countArchivedOrders())
+            .stream().mapToLong(Long::longValue).sum());
+        stats.put("lastRun", lastRun);
+        return stats;
+    }
+
+    // locked: candidates in the page, lastId: where the next page starts, archived: orders moved
+    private record BatchResult(int locked, long lastId, int archived) {}
+
+    private BatchResult archiveBatch(int shard, LocalDateTime before, String runId, int batchNumber, long afterId) {
+        List<Order> orders = new ArrayList<>(orderRepository.lockArchivable(TERMINAL, before, afterId,
+            PageRequest.of(0, batchSize)));
+        int locked = orders.size();
+        long lastId = locked > 0 ? orders.get(locked - 1).getId() : afterId;
+        // Orders being moved between shards are left for a later run
+        orders.removeIf(order -> !orderShards.isSettled(shard, order.getId()));
+        if (orders.isEmpty()) {
+            return new BatchResult(locked, lastId, 0);
+        }
+        List<Long> ids = orders.stream().map(Order::getId).toList();
+        // Initializes the items of the already locked orders in one query
+        orderRepository.findAllWithItemsByIdIn(ids);
+
+        Map<YearMonth, List<Order>> byMonth = orders.stream()
+            .collect(Collectors.groupingBy(order -> YearMonth.from(order.getCreatedAt()), TreeMap::new, Collectors.toList()));
+        List<OrderArchiveBlock> blocks = new ArrayList<>();
+        long bytes = 0;
+        for (Map.Entry<YearMonth, List<Order>> partition : byMonth.entrySet()) {
+            YearMonth month = partition.getKey();
+            String path = String.format("orders/%d/%02d/%s-%d.ndjson.gz",
+                month.getYear(), month.getMonthValue(), runId, batchNumber);
+            byte[] segment = writeSegment(path, month.toString(), partition.getValue(), blocks);
+            storeSegment(path, segment);
+            bytes += segment.length;
+        }
+        blockRepository.saveAll(blocks);
+
+        List<OrderChangeEvent> events = orders.stream().map(OrderChangeEvent::archived).toList();
+        orderRepository.deleteItemsByOrderIdIn(ids);
+        orderRepository.deleteByIdIn(ids);
+        for (Order order : orders) {
+            orderStatsService.recordDeleted(order.getStatus(), order.getTotalAmount());
+        }
+        events.forEach(eventPublisher::publishEvent);
+
+        archivedOrders.increment(orders.size());
+        archivedBytes.increment(bytes);
+        logger.debug("Archived batch {} of run {}: {} orders in {} blocks", batchNumber, runId, orders.size(), blocks.size());
+        return new BatchResult(locked, lastId, orders.size());
+    }
+
+    // Orders arrive sorted by id, so every block covers a contiguous id range
+    private byte[] writeSegment(String path, String month, List<Order> orders, List<OrderArchiveBlock> blocks) {
+        try {
+            ByteArrayOutputStream segment = new ByteArrayOutputStream();
+            for (int from = 0; from < orders.size(); from += blockSize) {
+                List<Order> chunk = orders.subList(from, Math.min(from + blockSize, orders.size()));
+                ByteArrayOutputStream block = new ByteArrayOutputStream();
+                try (GZIPOutputStream gzip = new GZIPOutputStream(block)) {
+                    for (Order order : chunk) {
+                        gzip.write(objectMapper.writeValueAsBytes(OrderDetail.from(order)));
+                        gzip.write('\n');
+                    }
+                }
+                blocks.add(new OrderArchiveBlock(path, month, segment.size(), block.size(),
+                    chunk.get(0).getId(), chunk.get(chunk.size() - 1).getId(), chunk.size()));
+                block.writeTo(segment);
+            }
+            return segment.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode archive segment " + path, e);
+        }
+    }
+
+    private void storeSegment(String path, byte[] segment) {
+        try {
+            archiveStorage.write(path, segment);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write archive segment " + path, e);
+        }
+    }
+
+    private void recordRun(LocalDateTime startedAt, int archived, String error) {
+        Map<String, Object> run = new HashMap<>();
+        run.put("startedAt", startedAt.toString());
+        run.put("finishedAt", LocalDateTime.now().toString());
+        run.put("archived", archived);
+        if (error != null) {
+            run.put("error", error);
+        }
+        lastRun = run;
+    }
+}
@@ -0,0 +1,321 @@
+package com.orderms.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orderms.dto.BatchOrderResult;
+import com.orderms.dto.BulkStatusRequest;
+import com.orderms.dto.BulkStatusResult;
+import com.orderms.dto.OrderRequest;
+import com.orderms.dto.OrderSummary;
+import com.orderms.event.OrderChangeEvent;
+import com.orderms.model.Order;
+import com.orderms.model.OrderStatus;
+import com.orderms.repository.OrderRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@Service
+@Timed(value = "orders.service", histogram = true)
+public class OrderBatchService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OrderBatchService.class);
+    
+    @Autowired
+    private OrderStatsService orderStatsService;
+    
+    @Autowired
+    private OrderAnalyticsService orderAnalyticsService;
+    
+    @Autowired
+    private CustomerSummaryService customerSummaryService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private Validator validator;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private OrderRepository orderRepository;
+    
+    @Autowired
+    private OrderOutboxService orderOutboxService;
+    
+    @Autowired
+    private OrderShards orderShards;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${orders.batch.chunk-size:500}")
+    private int chunkSize;
+    
+    @Value("${orders.batch.max-records:50000}")
+    private int maxRecords;
+    
+    public List<BatchOrderResult> importOrders(List<OrderRequest> requests) {
+        // Checked up front so an oversized request is rejected before any chunk commits
+        if (requests.size() > maxRecords) {
+            throw new IllegalArgumentException("Batch exceeds the limit of " + maxRecords + " records");
+        }
+        Ingestion ingestion = new Ingestion();
+        for (OrderRequest request : requests) {
+            ingestion.accept(request);
+        }
+        return ingestion.finish();
+    }
+    
+    // One JSON object per line; unparseable lines are reported without aborting the stream.
+    // Reading stops at the record limit: the orders already written stay created, and the first
+    // record past the limit is reported as TRUNCATED so the client knows where to resume.
+    public List<BatchOrderResult> importNdjson(BufferedReader reader) throws IOException {
+        Ingestion ingestion = new Ingestion();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            if (ingestion.isFull()) {
+                ingestion.truncate();
+                break;
+            }
+            try {
+                ingestion.accept(objectMapper.readValue(line, OrderRequest.class));
+            } catch (JsonProcessingException e) {
+                ingestion.reject(List.of("Malformed JSON: " + e.getOriginalMessage()));
+            }
+        }
+        return ingestion.finish();
+    }
+    
+    // Moves many orders to one status with a set-based UPDATE per chunk. Each chunk is one
+    // transaction: lock the rows and read their current status, classify every id, then update
+    // all valid ones in a single statement guarded by the allowed source statuses. Notifications
+    // go through the outbox, whose relay publishes them to SNS in batches.
+    public List<BulkStatusResult> updateStatuses(BulkStatusRequest request) {
+        OrderStatus target = request.getStatus();
+        List<Long> ids = resolveIds(request);
+        EnumSet<OrderStatus> allowedFrom = EnumSet.noneOf(OrderStatus.class);
+        for (OrderStatus status : OrderStatus.values()) {
+            if (status.canTransitionTo(target)) {
+                allowedFrom.add(status);
+            }
+        }
+        
+        Map<Long, BulkStatusResult> outcomes = new HashMap<>();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        // A chunk never spans shards: each one is a single transaction on the shard holding its orders
+        for (List<Long> shardIds : orderShards.groupByShard(ids, Long::longValue).values()) {
+            for (int from = 0; from < shardIds.size(); from += chunkSize) {
+                List<Long> chunk = shardIds.subList(from, Math.min(from + chunkSize, shardIds.size()));
+                try {
+                    outcomes.putAll(transactionTemplate.execute(status -> updateChunk(chunk, target, allowedFrom)));
+                } catch (RuntimeException e) {
+                    logger.error("Bulk status chunk of {} orders failed: {}", chunk.size(), e.getMessage());
+                    for (Long id : chunk) {
+                        outcomes.put(id, BulkStatusResult.failed(id, "Chunk rejected: " + e.getMessage()));
+                    }
+                }
+            }
+        }
+        return ids.stream().map(outcomes::get).collect(Collectors.toList());
+    }
+    
+    private List<Long> resolveIds(BulkStatusRequest request) {
+        if (request.getIds() != null && !request.getIds().isEmpty()) {
+            if (request.getIds().stream().anyMatch(Objects::isNull)) {
+                throw new IllegalArgumentException("Order ids must not be null");
+            }
+            List<Long> ids = new ArrayList<>(new LinkedHashSet<>(request.getIds()));
+            if (ids.size() > maxRecords) {
+                throw new IllegalArgumentException("Bulk update exceeds the limit of " + maxRecords + " orders");
+            }
+            return ids;
+        }
+        if (request.getCurrentStatus() == null) {
+            throw new IllegalArgumentException("Either ids or currentStatus is required");
+        }
+        LocalDateTime createdFrom = request.getCreatedFrom() != null ? request.getCreatedFrom() : LocalDateTime.of(1970, 1, 1, 0, 0);
+        LocalDateTime createdTo = request.getCreatedTo() != null ? request.getCreatedTo() : LocalDateTime.of(9999, 1, 1, 0, 0);
+        List<Long> ids = orderShards.gather(shard -> orderRepository.findIdsByStatusAndCreatedAtRange(
+            request.getCurrentStatus(), createdFrom, createdTo, PageRequest.of(0, maxRecords + 1)),
+            Long::longValue, Comparator.naturalOrder());
+        if (ids.size() > maxRecords) {
+            throw new IllegalArgumentException("Filter matches more than " + maxRecords + " orders; narrow the createdAt range");
+        }
+        return ids;
+    }
+    
+    private Map<Long, BulkStatusResult> updateChunk(List<Long> chunk, OrderStatus target, Set<OrderStatus> allowedFrom) {
+        orderShards.routeToOrders(chunk);
+        Map<Long, OrderStatus> current = new HashMap<>();
+        for (Object[] row : orderRepository.lockStatusesByIdIn(chunk)) {
+            current.put((Long) row[0], (OrderStatus) row[1]);
+        }
+        
+        Map<Long, BulkStatusResult> outcomes = new HashMap<>();
+        Map<Long, OrderStatus> previous = new HashMap<>();
+        for (Long id : chunk) {
+            OrderStatus status = current.get(id);
+            if (status == null) {
+                outcomes.put(id, BulkStatusResult.of(id, BulkStatusResult.Outcome.NOT_FOUND, null));
+            } else if (status == target) {
+                outcomes.put(id, BulkStatusResult.of(id, BulkStatusResult.Outcome.UNCHANGED, status));
+            } else if (!allowedFrom.contains(status)) {
+                outcomes.put(id, BulkStatusResult.of(id, BulkStatusResult.Outcome.INVALID_TRANSITION, status));
+            } else {
+                previous.put(id, status);
+            }
+        }
+        if (previous.isEmpty()) {
+            return outcomes;
+        }
+        
+        int updated = orderRepository.updateStatusesIfCurrent(previous.keySet(), allowedFrom, target, LocalDateTime.now());
+        if (updated != previous.size()) {
+            // Cannot happen while the rows are locked; roll the chunk back rather than guess
+            throw new OptimisticLockingFailureException(String.format(
+                "Expected to update %d orders but updated %d", previous.size(), updated));
+        }
+        for (OrderSummary order : orderRepository.findSummariesByIdIn(previous.keySet())) {
+            OrderStatus oldStatus = previous.get(order.id());
+            orderStatsService.recordStatusChanged(oldStatus, target, order.totalAmount());
+            orderAnalyticsService.recordStatusChanged(order, oldStatus);
+            customerSummaryService.recordStatusChanged(order.customerId(), oldStatus, target, order.totalAmount());
+            eventPublisher.publishEvent(OrderChangeEvent.statusChanged(order, oldStatus));
+            orderOutboxService.append(order, "STATUS_CHANGED", String.format("Order status updated from %s to %s",
+                oldStatus.getDisplayName(), target.getDisplayName()));
+            outcomes.put(order.id(), BulkStatusResult.of(order.id(), BulkStatusResult.Outcome.UPDATED, oldStatus));
+        }
+        return outcomes;
+    }
+    
+    private class Ingestion {
+        private final List<BatchOrderResult> results = new ArrayList<>();
+        private final List<OrderRequest> pending = new ArrayList<>();
+        private final List<Integer> pendingIndexes = new ArrayList<>();
+        private final TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        private int index = 0;
+        
+        void accept(OrderRequest request) {
+            Set<ConstraintViolation<OrderRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                reject(violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.toList()));
+                return;
+            }
+            results.add(null);
+            pending.add(request);
+            pendingIndexes.add(index++);
+            if (pending.size() >= chunkSize) {
+                writeChunk();
+            }
+        }
+        
+        void reject(List<String> errors) {
+            results.add(BatchOrderResult.invalid(index++, errors));
+        }
+        
+        List<BatchOrderResult> finish() {
+            writeChunk();
+            return results;
+        }
+        
+        boolean isFull() {
+            return index >= maxRecords;
+        }
+        
+        void truncate() {
+            results.add(BatchOrderResult.truncated(index++, "Batch exceeds the limit of " + maxRecords +
+                " records; this and the following records were not read"));
+        }
+        
+        // Each chunk is one transaction per shard; inserts are flushed as JDBC batches and the
+        // persistence context is cleared so memory stays flat across chunks
+        private void writeChunk() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            try {
+                List<Integer> slots = IntStream.range(0, pending.size()).boxed().toList();
+                for (List<Integer> shardSlots : orderShards.groupByCustomerShard(slots,
+                        slot -> pending.get(slot).getCustomerId()).values()) {
+                    writeShard(shardSlots);
+                }
+            } finally {
+                pending.clear();
+                pendingIndexes.clear();
+            }
+        }
+        
+        private void writeShard(List<Integer> slots) {
+            try {
+                List<Order> orders = transactionTemplate.execute(status -> {
+                    List<Order> chunk = new ArrayList<>(slots.size());
+                    for (int slot : slots) {
+                        OrderRequest request = pending.get(slot);
+                        orderShards.routeToCustomer(request.getCustomerId());
+                        Order order = OrderService.buildOrder(request);
+                        entityManager.persist(order);
+                        orderStatsService.recordCreated(order.getStatus(), order.getTotalAmount());
+                        orderAnalyticsService.recordCreated(order);
+                        customerSummaryService.recordCreated(order);
+                        eventPublisher.publishEvent(OrderChangeEvent.created(order));
+                        // Committed with the chunk; the relay publishes them to SNS in batches
+                        orderOutboxService.append(order, "CREATED", "New order placed successfully!");
+                        chunk.add(order);
+                    }
+                    entityManager.flush();
+                    entityManager.clear();
+                    return chunk;
+                });
+                for (int i = 0; i < orders.size(); i++) {
+                    int position = pendingIndexes.get(slots.get(i));
+                    results.set(position, BatchOrderResult.created(position, orders.get(i).getId()));
+                }
+            } catch (RuntimeException e) {
+                logger.error("Batch chunk of {} orders failed: {}", slots.size(), e.getMessage());
+                for (int slot : slots) {
+                    int position = pendingIndexes.get(slot);
+                    results.set(position, BatchOrderResult.failed(position, "Chunk rejected: " + e.getMessage()));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.orderms.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.orderms.config.DataSourceRouting;
+import com.orderms.dto.OrderDetail;
+import com.orderms.event.OrderChangeEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Read-through cache of single-order reads. Entries are immutable OrderDetail snapshots,
+// bounded by size and TTL, and dropped once a change to the order has committed.
+@Service
+public class OrderDetailCache {
+    
+    private final OrderService orderService;
+    private final SharedOrderCache sharedCache;
+    private final OrderArchiveService orderArchiveService;
+    private final AsyncCache<Long, OrderDetail> cache;
+    // Invalidation counts per id stripe, so a load can tell whether the order changed while it
+    // was reading the database
+    private final AtomicLongArray invalidations = new AtomicLongArray(1024);
+    
+    public OrderDetailCache(OrderService orderService,
+                            SharedOrderCache sharedCache,
+                            OrderArchiveService orderArchiveService,
+                            MeterRegistry meterRegistry,
+                            @Value("${orders.cache.max-size:10000}") long maxSize,
+                            @Value("${orders.cache.ttl-seconds:60}") long ttlSeconds) {
+        this.orderService = orderService;
+        this.sharedCache = sharedCache;
+        this.orderArchiveService = orderArchiveService;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .recordStats()
+            .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "orderDetail");
+    }
+    
+    // Concurrent misses for the same id share a single load. The load runs outside the
+    // cache's map lock: an after-commit invalidation can hold a pooled connection, and
+    // blocking it behind a loader that is waiting for a connection starves the pool.
+    // An invalidation during a load drops the pending entry instead of waiting for it.
+    public Optional<OrderDetail> get(Long id) {
+        CompletableFuture<OrderDetail> created = new CompletableFuture<>();
+        CompletableFuture<OrderDetail> future = cache.get(id, (key, executor) -> created);
+        if (future == created) {
+            try {
+                created.complete(load(id));
+            } catch (RuntimeException e) {
+                created.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return Optional.ofNullable(future.join());
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderChange(OrderChangeEvent event) {
+        invalidate(event.orderId());
+    }
+    
+    public void invalidate(Long id) {
+        invalidations.incrementAndGet(stripe(id));
+        sharedCache.evict(id);
+        cache.synchronous().invalidate(id);
+    }
+    
+    public Map<String, Object> getStats() {
+        CacheStats stats = cache.synchronous().stats();
+        Map<String, Object> result = new HashMap<>();
+        result.put("size", cache.synchronous().estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        result.put("averageLoadMillis", stats.averageLoadPenalty() / 1_000_000.0);
+        return result;
+    }
+    
+    private OrderDetail load(Long id) {
+        Optional<OrderDetail> shared = sharedCache.get(id);
+        if (shared.isPresent()) {
+            return shared.get();
+        }
+        long generation = invalidations.get(stripe(id));
+        // Misses mostly follow an invalidation, so read the primary rather than a lagging replica
+        Optional<OrderDetail> order = DataSourceRouting.onPrimary(() -> orderService.getOrderDetail(id));
+        if (order.isPresent()) {
+            // A commit after our read must not be undone by putting the old copy back into the
+            // shared tier, where it would outlive the local entry
+            if (invalidations.get(stripe(id)) == generation) {
+                sharedCache.put(order.get());
+                // The invalidation may have evicted just before our put landed
+                if (invalidations.get(stripe(id)) != generation) {
+                    sharedCache.evict(id);
+                }
+            }
+            return order.get();
+        }
+        // Archived orders are immutable, so caching them locally never needs an invalidation
+        return orderArchiveService.findArchived(id).orElse(null);
+    }
+    
+    private int stripe(Long id) {
+        return Long.hashCode(id) & (invalidations.length() - 1);
+    }
+}
@@ -0,0 +1,225 @@
+package com.orderms.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orderms.dto.OrderDetail;
+import com.orderms.dto.OrderItemView;
+import com.orderms.dto.OrderSummary;
+import com.orderms.model.OrderStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+// Streams orders with their items straight from a forward-only JDBC cursor to the response.
+// Rows are ordered by order id, so only the order currently being assembled is held in memory
+// and heap use does not grow with the size of the export. Sharded, the shards are exported one
+// after another, so ids ascend within each shard's part of the output.
+@Service
+public class OrderExportService {
+
+    public enum Format { NDJSON, CSV }
+
+    private static final String SELECT = "SELECT o.id, o.customer_id, o.customer_name, o.customer_email, " +
+        "o.customer_phone, o.order_status, o.total_amount, o.delivery_address, o.order_notes, o.created_at, " +
+        "o.updated_at, o.version, i.id AS item_id, i.product_name, i.product_description, i.quantity, i.price, i.category " +
+        "FROM orders o LEFT JOIN order_items i ON i.order_id = o.id";
+
+    private static final String CSV_HEADER = "order_id,customer_id,customer_name,customer_email,customer_phone," +
+        "status,total_amount,delivery_address,order_notes,created_at,updated_at," +
+        "item_id,product_name,product_description,quantity,price,category";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final OrderShards orderShards;
+
+    public OrderExportService(DataSource dataSource,
+                              PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              OrderShards orderShards,
+                              @Value("${orders.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Read-only: goes to the replica when routing is enabled
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.orderShards = orderShards;
+    }
+
+    public static Format parseFormat(String format) {
+        try {
+            return Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported export format: " + format + " (use ndjson or csv)");
+        }
+    }
+
+    // Returns the number of orders written
+    public long export(Format format, Collection<OrderStatus> statuses, LocalDateTime from, LocalDateTime to,
+                       OutputStream out) {
+        StringBuilder sql = new StringBuilder(SELECT).append(" WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (statuses != null && !statuses.isEmpty()) {
+            sql.append(" AND o.order_status IN (").append(String.join(",", Collections.nCopies(statuses.size(), "?"))).append(")");
+            statuses.forEach(status -> args.add(status.name()));
+        }
+        if (from != null) {
+            sql.append(" AND o.created_at >= ?");
+            args.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" AND o.created_at < ?");
+            args.add(Timestamp.valueOf(to));
+        }
+        sql.append(" ORDER BY o.id, i.id");
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        OrderRowWriter rows = new OrderRowWriter(format, writer);
+        orderShards.forEachShard(shard -> {
+            rows.shard = shard;
+            transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.query(sql.toString(), rows, args.toArray()));
+        });
+        rows.finish();
+        meterRegistry.counter("orders.export.orders", "format", format.name().toLowerCase()).increment(rows.orders);
+        return rows.orders;
+    }
+
+    private class OrderRowWriter implements RowCallbackHandler {
+
+        private final Format format;
+        private final Writer writer;
+        private final List<OrderItemView> items = new ArrayList<>();
+        private OrderSummary order;
+        private long orders;
+        private int shard;
+
+        OrderRowWriter(Format format, Writer writer) {
+            this.format = format;
+            this.writer = writer;
+            if (format == Format.CSV) {
+                write(CSV_HEADER + "\n");
+            }
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long id = rs.getLong("id");
+            if (!orderShards.owns(shard, id)) {
+                // Old copy of an order whose bucket is being moved; the owning shard exports it
+                return;
+            }
+            if (order != null && order.id() != id) {
+                flushOrder();
+            }
+            if (order == null) {
+                // Item count is not needed: the items follow on the next rows
+                order = new OrderSummary(id, rs.getString("customer_id"), rs.getString("customer_name"),
+                    rs.getString("customer_email"), rs.getString("customer_phone"),
+                    OrderStatus.valueOf(rs.getString("order_status")), rs.getObject("total_amount", Double.class),
+                    rs.getString("delivery_address"), rs.getString("order_notes"), null,
+                    toLocalDateTime(rs.getTimestamp("created_at")), toLocalDateTime(rs.getTimestamp("updated_at")),
+                    rs.getObject("version", Long.class));
+            }
+            long itemId = rs.getLong("item_id");
+            if (!rs.wasNull()) {
+                items.add(new OrderItemView(itemId, rs.getString("product_name"), rs.getString("product_description"),
+                    rs.getInt("quantity"), rs.getDouble("price"), rs.getString("category")));
+            }
+        }
+
+        void finish() {
+            if (order != null) {
+                flushOrder();
+            }
+            try {
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void flushOrder() {
+            OrderDetail detail = OrderDetail.of(order, items);
+            if (format == Format.CSV) {
+                writeCsv(detail);
+            } else {
+                try {
+                    write(objectMapper.writeValueAsString(detail) + "\n");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            orders++;
+            order = null;
+            items.clear();
+        }
+
+        // One line per item; an order without items still gets one line with empty item columns
+        private void writeCsv(OrderDetail detail) {
+            String orderColumns = String.join(",",
+                String.valueOf(detail.id()), csv(detail.customerId()), csv(detail.customerName()),
+                csv(detail.customerEmail()), csv(detail.customerPhone()), detail.status().name(),
+                csv(detail.totalAmount()), csv(detail.deliveryAddress()), csv(detail.orderNotes()),
+                csv(detail.createdAt()), csv(detail.updatedAt()));
+            if (detail.items().isEmpty()) {
+                write(orderColumns + ",,,,,,\n");
+                return;
+            }
+            for (OrderItemView item : detail.items()) {
+                write(orderColumns + "," + String.join(",",
+                    String.valueOf(item.id()), csv(item.productName()), csv(item.productDescription()),
+                    csv(item.quantity()), csv(item.price()), csv(item.category())) + "\n");
+            }
+        }
+
+        private void write(String text) {
+            try {
+                writer.write(text);
+            } catch (IOException e) {
+                // Client went away; abort the query rather than reading the rest of the cursor
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+
+    // RFC 4180: quote fields containing separators, quotes or line breaks
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return "\"" + text.replace("\"", "\"\"") + "\"";
+    }
+}
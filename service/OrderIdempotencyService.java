@@ -0,0 +1,126 @@
+package com.orderms.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orderms.config.DataSourceRouting;
+import com.orderms.dto.OrderRequest;
+import com.orderms.model.Order;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+
+// Order creation keyed by the client's Idempotency-Key. The first request with a key creates
+// the order; retries get that order back without creating another one or sending another
+// notification, and a duplicate arriving while the first is still running waits for it.
+@Service
+public class OrderIdempotencyService {
+    
+    public record Result(Order order, boolean replayed) {}
+    
+    @Autowired
+    private OrderService orderService;
+    
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private OrderShards orderShards;
+    
+    @Value("${orders.idempotency.wait-ms:5000}")
+    private long waitMs;
+    
+    private final TransactionTemplate transactionTemplate;
+    private final Counter created;
+    private final Counter replayed;
+    private final Counter waited;
+    private final Counter inProgress;
+    private final Counter mismatched;
+    
+    public OrderIdempotencyService(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Dedup hit rate is replayed / (created + replayed)
+        this.created = meterRegistry.counter("orders.idempotency.requests", "outcome", "created");
+        this.replayed = meterRegistry.counter("orders.idempotency.requests", "outcome", "replayed");
+        this.waited = meterRegistry.counter("orders.idempotency.waits");
+        this.inProgress = meterRegistry.counter("orders.idempotency.requests", "outcome", "in-progress");
+        this.mismatched = meterRegistry.counter("orders.idempotency.requests", "outcome", "mismatch");
+    }
+    
+    // Sharded, the key is claimed on the customer's shard so it commits together with the order
+    public Result createOrder(String key, OrderRequest orderRequest) {
+        return orderShards.onCustomerShard(orderRequest.getCustomerId(), () -> claimAndCreate(key, orderRequest));
+    }
+    
+    private Result claimAndCreate(String key, OrderRequest orderRequest) {
+        String fingerprint = fingerprint(orderRequest);
+        long deadline = System.nanoTime() + waitMs * 1_000_000L;
+        boolean counted = false;
+        while (true) {
+            IdempotencyStore.Claim claim = idempotencyStore.claim(key, fingerprint);
+            if (claim.state() != IdempotencyStore.State.CLAIMED && !claim.fingerprint().equals(fingerprint)) {
+                mismatched.increment();
+                throw new IllegalArgumentException("Idempotency-Key was already used for a different order request");
+            }
+            switch (claim.state()) {
+                case CLAIMED:
+                    return new Result(create(key, orderRequest), false);
+                case COMPLETED:
+                    replayed.increment();
+                    return new Result(replay(claim.orderId()), true);
+                default:
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        inProgress.increment();
+                        throw new IllegalStateException("A request with this Idempotency-Key is still being processed");
+                    }
+                    if (!counted) {
+                        waited.increment();
+                        counted = true;
+                    }
+                    idempotencyStore.awaitChange(key, Duration.ofNanos(remaining));
+            }
+        }
+    }
+    
+    private Order create(String key, OrderRequest orderRequest) {
+        try {
+            Order order = transactionTemplate.execute(status -> {
+                Order savedOrder = orderService.createOrder(orderRequest);
+                idempotencyStore.complete(key, savedOrder.getId());
+                return savedOrder;
+            });
+            created.increment();
+            return order;
+        } catch (RuntimeException e) {
+            idempotencyStore.release(key);
+            throw e;
+        }
+    }
+    
+    // Read from the primary: the order may have been created moments ago
+    private Order replay(Long orderId) {
+        return DataSourceRouting.onPrimary(() -> orderService.getOrderWithItems(orderId))
+            .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+    }
+    
+    private String fingerprint(OrderRequest orderRequest) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(orderRequest));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot fingerprint order request", e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.orderms.service;
+
+import com.orderms.event.OrderChangeEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+// Counts committed order changes; rolled-back transactions never reach these counters
+@Service
+public class OrderMetrics {
+    
+    private final MeterRegistry meterRegistry;
+    
+    public OrderMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderChange(OrderChangeEvent event) {
+        meterRegistry.counter("orders.changes", "type", event.type().name()).increment();
+        if (event.type() == OrderChangeEvent.Type.STATUS_CHANGED) {
+            meterRegistry.counter("orders.status.transitions",
+                "from", event.previousStatus().name(),
+                "to", event.status().name()).increment();
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.orderms.service;
+
+import com.orderms.model.OrderOutboxEvent;
+import com.orderms.repository.OrderOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Polls the outbox and publishes committed notifications. Each poll claims a batch with
+// SELECT ... FOR UPDATE SKIP LOCKED, so several instances can relay without double-sending,
+// and marks it IN_FLIGHT for orders.outbox.lease-ms before committing. Publishing happens
+// outside any transaction; a relay that dies mid-publish leaves its rows to be claimed again
+// when the lease runs out, so a notification may be sent twice but is never lost.
+@Service
+public class OrderOutboxRelay {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OrderOutboxRelay.class);
+    
+    @Autowired
+    private OrderOutboxRepository outboxRepository;
+    
+    @Autowired
+    private NotificationService notificationService;
+    
+    @Autowired
+    private OrderShards orderShards;
+    
+    @Value("${orders.outbox.batch-size:100}")
+    private int batchSize;
+    
+    @Value("${orders.outbox.max-attempts:10}")
+    private int maxAttempts;
+    
+    @Value("${orders.outbox.initial-backoff-ms:1000}")
+    private long initialBackoffMs;
+    
+    @Value("${orders.outbox.max-backoff-ms:300000}")
+    private long maxBackoffMs;
+    
+    @Value("${orders.outbox.retention-hours:72}")
+    private long retentionHours;
+    
+    // Longer than publishing a full batch can take, including SNS client timeouts and retries
+    @Value("${orders.outbox.lease-ms:60000}")
+    private long leaseMs;
+    
+    private final TransactionTemplate transactionTemplate;
+    private final Counter delivered;
+    private final Counter superseded;
+    private final Counter retried;
+    private final Counter failed;
+    private final AtomicLong backlog = new AtomicLong();
+    
+    public OrderOutboxRelay(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.delivered = meterRegistry.counter("orders.outbox.delivered");
+        this.superseded = meterRegistry.counter("orders.outbox.superseded");
+        this.retried = meterRegistry.counter("orders.outbox.retried");
+        this.failed = meterRegistry.counter("orders.outbox.failed");
+        meterRegistry.gauge("orders.outbox.pending", backlog);
+    }
+    
+    @Scheduled(fixedDelayString = "${orders.outbox.poll-interval-ms:1000}")
+    public void poll() {
+        // Events are written with their order, so every shard has its own outbox
+        orderShards.forEachShard(shard -> {
+            try {
+                // Keep draining while full batches come back
+                while (relayBatch() == batchSize) {
+                    logger.debug("Outbox backlog remains, relaying next batch");
+                }
+            } catch (Exception e) {
+                logger.error("Outbox relay failed: {}", e.getMessage());
+            }
+        });
+    }
+    
+    @Scheduled(fixedDelayString = "${orders.outbox.cleanup-interval-ms:3600000}")
+    public void cleanup() {
+        LocalDateTime before = LocalDateTime.now().minusHours(retentionHours);
+        int removed = orderShards.mapShards(shard -> transactionTemplate.execute(status ->
+            outboxRepository.deleteByStatusAndDeliveredAtBefore(OrderOutboxEvent.Status.DELIVERED, before) +
+                outboxRepository.deleteByStatusAndCreatedAtBefore(OrderOutboxEvent.Status.SUPERSEDED, before)))
+            .stream().mapToInt(Integer::intValue).sum();
+        if (removed > 0) {
+            logger.info("Removed {} delivered and superseded outbox events", removed);
+        }
+    }
+    
+    // Refreshed on its own schedule so scrapes never query the database
+    @Scheduled(fixedDelayString = "${orders.outbox.backlog-refresh-ms:15000}")
+    public void refreshBacklog() {
+        try {
+            backlog.set(orderShards.scatter(shard -> outboxRepository.countByStatusIn(
+                    List.of(OrderOutboxEvent.Status.PENDING, OrderOutboxEvent.Status.IN_FLIGHT)))
+                .stream().mapToLong(Long::longValue).sum());
+        } catch (Exception e) {
+            logger.warn("Could not count pending outbox events: {}", e.getMessage());
+        }
+    }
+    
+    private int relayBatch() {
+        // 1. Claim: lock due rows, supersede duplicates, lease the rest to this relay and commit
+        LocalDateTime leaseUntil = LocalDateTime.now().plusNanos(leaseMs * 1_000_000L);
+        List<OrderOutboxEvent> toSend = new ArrayList<>();
+        Integer claimed = transactionTemplate.execute(status -> {
+            List<OrderOutboxEvent> batch = outboxRepository.claimPending(LocalDateTime.now(), PageRequest.of(0, batchSize));
+            
+            // Only the newest notification of each type per order is published; it already carries
+            // the latest state. Events of different types (e.g. CREATED, then STATUS_CHANGED) are
+            // all sent. The skipped ones are marked SUPERSEDED, never DELIVERED.
+            Map<List<Object>, OrderOutboxEvent> latest = new LinkedHashMap<>();
+            for (OrderOutboxEvent event : batch) {
+                OrderOutboxEvent previous = latest.put(List.of(event.getOrderId(), event.getEventType()), event);
+                if (previous != null) {
+                    previous.markSuperseded();
+                    superseded.increment();
+                }
+            }
+            for (OrderOutboxEvent event : latest.values()) {
+                event.markInFlight(leaseUntil);
+                toSend.add(event);
+            }
+            return batch.size();
+        });
+        if (toSend.isEmpty()) {
+            return claimed != null ? claimed : 0;
+        }
+        
+        // 2. Publish with no transaction, connection or row lock held
+        Set<Long> failedIds = notificationService.deliver(toSend);
+        
+        // 3. Record the outcomes in a second short transaction
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            for (OrderOutboxEvent event : outboxRepository.findAllById(toSend.stream().map(OrderOutboxEvent::getId).toList())) {
+                if (event.getStatus() != OrderOutboxEvent.Status.IN_FLIGHT) {
+                    // The lease ran out and another relay already settled it
+                    continue;
+                }
+                if (!failedIds.contains(event.getId())) {
+                    event.markDelivered();
+                    delivered.increment();
+                    continue;
+                }
+                event.markFailedAttempt("Publish rejected", now.plusNanos(backoffMs(event.getAttempts()) * 1_000_000L), maxAttempts);
+                if (event.getStatus() == OrderOutboxEvent.Status.FAILED) {
+                    failed.increment();
+                    logger.error("Giving up on outbox event {} for order {} after {} attempts",
+                        event.getId(), event.getOrderId(), event.getAttempts());
+                } else {
+                    retried.increment();
+                }
+            }
+        });
+        return claimed;
+    }
+    
+    private long backoffMs(int attempts) {
+        long ceiling = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempts, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+    }
+}
@@ -0,0 +1,36 @@
+package com.orderms.service;
+
+import com.orderms.dto.OrderSummary;
+import com.orderms.model.Order;
+import com.orderms.model.OrderOutboxEvent;
+import com.orderms.repository.OrderOutboxRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class OrderOutboxService {
+    
+    @Autowired
+    private OrderOutboxRepository outboxRepository;
+    
+    @Autowired
+    private NotificationService notificationService;
+    
+    // Joins the caller's transaction: the outbox row commits or rolls back with the order change.
+    // The message is rendered now so the relay publishes the state as of this change.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OrderOutboxEvent append(Order order, String eventType, String message) {
+        OrderOutboxEvent event = new OrderOutboxEvent(order.getId(), eventType,
+            "Order Update - " + order.getId(), notificationService.createNotificationMessage(order, message));
+        return outboxRepository.save(event);
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OrderOutboxEvent append(OrderSummary order, String eventType, String message) {
+        OrderOutboxEvent event = new OrderOutboxEvent(order.id(), eventType,
+            "Order Update - " + order.id(), notificationService.createNotificationMessage(order, message));
+        return outboxRepository.save(event);
+    }
+}
@@ -0,0 +1,526 @@
+package com.orderms.service;
+
+import com.orderms.config.DataSourceRouting;
+import com.orderms.event.OrderChangeEvent;
+import com.orderms.model.Order;
+import com.orderms.model.OrderItem;
+import com.orderms.repository.OrderRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory n-gram index over customer id, name, email, phone and product names.
+// Substring terms are resolved through trigram postings and verified against the stored
+// document; terms shorter than a trigram match token prefixes. Postings hold int document
+// ordinals in ascending order so candidate sets intersect with a linear merge.
+@Service
+public class OrderSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderSearchIndex.class);
+
+    private static final int GRAM = 3;
+    private static final char PREFIX_MARK = '\u0001';
+    private static final int LOAD_BATCH = 500;
+
+    // Field weights used for ranking
+    private static final int CUSTOMER_ID = 10;
+    private static final int EMAIL = 5;
+    private static final int NAME = 4;
+    private static final int PHONE = 3;
+    private static final int PRODUCT = 2;
+
+    private record Field(String value, int weight, boolean digitsOnly) {}
+
+    private record Document(Long id, List<Field> fields) {}
+
+    private record Hit(Long id, int score) {}
+
+    // Sorted ordinals in the first size slots; may be a posting list's own backing array, so
+    // only valid under the read lock and never written to
+    private record Candidates(int[] ordinals, int size) {
+        static final Candidates EMPTY = new Candidates(new int[0], 0);
+    }
+
+    private static final class Postings {
+        private int[] ordinals = new int[2];
+        private int size;
+
+        void add(int ordinal) {
+            if (size > 0 && ordinals[size - 1] == ordinal) {
+                return;
+            }
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            ordinals[size++] = ordinal;
+        }
+
+        Candidates view() {
+            return new Candidates(ordinals, size);
+        }
+    }
+
+    // Documents are append-only: an update gets a new ordinal and the old slot is nulled,
+    // which keeps postings sorted; dead slots are reclaimed by compaction
+    private static final class Index {
+        private final Map<String, Postings> postings = new HashMap<>();
+        private final List<Document> documents = new ArrayList<>();
+        private final Map<Long, Integer> ordinals = new HashMap<>();
+        private int dead;
+
+        void put(Document document) {
+            remove(document.id());
+            int ordinal = documents.size();
+            documents.add(document);
+            ordinals.put(document.id(), ordinal);
+            for (String gram : grams(document)) {
+                postings.computeIfAbsent(gram, key -> new Postings()).add(ordinal);
+            }
+        }
+
+        void remove(Long id) {
+            Integer ordinal = ordinals.remove(id);
+            if (ordinal != null) {
+                documents.set(ordinal, null);
+                dead++;
+            }
+        }
+
+        int live() {
+            return ordinals.size();
+        }
+
+        Index compact() {
+            Index compacted = new Index();
+            for (Document document : documents) {
+                if (document != null) {
+                    compacted.put(document);
+                }
+            }
+            return compacted;
+        }
+    }
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderShards orderShards;
+
+    @Value("${orders.search.max-results:1000}")
+    private int maxResults;
+
+    @Value("${orders.search.max-candidates:50000}")
+    private int maxCandidates;
+
+    @Value("${orders.search.rebuild-page-size:1000}")
+    private int rebuildPageSize;
+
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Index index = new Index();
+    private volatile boolean ready;
+    private volatile boolean rebuilding;
+
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final ExecutorService indexer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "order-search-indexer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public OrderSearchIndex(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        meterRegistry.gauge("orders.search.pending", pending, Set::size);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        indexer.execute(this::rebuild);
+    }
+
+    // Committed changes are re-read from the database in batches on the indexer thread,
+    // so the index always converges to the stored state regardless of event order
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderChange(OrderChangeEvent event) {
+        if (rebuilding) {
+            changedDuringRebuild.add(event.orderId());
+        }
+        pending.add(event.orderId());
+        if (drainScheduled.compareAndSet(false, true)) {
+            indexer.execute(this::drain);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void requestRebuild() {
+        indexer.execute(this::rebuild);
+    }
+
+    public Map<String, Object> getStats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("ready", ready);
+            stats.put("rebuilding", rebuilding);
+            stats.put("documents", index.live());
+            stats.put("deadSlots", index.dead);
+            stats.put("grams", index.postings.size());
+            stats.put("pendingUpdates", pending.size());
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ranked order ids for the query; at most max-results matches are ranked and paged,
+    // scanning newest documents first and stopping after max-candidates verifications
+    public Page<Long> search(String query, Pageable pageable) {
+        List<String> terms = terms(query);
+        if (terms.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        List<Hit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Candidates candidates = null;
+            for (String term : terms) {
+                Candidates termCandidates = candidates(term);
+                candidates = candidates == null ? termCandidates : intersect(candidates, termCandidates);
+                if (candidates.size() == 0) {
+                    return Page.empty(pageable);
+                }
+            }
+
+            int[] ordinals = candidates.ordinals();
+            int checked = 0;
+            for (int i = candidates.size() - 1; i >= 0 && checked < maxCandidates; i--, checked++) {
+                Document document = index.documents.get(ordinals[i]);
+                if (document == null) {
+                    continue;
+                }
+                int score = score(document, terms);
+                if (score > 0) {
+                    hits.add(new Hit(document.id(), score));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        hits.sort(Comparator.comparingInt(Hit::score).reversed()
+            .thenComparing(Hit::id, Comparator.reverseOrder()));
+        int total = Math.min(hits.size(), maxResults);
+        int from = (int) Math.min(pageable.getOffset(), total);
+        int to = Math.min(from + pageable.getPageSize(), total);
+        List<Long> ids = new ArrayList<>(to - from);
+        for (Hit hit : hits.subList(from, to)) {
+            ids.add(hit.id());
+        }
+        return new PageImpl<>(ids, pageable, total);
+    }
+
+    private void rebuild() {
+        rebuilding = true;
+        changedDuringRebuild.clear();
+        try {
+            long start = System.currentTimeMillis();
+            Index rebuilt = new Index();
+            orderShards.forEachShard(shard -> {
+                Long lastId = 0L;
+                while (true) {
+                    Long after = lastId;
+                    List<Document> page = read(status -> {
+                        List<Order> orders = orderRepository.findPageAfterIdAsc(after, PageRequest.of(0, rebuildPageSize));
+                        if (!orders.isEmpty()) {
+                            // Initializes the page's items in one fetch-join query
+                            orderRepository.findAllWithItemsByIdIn(orders.stream().map(Order::getId).toList());
+                        }
+                        return documents(orders);
+                    });
+                    if (page == null || page.isEmpty()) {
+                        break;
+                    }
+                    for (Document document : page) {
+                        // Skips the old copy of an order whose bucket is being moved
+                        if (orderShards.owns(shard, document.id())) {
+                            rebuilt.put(document);
+                        }
+                    }
+                    lastId = page.get(page.size() - 1).id();
+                }
+            });
+
+            lock.writeLock().lock();
+            try {
+                index = rebuilt;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            ready = true;
+            logger.info("Order search index built: {} orders in {} ms", rebuilt.live(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.error("Failed to build order search index: {}", e.getMessage());
+        } finally {
+            rebuilding = false;
+            // Pages read before a concurrent change may hold its old state
+            pending.addAll(changedDuringRebuild);
+            changedDuringRebuild.clear();
+            drain();
+        }
+    }
+
+    private void drain() {
+        drainScheduled.set(false);
+        try {
+            while (!pending.isEmpty()) {
+                Set<Long> ids = new LinkedHashSet<>();
+                Iterator<Long> iterator = pending.iterator();
+                while (iterator.hasNext() && ids.size() < LOAD_BATCH) {
+                    ids.add(iterator.next());
+                    iterator.remove();
+                }
+                List<Document> loaded = read(status ->
+                    orderShards.byIds(ids, batch -> documents(orderRepository.findAllWithItemsByIdIn(batch))));
+
+                lock.writeLock().lock();
+                try {
+                    for (Document document : loaded) {
+                        index.put(document);
+                        ids.remove(document.id());
+                    }
+                    // Whatever was not found has been deleted
+                    for (Long id : ids) {
+                        index.remove(id);
+                    }
+                    if (index.dead > 10_000 && index.dead > index.live()) {
+                        index = index.compact();
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Failed to update order search index: {}", e.getMessage());
+        }
+    }
+
+    // Reads the primary: the index is refreshed right after commits that a replica may not have yet
+    private List<Document> read(TransactionCallback<List<Document>> callback) {
+        return DataSourceRouting.onPrimary(() -> readOnlyTransaction.execute(callback));
+    }
+
+    private List<Document> documents(List<Order> orders) {
+        List<Document> documents = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            List<Field> fields = new ArrayList<>();
+            addField(fields, order.getCustomerId(), CUSTOMER_ID, false);
+            addField(fields, order.getCustomerEmail(), EMAIL, false);
+            addField(fields, order.getCustomerName(), NAME, false);
+            addField(fields, digits(order.getCustomerPhone()), PHONE, true);
+            for (OrderItem item : order.getItems()) {
+                addField(fields, item.getProductName(), PRODUCT, false);
+            }
+            documents.add(new Document(order.getId(), List.copyOf(fields)));
+        }
+        return documents;
+    }
+
+    private static void addField(List<Field> fields, String value, int weight, boolean digitsOnly) {
+        String normalized = normalize(value);
+        if (!normalized.isEmpty()) {
+            fields.add(new Field(normalized, weight, digitsOnly));
+        }
+    }
+
+    private static Set<String> grams(Document document) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (Field field : document.fields()) {
+            String value = field.value();
+            for (int i = 0; i + GRAM <= value.length(); i++) {
+                grams.add(value.substring(i, i + GRAM));
+            }
+            for (String token : tokens(value)) {
+                for (int length = 1; length < GRAM && length <= token.length(); length++) {
+                    grams.add(PREFIX_MARK + token.substring(0, length));
+                }
+            }
+        }
+        return grams;
+    }
+
+    private Candidates candidates(String term) {
+        if (term.length() < GRAM) {
+            return postings(PREFIX_MARK + term);
+        }
+        Candidates result = termCandidates(term);
+        String digits = digits(term);
+        if (digits.length() >= GRAM && !digits.equals(term)) {
+            result = union(result, termCandidates(digits));
+        }
+        return result;
+    }
+
+    // Rarest grams first, so each intersection is bounded by the smallest list seen so far
+    private Candidates termCandidates(String term) {
+        List<Candidates> grams = new ArrayList<>();
+        for (int i = 0; i + GRAM <= term.length(); i++) {
+            Candidates gram = postings(term.substring(i, i + GRAM));
+            if (gram.size() == 0) {
+                return Candidates.EMPTY;
+            }
+            grams.add(gram);
+        }
+        grams.sort(Comparator.comparingInt(Candidates::size));
+        Candidates result = grams.get(0);
+        for (int i = 1; i < grams.size() && result.size() > 0; i++) {
+            result = intersect(result, grams.get(i));
+        }
+        return result;
+    }
+
+    private Candidates postings(String gram) {
+        Postings postings = index.postings.get(gram);
+        return postings != null ? postings.view() : Candidates.EMPTY;
+    }
+
+    // Every term must match some field; whole-field and whole-word matches outrank
+    // token prefixes, which outrank plain substrings
+    private static int score(Document document, List<String> terms) {
+        int total = 0;
+        for (String term : terms) {
+            String digits = digits(term);
+            int best = 0;
+            for (Field field : document.fields()) {
+                String candidate = field.digitsOnly() ? digits : term;
+                if (candidate.isEmpty()) {
+                    continue;
+                }
+                int match = match(field.value(), candidate);
+                best = Math.max(best, match * field.weight());
+            }
+            if (best == 0) {
+                return 0;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    private static int match(String value, String term) {
+        if (value.equals(term)) {
+            return 4;
+        }
+        int best = 0;
+        int length = term.length();
+        for (int from = value.indexOf(term); from >= 0; from = value.indexOf(term, from + 1)) {
+            boolean wordStart = from == 0 || !Character.isLetterOrDigit(value.charAt(from - 1));
+            if (!wordStart) {
+                best = Math.max(best, length >= GRAM ? 1 : 0);
+                continue;
+            }
+            int end = from + length;
+            if (end == value.length() || !Character.isLetterOrDigit(value.charAt(end))) {
+                return 3;
+            }
+            best = 2;
+        }
+        return best;
+    }
+
+    private static Candidates intersect(Candidates left, Candidates right) {
+        int[] a = left.ordinals(), b = right.ordinals();
+        int aSize = left.size(), bSize = right.size();
+        int[] result = new int[Math.min(aSize, bSize)];
+        int i = 0, j = 0, n = 0;
+        while (i < aSize && j < bSize) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return new Candidates(result, n);
+    }
+
+    private static Candidates union(Candidates left, Candidates right) {
+        int[] a = left.ordinals(), b = right.ordinals();
+        int aSize = left.size(), bSize = right.size();
+        int[] result = new int[aSize + bSize];
+        int i = 0, j = 0, n = 0;
+        while (i < aSize || j < bSize) {
+            if (j == bSize || (i < aSize && a[i] < b[j])) {
+                result[n++] = a[i++];
+            } else if (i == aSize || b[j] < a[i]) {
+                result[n++] = b[j++];
+            } else {
+                result[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return new Candidates(result, n);
+    }
+
+    private static List<String> terms(String query) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(new LinkedHashSet<>(Arrays.asList(normalized.split("\\s+"))));
+    }
+
+    private static List<String> tokens(String value) {
+        return Arrays.asList(value.split("[^\\p{L}\\p{N}]+"));
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String digits(String value) {
+        return value == null ? "" : value.replaceAll("\\D", "");
+    }
+}
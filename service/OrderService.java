@@ -1,20 +1,44 @@
 package com.orderms.service;
 
+import com.orderms.dto.OrderCursor;
+import com.orderms.dto.OrderDetail;
+import com.orderms.dto.OrderPatchRequest;
 import com.orderms.dto.OrderRequest;
+import com.orderms.dto.OrderSummary;
+import com.orderms.event.OrderChangeEvent;
 import com.orderms.model.Order;
 import com.orderms.model.OrderItem;
 import com.orderms.model.OrderStatus;
 import com.orderms.repository.OrderRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "orders.service", histogram = true)
 @Transactional
 public class OrderService {
     
@@ -22,120 +46,468 @@ public class OrderService {
     private OrderRepository orderRepository;
     
     @Autowired
-    private NotificationService notificationService;
+    private OrderOutboxService orderOutboxService;
+    
+    @Autowired
+    private OrderStatsService orderStatsService;
+    
+    @Autowired
+    private OrderAnalyticsService orderAnalyticsService;
+    
+    @Autowired
+    private CustomerSummaryService customerSummaryService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private OrderSearchIndex orderSearchIndex;
+    
+    @Autowired
+    private OrderShards orderShards;
     
     public Order createOrder(OrderRequest orderRequest) {
-        Order order = new Order();
-        order.setCustomerId(orderRequest.getCustomerId());
-        order.setCustomerName(orderRequest.getCustomerName());
-        order.setCustomerEmail(orderRequest.getCustomerEmail());
-        order.setCustomerPhone(orderRequest.getCustomerPhone());
-        order.setDeliveryAddress(orderRequest.getDeliveryAddress());
-        order.setOrderNotes(orderRequest.getOrderNotes());
-        
-        // Add items
-        for (OrderRequest.OrderItemRequest itemRequest : orderRequest.getItems()) {
-            OrderItem item = new OrderItem();
-            item.setProductName(itemRequest.getProductName());
-            item.setProductDescription(itemRequest.getProductDescription());
-            item.setQuantity(itemRequest.getQuantity());
-            item.setPrice(itemRequest.getPrice());
-            item.setCategory(itemRequest.getCategory());
-            order.addItem(item);
-        }
+        orderShards.routeToCustomer(orderRequest.getCustomerId());
+        Order order = buildOrder(orderRequest);
         
         Order savedOrder = orderRepository.save(order);
+        orderStatsService.recordCreated(savedOrder.getStatus(), savedOrder.getTotalAmount());
+        orderAnalyticsService.recordCreated(savedOrder);
+        customerSummaryService.recordCreated(savedOrder);
+        eventPublisher.publishEvent(OrderChangeEvent.created(savedOrder));
         
-        // Send notification asynchronously
-        notificationService.sendOrderNotification(savedOrder, "New order placed successfully!");
+        // Notification is recorded in the outbox and published by the relay after commit
+        orderOutboxService.append(savedOrder, "CREATED", "New order placed successfully!");
         
         return savedOrder;
     }
     
+    @Transactional(readOnly = true)
     public Page<Order> getAllOrders(Pageable pageable) {
-        return orderRepository.findAll(pageable);
+        Page<Order> page = orderShards.gatherPage(pageable, orderRepository::findAll, Order::getId,
+            OrderShards.comparator(pageable.getSort()));
+        return new PageImpl<>(withItems(page.getContent()), page.getPageable(), page.getTotalElements());
+    }
+    
+    @Transactional(readOnly = true)
+    public Slice<Order> getOrdersAfter(String sortBy, boolean descending, OrderCursor cursor, int size) {
+        if (!OrderCursor.SORT_KEYS.contains(sortBy)) {
+            throw new IllegalArgumentException("Cursor paging is not supported for sort field: " + sortBy);
+        }
+        if (cursor != null && (!cursor.getSortBy().equals(sortBy) || cursor.isDescending() != descending)) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort order");
+        }
+        
+        // Fetch one extra row to know whether another page exists; every shard returns its own
+        // next rows and the merge keeps the first of them
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        List<Order> rows = orderShards.gather(shard -> seek(sortBy, descending, cursor, size + 1), Order::getId,
+            OrderShards.comparator(Sort.by(direction, sortBy, "id")));
+        
+        boolean hasNext = rows.size() > size;
+        List<Order> content = hasNext ? rows.subList(0, size) : rows;
+        return new SliceImpl<>(withItems(content), PageRequest.of(0, size), hasNext);
     }
     
+    private List<Order> seek(String sortBy, boolean descending, OrderCursor cursor, int limit) {
+        Pageable first = PageRequest.of(0, limit);
+        if (cursor == null) {
+            Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+            return orderRepository.findAllBy(PageRequest.of(0, limit, Sort.by(direction, sortBy, "id")));
+        } else if ("createdAt".equals(sortBy)) {
+            return descending
+                ? orderRepository.findPageAfterCreatedAtDesc(cursor.getCreatedAt(), cursor.getId(), first)
+                : orderRepository.findPageAfterCreatedAtAsc(cursor.getCreatedAt(), cursor.getId(), first);
+        } else if ("totalAmount".equals(sortBy)) {
+            return descending
+                ? orderRepository.findPageAfterTotalAmountDesc(cursor.getTotalAmount(), cursor.getId(), first)
+                : orderRepository.findPageAfterTotalAmountAsc(cursor.getTotalAmount(), cursor.getId(), first);
+        }
+        return descending
+            ? orderRepository.findPageAfterIdDesc(cursor.getId(), first)
+            : orderRepository.findPageAfterIdAsc(cursor.getId(), first);
+    }
+    
+    @Transactional(readOnly = true)
     public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+        return orderShards.gather(shard -> orderRepository.findAll(), Order::getId, Comparator.comparing(Order::getId));
     }
     
+    @Transactional(readOnly = true)
     public Optional<Order> getOrderById(Long id) {
+        orderShards.routeToOrder(id);
         return orderRepository.findById(id);
     }
     
+    @Transactional(readOnly = true)
+    public Optional<Order> getOrderWithItems(Long id) {
+        orderShards.routeToOrder(id);
+        return Optional.ofNullable(orderRepository.findByIdWithItems(id));
+    }
+    
+    @Transactional(readOnly = true)
     public List<Order> getOrdersByCustomerId(String customerId) {
+        orderShards.routeToCustomer(customerId);
         return orderRepository.findByCustomerId(customerId);
     }
     
+    @Transactional(readOnly = true)
     public List<Order> getOrdersByStatus(OrderStatus status) {
-        return orderRepository.findByStatus(status);
+        return orderShards.gather(shard -> orderRepository.findByStatus(status), Order::getId,
+            Comparator.comparing(Order::getId));
     }
     
-    public Order updateOrderStatus(Long orderId, OrderStatus newStatus) {
-        Optional<Order> orderOpt = orderRepository.findById(orderId);
-        if (orderOpt.isPresent()) {
-            Order order = orderOpt.get();
-            OrderStatus oldStatus = order.getStatus();
-            order.setStatus(newStatus);
-            Order updatedOrder = orderRepository.save(order);
-            
-            // Send status update notification
-            String message = String.format("Order status updated from %s to %s", 
-                oldStatus.getDisplayName(), newStatus.getDisplayName());
-            notificationService.sendOrderNotification(updatedOrder, message);
-            
-            return updatedOrder;
+    // Reads only the current status and applies the change with a conditional UPDATE, so the
+    // order and its items are never loaded. Repeating a transition (a retried request, or two
+    // scanners reporting the same step) is a no-op without a second event or notification.
+    public OrderSummary updateOrderStatus(Long orderId, OrderStatus newStatus) {
+        orderShards.routeToOrder(orderId);
+        OrderStatus oldStatus = orderRepository.findStatusById(orderId)
+            .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+        if (oldStatus == newStatus) {
+            return getOrderSummary(orderId);
+        }
+        if (!oldStatus.canTransitionTo(newStatus)) {
+            throw new IllegalStateException(String.format("Order %d cannot move from %s to %s",
+                orderId, oldStatus, newStatus));
         }
-        throw new RuntimeException("Order not found with id: " + orderId);
+        if (orderRepository.updateStatusIfCurrent(orderId, oldStatus, newStatus, LocalDateTime.now()) == 0) {
+            // Another transaction moved the order first; only a race to the same status is harmless
+            OrderStatus current = orderRepository.findStatusById(orderId)
+                .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+            if (current == newStatus) {
+                return getOrderSummary(orderId);
+            }
+            throw new OptimisticLockingFailureException(String.format(
+                "Order %d was changed to %s concurrently", orderId, current));
+        }
+        
+        OrderSummary updatedOrder = getOrderSummary(orderId);
+        orderStatsService.recordStatusChanged(oldStatus, newStatus, updatedOrder.totalAmount());
+        orderAnalyticsService.recordStatusChanged(updatedOrder, oldStatus);
+        customerSummaryService.recordStatusChanged(updatedOrder.customerId(), oldStatus, newStatus, updatedOrder.totalAmount());
+        eventPublisher.publishEvent(OrderChangeEvent.statusChanged(updatedOrder, oldStatus));
+        
+        // Send status update notification
+        String message = String.format("Order status updated from %s to %s", 
+            oldStatus.getDisplayName(), newStatus.getDisplayName());
+        orderOutboxService.append(updatedOrder, "STATUS_CHANGED", message);
+        
+        return updatedOrder;
     }
     
+    // Full replacement, applied as a diff: items are matched by id and updated in place, items
+    // without an id are inserted and items missing from the request are deleted. Unchanged rows
+    // are not written at all, and a request that changes nothing publishes nothing.
     public Order updateOrder(Long orderId, OrderRequest orderRequest) {
-        Optional<Order> orderOpt = orderRepository.findById(orderId);
-        if (orderOpt.isPresent()) {
-            Order order = orderOpt.get();
-            
-            // Update order details
-            order.setCustomerName(orderRequest.getCustomerName());
-            order.setCustomerEmail(orderRequest.getCustomerEmail());
-            order.setCustomerPhone(orderRequest.getCustomerPhone());
-            order.setDeliveryAddress(orderRequest.getDeliveryAddress());
-            order.setOrderNotes(orderRequest.getOrderNotes());
-            
-            // Clear existing items and add new ones
-            order.getItems().clear();
-            for (OrderRequest.OrderItemRequest itemRequest : orderRequest.getItems()) {
-                OrderItem item = new OrderItem();
-                item.setProductName(itemRequest.getProductName());
-                item.setProductDescription(itemRequest.getProductDescription());
-                item.setQuantity(itemRequest.getQuantity());
-                item.setPrice(itemRequest.getPrice());
-                item.setCategory(itemRequest.getCategory());
-                order.addItem(item);
+        Order order = getOrderForUpdate(orderId);
+        Double oldAmount = order.getTotalAmount();
+        OrderAnalyticsService.Contribution before = OrderAnalyticsService.Contribution.of(order);
+        
+        boolean changed = set(order.getCustomerName(), orderRequest.getCustomerName(), order::setCustomerName);
+        changed |= set(order.getCustomerEmail(), orderRequest.getCustomerEmail(), order::setCustomerEmail);
+        changed |= set(order.getCustomerPhone(), orderRequest.getCustomerPhone(), order::setCustomerPhone);
+        changed |= set(order.getDeliveryAddress(), orderRequest.getDeliveryAddress(), order::setDeliveryAddress);
+        changed |= set(order.getOrderNotes(), orderRequest.getOrderNotes(), order::setOrderNotes);
+        
+        Map<Long, OrderItem> existing = itemsById(order);
+        Set<Long> kept = new HashSet<>();
+        for (OrderRequest.OrderItemRequest itemRequest : orderRequest.getItems()) {
+            if (itemRequest.getId() == null) {
+                order.addItem(buildItem(itemRequest));
+                changed = true;
+                continue;
             }
-            
-            Order updatedOrder = orderRepository.save(order);
-            notificationService.sendOrderNotification(updatedOrder, "Order updated successfully!");
-            
-            return updatedOrder;
+            OrderItem item = existingItem(order, existing, itemRequest.getId(), kept);
+            changed |= set(item.getProductName(), itemRequest.getProductName(), item::setProductName);
+            changed |= set(item.getProductDescription(), itemRequest.getProductDescription(), item::setProductDescription);
+            changed |= set(item.getQuantity(), itemRequest.getQuantity(), item::setQuantity);
+            changed |= set(item.getPrice(), itemRequest.getPrice(), item::setPrice);
+            changed |= set(item.getCategory(), itemRequest.getCategory(), item::setCategory);
+        }
+        for (OrderItem item : existing.values()) {
+            if (!kept.contains(item.getId())) {
+                order.removeItem(item);
+                changed = true;
+            }
+        }
+        
+        return completeUpdate(order, oldAmount, before, changed);
+    }
+    
+    // Partial update: only the fields and items present in the patch are touched
+    public Order patchOrder(Long orderId, OrderPatchRequest patch) {
+        Order order = getOrderForUpdate(orderId);
+        Double oldAmount = order.getTotalAmount();
+        OrderAnalyticsService.Contribution before = OrderAnalyticsService.Contribution.of(order);
+        
+        if (patch.getCustomerName() != null && patch.getCustomerName().isBlank()) {
+            throw new IllegalArgumentException("Customer name cannot be blank");
+        }
+        boolean changed = patch(order.getCustomerName(), patch.getCustomerName(), order::setCustomerName);
+        changed |= patch(order.getCustomerEmail(), patch.getCustomerEmail(), order::setCustomerEmail);
+        changed |= patch(order.getCustomerPhone(), patch.getCustomerPhone(), order::setCustomerPhone);
+        changed |= patch(order.getDeliveryAddress(), patch.getDeliveryAddress(), order::setDeliveryAddress);
+        changed |= patch(order.getOrderNotes(), patch.getOrderNotes(), order::setOrderNotes);
+        
+        Map<Long, OrderItem> existing = itemsById(order);
+        Set<Long> touched = new HashSet<>();
+        if (patch.getRemovedItemIds() != null) {
+            for (Long itemId : patch.getRemovedItemIds()) {
+                order.removeItem(existingItem(order, existing, itemId, touched));
+                changed = true;
+            }
+        }
+        if (patch.getItems() != null) {
+            for (OrderPatchRequest.OrderItemPatch itemPatch : patch.getItems()) {
+                if (itemPatch.getId() == null) {
+                    order.addItem(buildItem(itemPatch));
+                    changed = true;
+                    continue;
+                }
+                OrderItem item = existingItem(order, existing, itemPatch.getId(), touched);
+                changed |= patch(item.getProductName(), itemPatch.getProductName(), item::setProductName);
+                changed |= patch(item.getProductDescription(), itemPatch.getProductDescription(), item::setProductDescription);
+                changed |= patch(item.getQuantity(), itemPatch.getQuantity(), item::setQuantity);
+                changed |= patch(item.getPrice(), itemPatch.getPrice(), item::setPrice);
+                changed |= patch(item.getCategory(), itemPatch.getCategory(), item::setCategory);
+            }
+        }
+        if (order.getItems().isEmpty()) {
+            throw new IllegalArgumentException("Order items are required");
+        }
+        
+        return completeUpdate(order, oldAmount, before, changed);
+    }
+    
+    private Order getOrderForUpdate(Long orderId) {
+        orderShards.routeToOrder(orderId);
+        // Items are always diffed, so load them with the order in one query
+        Order order = orderRepository.findByIdWithItems(orderId);
+        if (order == null) {
+            throw new RuntimeException("Order not found with id: " + orderId);
         }
-        throw new RuntimeException("Order not found with id: " + orderId);
+        return order;
+    }
+    
+    private Order completeUpdate(Order order, Double oldAmount, OrderAnalyticsService.Contribution before,
+                                 boolean changed) {
+        if (!changed) {
+            return order;
+        }
+        // Computed once per update; dirty checking skips the column if the sum is unchanged
+        order.calculateTotalAmount();
+        // Also bumps the version when only items changed, so concurrent edits still conflict
+        order.setUpdatedAt(LocalDateTime.now());
+        
+        orderStatsService.recordAmountChanged(order.getStatus(), oldAmount, order.getTotalAmount());
+        orderAnalyticsService.recordUpdated(before, order);
+        customerSummaryService.recordAmountChanged(order.getCustomerId(), order.getStatus(), oldAmount, order.getTotalAmount());
+        eventPublisher.publishEvent(OrderChangeEvent.updated(order, oldAmount));
+        orderOutboxService.append(order, "UPDATED", "Order updated successfully!");
+        return order;
+    }
+    
+    private static Map<Long, OrderItem> itemsById(Order order) {
+        Map<Long, OrderItem> items = new LinkedHashMap<>();
+        for (OrderItem item : order.getItems()) {
+            items.put(item.getId(), item);
+        }
+        return items;
+    }
+    
+    private static OrderItem existingItem(Order order, Map<Long, OrderItem> items, Long itemId, Set<Long> seen) {
+        OrderItem item = items.get(itemId);
+        if (item == null) {
+            throw new IllegalArgumentException(String.format("Order %d has no item %d", order.getId(), itemId));
+        }
+        if (!seen.add(itemId)) {
+            throw new IllegalArgumentException(String.format("Item %d appears more than once", itemId));
+        }
+        return item;
+    }
+    
+    private static <T> boolean set(T current, T value, Consumer<T> setter) {
+        if (Objects.equals(current, value)) {
+            return false;
+        }
+        setter.accept(value);
+        return true;
+    }
+    
+    private static <T> boolean patch(T current, T value, Consumer<T> setter) {
+        return value != null && set(current, value, setter);
     }
     
     public void deleteOrder(Long orderId) {
-        if (orderRepository.existsById(orderId)) {
-            orderRepository.deleteById(orderId);
+        orderShards.routeToOrder(orderId);
+        Optional<Order> orderOpt = orderRepository.findById(orderId);
+        if (orderOpt.isPresent()) {
+            Order order = orderOpt.get();
+            OrderChangeEvent event = OrderChangeEvent.deleted(order);
+            orderRepository.delete(order);
+            orderStatsService.recordDeleted(order.getStatus(), order.getTotalAmount());
+            orderAnalyticsService.recordDeleted(order);
+            customerSummaryService.recordDeleted(order);
+            eventPublisher.publishEvent(event);
         } else {
             throw new RuntimeException("Order not found with id: " + orderId);
         }
     }
     
+    @Transactional(readOnly = true)
     public long getTotalOrderCount() {
-        return orderRepository.count();
+        return orderShards.scatter(shard -> orderRepository.count()).stream().mapToLong(Long::longValue).sum();
+    }
+    
+    // Ranked matches from the search index, loaded for the requested page only
+    @Transactional(readOnly = true)
+    public Page<Order> searchOrders(String searchTerm, Pageable pageable) {
+        Page<Long> ids = searchIds(searchTerm, pageable);
+        if (ids.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        Map<Long, Order> orders = orderShards.byIds(ids.getContent(), orderRepository::findAllWithItemsByIdIn).stream()
+            .collect(Collectors.toMap(Order::getId, Function.identity()));
+        return inRankOrder(ids, orders);
+    }
+    
+    // Read model: projections selected straight into DTOs in read-only transactions
+    @Transactional(readOnly = true)
+    public Optional<OrderDetail> getOrderDetail(Long id) {
+        orderShards.routeToOrder(id);
+        return orderRepository.findSummaryById(id)
+            .map(summary -> OrderDetail.of(summary, orderRepository.findItemViewsByOrderId(id)));
+    }
+    
+    @Transactional(readOnly = true)
+    public Page<OrderSummary> getOrderSummaries(Pageable pageable) {
+        return orderShards.gatherPage(pageable, orderRepository::findSummaries, OrderSummary::id,
+            OrderShards.comparator(pageable.getSort()));
+    }
+    
+    @Transactional(readOnly = true)
+    public List<OrderSummary> getAllOrderSummaries() {
+        return orderShards.gather(shard -> orderRepository.findAllSummaries(), OrderSummary::id,
+            Comparator.comparing(OrderSummary::id));
+    }
+    
+    @Transactional(readOnly = true)
+    public List<OrderSummary> getOrderSummariesByCustomerId(String customerId) {
+        orderShards.routeToCustomer(customerId);
+        return orderRepository.findSummariesByCustomerId(customerId);
+    }
+    
+    // One bounded index range per page however many orders the customer has
+    @Transactional(readOnly = true)
+    public Slice<OrderSummary> getRecentOrderSummaries(String customerId, OrderCursor cursor, int size) {
+        if (cursor != null && (!"createdAt".equals(cursor.getSortBy()) || !cursor.isDescending())) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort order");
+        }
+        orderShards.routeToCustomer(customerId);
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<OrderSummary> rows = cursor == null
+            ? orderRepository.findRecentSummariesByCustomerId(customerId, limit)
+            : orderRepository.findRecentSummariesByCustomerIdBefore(customerId, cursor.getCreatedAt(), cursor.getId(), limit);
+        boolean hasNext = rows.size() > size;
+        return new SliceImpl<>(hasNext ? rows.subList(0, size) : rows, PageRequest.of(0, size), hasNext);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<OrderSummary> getOrderSummariesByStatus(OrderStatus status) {
+        return orderShards.gather(shard -> orderRepository.findSummariesByStatus(status), OrderSummary::id,
+            Comparator.comparing(OrderSummary::id));
     }
     
-    public List<Order> searchOrders(String searchTerm) {
-        return orderRepository.findByCustomerNameContainingIgnoreCaseOrCustomerEmailContainingIgnoreCase(
-            searchTerm, searchTerm);
+    @Transactional(readOnly = true)
+    public Page<OrderSummary> searchOrderSummaries(String searchTerm, Pageable pageable) {
+        Page<Long> ids = searchIds(searchTerm, pageable);
+        if (ids.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        Map<Long, OrderSummary> summaries = orderShards.byIds(ids.getContent(), orderRepository::findSummariesByIdIn).stream()
+            .collect(Collectors.toMap(OrderSummary::id, Function.identity()));
+        return inRankOrder(ids, summaries);
+    }
+    
+    static Order buildOrder(OrderRequest orderRequest) {
+        Order order = new Order();
+        order.setCustomerId(orderRequest.getCustomerId());
+        if (orderRequest.getCustomerId() != null) {
+            order.setShardBucket(OrderShards.bucketOf(orderRequest.getCustomerId()));
+        }
+        order.setCustomerName(orderRequest.getCustomerName());
+        order.setCustomerEmail(orderRequest.getCustomerEmail());
+        order.setCustomerPhone(orderRequest.getCustomerPhone());
+        order.setDeliveryAddress(orderRequest.getDeliveryAddress());
+        order.setOrderNotes(orderRequest.getOrderNotes());
+        
+        // Add items
+        for (OrderRequest.OrderItemRequest itemRequest : orderRequest.getItems()) {
+            order.addItem(buildItem(itemRequest));
+        }
+        return order;
+    }
+    
+    static OrderItem buildItem(OrderPatchRequest.OrderItemPatch itemPatch) {
+        if (itemPatch.getProductName() == null || itemPatch.getProductName().isBlank()
+                || itemPatch.getQuantity() == null || itemPatch.getPrice() == null) {
+            throw new IllegalArgumentException("New items need a product name, quantity and price");
+        }
+        OrderItem item = new OrderItem();
+        item.setProductName(itemPatch.getProductName());
+        item.setProductDescription(itemPatch.getProductDescription());
+        item.setQuantity(itemPatch.getQuantity());
+        item.setPrice(itemPatch.getPrice());
+        item.setCategory(itemPatch.getCategory());
+        return item;
+    }
+    
+    static OrderItem buildItem(OrderRequest.OrderItemRequest itemRequest) {
+        OrderItem item = new OrderItem();
+        item.setProductName(itemRequest.getProductName());
+        item.setProductDescription(itemRequest.getProductDescription());
+        item.setQuantity(itemRequest.getQuantity());
+        item.setPrice(itemRequest.getPrice());
+        item.setCategory(itemRequest.getCategory());
+        return item;
+    }
+    
+    private OrderSummary getOrderSummary(Long orderId) {
+        return orderRepository.findSummaryById(orderId)
+            .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+    }
+    
+    private Page<Long> searchIds(String searchTerm, Pageable pageable) {
+        if (orderSearchIndex.isReady()) {
+            return orderSearchIndex.search(searchTerm, pageable);
+        }
+        return orderShards.gatherPage(pageable, page -> orderRepository.searchIds(searchTerm.trim(), page),
+            Long::longValue, Comparator.reverseOrder());
+    }
+    
+    // Orders deleted since the index lookup are skipped
+    private static <T> Page<T> inRankOrder(Page<Long> ids, Map<Long, T> rows) {
+        List<T> content = ids.getContent().stream()
+            .map(rows::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+        return new PageImpl<>(content, ids.getPageable(), ids.getTotalElements());
+    }
+    
+    // Initialize the items of a page of orders with one fetch-join query per shard instead of
+    // one lazy SELECT per order during serialization. Unsharded the orders are still managed and
+    // come back as the same instances; orders deleted in the meantime are dropped.
+    private List<Order> withItems(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return orders;
+        }
+        List<Long> ids = orders.stream().map(Order::getId).collect(Collectors.toList());
+        Map<Long, Order> loaded = orderShards.byIds(ids, orderRepository::findAllWithItemsByIdIn).stream()
+            .collect(Collectors.toMap(Order::getId, Function.identity()));
+        return orders.stream()
+            .map(order -> loaded.get(order.getId()))
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
     }
 }
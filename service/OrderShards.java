@@ -0,0 +1,495 @@
+package com.orderms.service;
+
+import com.orderms.config.ReplicaRoutingDataSource;
+import com.orderms.config.ShardContext;
+import com.orderms.config.ShardRoutingDataSource;
+import com.orderms.model.OrderIdGenerator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+
+// Places orders on shards by customer. A customer hashes to one of 1024 logical buckets and the
+// bucket map (order_shard_buckets on the home shard) says which shard holds each bucket, so
+// rebalancing moves whole buckets without rehashing anyone. Order ids carry their bucket, so an
+// order is found from its id alone. Everything that is not about one order or one customer runs
+// on every shard in parallel and the results are merged here.
+//
+// Unsharded (the default) there is a single shard: routing is a no-op and every query runs
+// inline in the caller's transaction exactly as before.
+@Service
+public class OrderShards {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderShards.class);
+
+    private static final Map<String, Method> ACCESSORS = new ConcurrentHashMap<>();
+
+    private final boolean enabled;
+    private final int shardCount;
+    private final ShardRing ring;
+    private final JdbcTemplate jdbcTemplate;
+    private final List<DataSource> primaries;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ExecutorService scatterPool;
+    private final long queryTimeoutMs;
+    private final int maxMergeRows;
+    private final Timer scatterLatency;
+
+    // Replaced as a whole on every change, never modified in place
+    private volatile int[] owners = new int[OrderIdGenerator.BUCKETS];
+    private volatile boolean[] moving = new boolean[OrderIdGenerator.BUCKETS];
+
+    public OrderShards(DataSource dataSource,
+                       ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${orders.sharding.enabled:false}") boolean enabled,
+                       @Value("${orders.sharding.node-id:0}") int nodeId,
+                       @Value("${orders.sharding.virtual-nodes:64}") int virtualNodes,
+                       @Value("${orders.sharding.scatter-threads:16}") int scatterThreads,
+                       @Value("${orders.sharding.query-timeout-ms:10000}") long queryTimeoutMs,
+                       @Value("${orders.sharding.max-merge-rows:10000}") int maxMergeRows) {
+        ShardRoutingDataSource routing = shardRoutingDataSource.getIfAvailable();
+        if (enabled && routing == null) {
+            throw new IllegalStateException("Sharding is enabled but no shard datasource is configured");
+        }
+        this.enabled = enabled;
+        this.shardCount = enabled ? routing.getShardCount() : 1;
+        this.ring = new ShardRing(shardCount, virtualNodes);
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.primaries = enabled
+            ? IntStream.range(0, shardCount).<DataSource>mapToObj(routing::getShard).toList()
+            : List.of(primaryOf(dataSource));
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.queryTimeoutMs = queryTimeoutMs;
+        this.maxMergeRows = maxMergeRows;
+        this.scatterLatency = Timer.builder("orders.sharding.scatter.latency")
+            .description("Time for a query to complete on every shard")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+
+        if (enabled) {
+            OrderIdGenerator.enableSharding(nodeId);
+            loadBuckets(true);
+            AtomicInteger threads = new AtomicInteger();
+            this.scatterPool = Executors.newFixedThreadPool(scatterThreads, runnable -> {
+                Thread thread = new Thread(runnable, "order-shard-query-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.scatterPool = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    // Each shard's write pool, for work that manages its own connections outside the routing proxies
+    public List<DataSource> getPrimaryDataSources() {
+        return primaries;
+    }
+
+    public static int bucketOf(String customerId) {
+        CRC32 crc = new CRC32();
+        crc.update(customerId.getBytes(StandardCharsets.UTF_8));
+        return (int) (crc.getValue() % OrderIdGenerator.BUCKETS);
+    }
+
+    public int shardOfCustomer(String customerId) {
+        return enabled ? owners[bucketOf(customerId)] : 0;
+    }
+
+    public int shardOfOrder(long orderId) {
+        return enabled ? owners[OrderIdGenerator.bucketOf(orderId)] : 0;
+    }
+
+    // False for the stale copy of an order left on its old shard while its bucket is moved
+    public boolean owns(int shard, long orderId) {
+        return shardOfOrder(orderId) == shard;
+    }
+
+    // Whether maintenance jobs may rewrite or remove the order's row on this shard
+    public boolean isSettled(int shard, long orderId) {
+        return owns(shard, orderId) && !moving[OrderIdGenerator.bucketOf(orderId)];
+    }
+
+    // Bind the current transaction to the shard holding an order or a customer. Called before the
+    // first statement; writes to a bucket that is being moved are refused until the move is done.
+    public void routeToOrder(Long orderId) {
+        if (enabled) {
+            route(OrderIdGenerator.bucketOf(orderId));
+        }
+    }
+
+    public void routeToOrders(Collection<Long> orderIds) {
+        if (enabled) {
+            for (Long orderId : orderIds) {
+                route(OrderIdGenerator.bucketOf(orderId));
+            }
+        }
+    }
+
+    public void routeToCustomer(String customerId) {
+        if (enabled) {
+            route(bucketOf(customerId));
+        }
+    }
+
+    public <T> T onShard(int shard, Supplier<T> work) {
+        return ShardContext.onShard(shard, work);
+    }
+
+    // For work spanning several transactions that must all land with the customer's orders
+    public <T> T onCustomerShard(String customerId, Supplier<T> work) {
+        return enabled ? onShard(shardOfCustomer(customerId), work) : work.get();
+    }
+
+    // Sequentially, in the calling thread, for writes and maintenance jobs
+    public void forEachShard(IntConsumer work) {
+        for (int shard = 0; shard < shardCount; shard++) {
+            int current = shard;
+            onShard(shard, () -> {
+                work.accept(current);
+                return null;
+            });
+        }
+    }
+
+    public <T> List<T> mapShards(IntFunction<T> work) {
+        List<T> results = new ArrayList<>(shardCount);
+        forEachShard(shard -> results.add(work.apply(shard)));
+        return results;
+    }
+
+    // Runs a read on every shard in parallel, each in its own read-only transaction, and returns
+    // the results by shard. A single shard runs inline in the caller's transaction.
+    public <T> List<T> scatter(IntFunction<T> query) {
+        return scatter(IntStream.range(0, shardCount).boxed().toList(), query);
+    }
+
+    // Rows from every shard in the given order, without the copies of a bucket being moved
+    public <T> List<T> gather(IntFunction<List<T>> query, ToLongFunction<T> id, Comparator<? super T> order) {
+        if (shardCount == 1) {
+            return query.apply(0);
+        }
+        return merge(scatter(query), id, order);
+    }
+
+    // Offset paging over all shards: every shard returns its first offset + size rows and the
+    // merged page is cut from those, so the cost grows with the page number
+    public <T> Page<T> gatherPage(Pageable pageable, Function<Pageable, Page<T>> query, ToLongFunction<T> id,
+                                  Comparator<? super T> order) {
+        if (shardCount == 1) {
+            return query.apply(pageable);
+        }
+        long end = pageable.getOffset() + pageable.getPageSize();
+        if (end > maxMergeRows) {
+            throw new IllegalArgumentException("Pages beyond the first " + maxMergeRows +
+                " orders are not available with offset paging; use cursor paging instead");
+        }
+        Pageable top = PageRequest.of(0, (int) end, pageable.getSort());
+        List<Page<T>> pages = scatter(shard -> query.apply(top));
+        long total = 0;
+        List<List<T>> results = new ArrayList<>(pages.size());
+        for (Page<T> page : pages) {
+            total += page.getTotalElements();
+            results.add(page.getContent());
+        }
+        List<T> rows = merge(results, id, order);
+        List<T> content = rows.subList((int) Math.min(pageable.getOffset(), rows.size()), (int) Math.min(end, rows.size()));
+        return new PageImpl<>(new ArrayList<>(content), pageable, total);
+    }
+
+    // Loads orders by id, asking only the shards that hold them
+    public <T> List<T> byIds(Collection<Long> ids, Function<List<Long>, List<T>> loader) {
+        if (shardCount == 1) {
+            return loader.apply(new ArrayList<>(ids));
+        }
+        Map<Integer, List<Long>> byShard = ids.stream()
+            .collect(Collectors.groupingBy(this::shardOfOrder, TreeMap::new, Collectors.toList()));
+        List<Integer> shards = new ArrayList<>(byShard.keySet());
+        List<T> rows = new ArrayList<>();
+        scatter(shards, shard -> loader.apply(byShard.get(shard))).forEach(rows::addAll);
+        return rows;
+    }
+
+    // Keeps the input order within each shard's group
+    public <T> Map<Integer, List<T>> groupByShard(List<T> items, ToLongFunction<T> orderId) {
+        if (shardCount == 1) {
+            return Map.of(0, items);
+        }
+        return items.stream().collect(Collectors.groupingBy(item -> shardOfOrder(orderId.applyAsLong(item)),
+            TreeMap::new, Collectors.toList()));
+    }
+
+    public <T> Map<Integer, List<T>> groupByCustomerShard(List<T> items, Function<T, String> customerId) {
+        if (shardCount == 1) {
+            return Map.of(0, items);
+        }
+        return items.stream().collect(Collectors.groupingBy(item -> shardOfCustomer(customerId.apply(item)),
+            TreeMap::new, Collectors.toList()));
+    }
+
+    // Java-side equivalent of an ORDER BY on entity or projection properties, id breaking ties
+    public static <T> Comparator<T> comparator(Sort sort) {
+        Comparator<T> comparator = (a, b) -> 0;
+        boolean hasId = false;
+        for (Sort.Order order : sort) {
+            hasId |= "id".equals(order.getProperty());
+            Comparator<T> byProperty = Comparator.comparing(row -> sortKey(row, order.getProperty()),
+                Comparator.nullsFirst(Comparator.naturalOrder()));
+            comparator = comparator.thenComparing(order.isDescending() ? byProperty.reversed() : byProperty);
+        }
+        if (!hasId) {
+            comparator = comparator.thenComparing(row -> sortKey(row, "id"),
+                Comparator.nullsFirst(Comparator.naturalOrder()));
+        }
+        return comparator;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object> sortKey(Object row, String property) {
+        Method accessor = ACCESSORS.computeIfAbsent(row.getClass().getName() + "#" + property, key -> {
+            // Entity getters or record accessors
+            Method method = ReflectionUtils.findMethod(row.getClass(), "get" + StringUtils.capitalize(property));
+            if (method == null) {
+                method = ReflectionUtils.findMethod(row.getClass(), property);
+            }
+            if (method == null) {
+                throw new IllegalArgumentException("Cannot sort by " + property);
+            }
+            return method;
+        });
+        Object value = ReflectionUtils.invokeMethod(accessor, row);
+        // Enums are stored by name, so the database orders them alphabetically
+        return (Comparable<Object>) (value instanceof Enum<?> constant ? constant.name() : value);
+    }
+
+    public boolean isMoving(int bucket) {
+        return moving[bucket];
+    }
+
+    public int ownerOf(int bucket) {
+        return owners[bucket];
+    }
+
+    // Where the consistent hash ring places the bucket for the configured shards
+    public int plannedOwnerOf(int bucket) {
+        return ring.ownerOf(bucket);
+    }
+
+    void markMoving(int bucket, boolean value) {
+        onShard(0, () -> jdbcTemplate.update("UPDATE order_shard_buckets SET moving = ?, updated_at = ? WHERE bucket = ?",
+            value, Timestamp.valueOf(LocalDateTime.now()), bucket));
+        boolean[] updated = moving.clone();
+        updated[bucket] = value;
+        moving = updated;
+    }
+
+    void assign(int bucket, int shard) {
+        onShard(0, () -> jdbcTemplate.update("UPDATE order_shard_buckets SET shard_id = ?, updated_at = ? WHERE bucket = ?",
+            shard, Timestamp.valueOf(LocalDateTime.now()), bucket));
+        int[] updated = owners.clone();
+        updated[bucket] = shard;
+        owners = updated;
+    }
+
+    // Picks up moves made by other instances
+    @Scheduled(fixedDelayString = "${orders.sharding.refresh-ms:2000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            loadBuckets(false);
+        } catch (RuntimeException e) {
+            logger.warn("Could not refresh the shard bucket map: {}", e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("shards", shardCount);
+        Map<Integer, Integer> buckets = new TreeMap<>();
+        List<Integer> movingBuckets = new ArrayList<>();
+        int misplaced = 0;
+        for (int bucket = 0; bucket < OrderIdGenerator.BUCKETS; bucket++) {
+            buckets.merge(owners[bucket], 1, Integer::sum);
+            if (moving[bucket]) {
+                movingBuckets.add(bucket);
+            }
+            if (owners[bucket] != ring.ownerOf(bucket)) {
+                misplaced++;
+            }
+        }
+        stats.put("bucketsByShard", buckets);
+        stats.put("movingBuckets", movingBuckets);
+        stats.put("bucketsToRebalance", enabled ? misplaced : 0);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scatterPool != null) {
+            scatterPool.shutdownNow();
+        }
+        if (enabled) {
+            OrderIdGenerator.disableSharding();
+        }
+    }
+
+    private void route(int bucket) {
+        if (moving[bucket] && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            throw new IllegalStateException("Orders in bucket " + bucket + " are being moved to another shard; retry shortly");
+        }
+        ShardContext.bindTransaction(owners[bucket]);
+    }
+
+    private <T> List<T> merge(List<List<T>> results, ToLongFunction<T> id, Comparator<? super T> order) {
+        List<T> rows = new ArrayList<>();
+        for (int shard = 0; shard < results.size(); shard++) {
+            for (T row : results.get(shard)) {
+                if (owns(shard, id.applyAsLong(row))) {
+                    rows.add(row);
+                }
+            }
+        }
+        rows.sort(order);
+        return rows;
+    }
+
+    private <T> List<T> scatter(List<Integer> shards, IntFunction<T> query) {
+        if (shardCount == 1) {
+            return shards.stream().map(query::apply).collect(Collectors.toList());
+        }
+        long start = System.nanoTime();
+        List<CompletableFuture<T>> futures = shards.stream()
+            .map(shard -> CompletableFuture.supplyAsync(() ->
+                onShard(shard, () -> readOnlyTransaction.execute(status -> query.apply(shard))), scatterPool))
+            .toList();
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(queryTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new QueryTimeoutException("Shard query did not complete within " + queryTimeoutMs + " ms");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Shard query failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for shard queries", e);
+        } finally {
+            scatterLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return futures.stream().map(CompletableFuture::join).collect(Collectors.toList());
+    }
+
+    // Seeds the map from the ring the first time a sharded deployment starts
+    private void loadBuckets(boolean seed) {
+        int[] loadedOwners = new int[OrderIdGenerator.BUCKETS];
+        boolean[] loadedMoving = new boolean[OrderIdGenerator.BUCKETS];
+        boolean[] present = new boolean[OrderIdGenerator.BUCKETS];
+        onShard(0, () -> {
+            jdbcTemplate.query("SELECT bucket, shard_id, moving FROM order_shard_buckets", rs -> {
+                int bucket = rs.getInt("bucket");
+                loadedOwners[bucket] = rs.getInt("shard_id");
+                loadedMoving[bucket] = rs.getBoolean("moving");
+                present[bucket] = true;
+            });
+            return null;
+        });
+
+        List<Object[]> missing = new ArrayList<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int bucket = 0; bucket < OrderIdGenerator.BUCKETS; bucket++) {
+            if (!present[bucket]) {
+                loadedOwners[bucket] = ring.ownerOf(bucket);
+                missing.add(new Object[] {bucket, loadedOwners[bucket], false, now});
+            } else if (loadedOwners[bucket] >= shardCount) {
+                throw new IllegalStateException(String.format(
+                    "Bucket %d is on shard %d, which is not configured", bucket, loadedOwners[bucket]));
+            }
+        }
+        if (seed && !missing.isEmpty()) {
+            try {
+                onShard(0, () -> jdbcTemplate.batchUpdate(
+                    "INSERT INTO order_shard_buckets (bucket, shard_id, moving, updated_at) VALUES (?, ?, ?, ?)", missing));
+                logger.info("Assigned {} order buckets to {} shards", missing.size(), shardCount);
+            } catch (DuplicateKeyException e) {
+                // Another instance seeded the map at the same time
+                loadBuckets(false);
+                return;
+            }
+        }
+        owners = loadedOwners;
+        moving = loadedMoving;
+    }
+
+    private static DataSource primaryOf(DataSource dataSource) {
+        if (dataSource instanceof LazyConnectionDataSourceProxy proxy) {
+            dataSource = proxy.getTargetDataSource();
+        }
+        if (dataSource instanceof ReplicaRoutingDataSource routing) {
+            dataSource = routing.getPrimary();
+        }
+        return dataSource;
+    }
+}
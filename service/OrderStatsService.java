@@ -0,0 +1,230 @@
+package com.orderms.service;
+
+import com.orderms.model.OrderStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Service
+public class OrderStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderStatsService.class);
+
+    private static final String COUNT_BY_STATUS =
+        "SELECT order_status, COUNT(*), COALESCE(SUM(total_amount), 0) FROM orders GROUP BY order_status";
+
+    @Autowired
+    private OrderShards orderShards;
+
+    private final Map<OrderStatus, AtomicLong> counts = new EnumMap<>(OrderStatus.class);
+    private final Map<OrderStatus, DoubleAdder> revenue = new EnumMap<>(OrderStatus.class);
+
+    // Order transactions hold the read side from just before their commit until their counter
+    // updates are applied; a recount holds the write side, so it never sees a committed change
+    // whose update is still pending
+    private final ReentrantReadWriteLock commitLock = new ReentrantReadWriteLock();
+
+    public OrderStatsService() {
+        for (OrderStatus status : OrderStatus.values()) {
+            counts.put(status, new AtomicLong());
+            revenue.put(status, new DoubleAdder());
+        }
+    }
+
+    // Seed counters once from a single GROUP BY query per shard
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        reload(false);
+    }
+
+    // Periodically compare counters with the database and correct any drift
+    @Scheduled(initialDelayString = "${orders.stats.reconcile-interval-ms:300000}",
+               fixedDelayString = "${orders.stats.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        reload(true);
+    }
+
+    public void recordCreated(OrderStatus status, Double amount) {
+        afterCommit(() -> apply(status, 1, amount(amount)));
+    }
+
+    public void recordStatusChanged(OrderStatus oldStatus, OrderStatus newStatus, Double amount) {
+        if (oldStatus == newStatus) {
+            return;
+        }
+        afterCommit(() -> {
+            apply(oldStatus, -1, -amount(amount));
+            apply(newStatus, 1, amount(amount));
+        });
+    }
+
+    public void recordAmountChanged(OrderStatus status, Double oldAmount, Double newAmount) {
+        double delta = amount(newAmount) - amount(oldAmount);
+        if (delta == 0) {
+            return;
+        }
+        afterCommit(() -> apply(status, 0, delta));
+    }
+
+    public void recordDeleted(OrderStatus status, Double amount) {
+        afterCommit(() -> apply(status, -1, -amount(amount)));
+    }
+
+    public long getTotalOrders() {
+        long total = 0;
+        for (AtomicLong count : counts.values()) {
+            total += count.get();
+        }
+        return total;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Long> statusCounts = new HashMap<>();
+        Map<String, Double> statusRevenue = new HashMap<>();
+        long totalOrders = 0;
+        double totalRevenue = 0;
+        for (OrderStatus status : OrderStatus.values()) {
+            long count = counts.get(status).get();
+            double sum = revenue.get(status).sum();
+            statusCounts.put(status.name(), count);
+            statusRevenue.put(status.name(), sum);
+            totalOrders += count;
+            totalRevenue += sum;
+        }
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalOrders", totalOrders);
+        stats.put("totalRevenue", totalRevenue);
+        stats.put("statusCounts", statusCounts);
+        stats.put("revenueByStatus", statusRevenue);
+        return stats;
+    }
+
+    // Connections are opened before the lock is taken: commits waiting on it hold pooled connections
+    private void reload(boolean reportDrift) {
+        List<Connection> connections = new ArrayList<>();
+        try {
+            for (DataSource primary : orderShards.getPrimaryDataSources()) {
+                connections.add(primary.getConnection());
+            }
+            commitLock.writeLock().lock();
+            try {
+                Map<OrderStatus, Long> dbCounts = new EnumMap<>(OrderStatus.class);
+                Map<OrderStatus, Double> dbRevenue = new EnumMap<>(OrderStatus.class);
+                for (Connection connection : connections) {
+                    try (Statement statement = connection.createStatement();
+                         ResultSet rs = statement.executeQuery(COUNT_BY_STATUS)) {
+                        while (rs.next()) {
+                            OrderStatus status = OrderStatus.valueOf(rs.getString(1));
+                            dbCounts.merge(status, rs.getLong(2), Long::sum);
+                            dbRevenue.merge(status, rs.getDouble(3), Double::sum);
+                        }
+                    }
+                }
+                correct(dbCounts, dbRevenue, reportDrift);
+            } finally {
+                commitLock.writeLock().unlock();
+            }
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Failed to recount order stats", e);
+        } finally {
+            connections.forEach(JdbcUtils::closeConnection);
+        }
+        logger.debug("Order stats loaded: {} orders", getTotalOrders());
+    }
+
+    // Called under the write lock, so no counter moves between reading and correcting it
+    private void correct(Map<OrderStatus, Long> dbCounts, Map<OrderStatus, Double> dbRevenue, boolean reportDrift) {
+        for (OrderStatus status : OrderStatus.values()) {
+            long count = dbCounts.getOrDefault(status, 0L);
+            double sum = dbRevenue.getOrDefault(status, 0.0);
+            long previous = counts.get(status).get();
+            double previousSum = revenue.get(status).sum();
+            apply(status, count - previous, sum - previousSum);
+
+            if (reportDrift && (previous != count || Math.abs(previousSum - sum) > 0.005)) {
+                logger.warn("Order stats drift for {}: count {} -> {}, revenue {} -> {}",
+                    status, previous, count, previousSum, sum);
+            }
+        }
+    }
+
+    private void apply(OrderStatus status, long countDelta, double amountDelta) {
+        if (countDelta != 0) {
+            counts.get(status).addAndGet(countDelta);
+        }
+        if (amountDelta != 0) {
+            revenue.get(status).add(amountDelta);
+        }
+    }
+
+    // Counters only move once the surrounding transaction has committed
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new CounterUpdate(action));
+        } else {
+            commitLock.readLock().lock();
+            try {
+                action.run();
+            } finally {
+                commitLock.readLock().unlock();
+            }
+        }
+    }
+
+    private static double amount(Double amount) {
+        return amount != null ? amount : 0.0;
+    }
+
+    // The read lock is reentrant, so one transaction may register any number of these
+    private final class CounterUpdate implements TransactionSynchronization {
+
+        private final Runnable action;
+        private boolean locked;
+
+        CounterUpdate(Runnable action) {
+            this.action = action;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            commitLock.readLock().lock();
+            locked = true;
+        }
+
+        @Override
+        public void afterCommit() {
+            action.run();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (locked) {
+                locked = false;
+                commitLock.readLock().unlock();
+            }
+        }
+    }
+}
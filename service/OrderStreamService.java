@@ -0,0 +1,179 @@
+package com.orderms.service;
+
+import com.orderms.event.OrderChangeEvent;
+import com.orderms.model.OrderStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Server-sent change feed: writers only enqueue into bounded per-subscriber buffers,
+// a small dispatcher pool does the (possibly slow) network writes
+@Service
+public class OrderStreamService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OrderStreamService.class);
+    
+    private static final Object HEARTBEAT = new Object();
+    
+    @Value("${orders.stream.buffer-size:256}")
+    private int bufferSize;
+    
+    @Value("${orders.stream.max-subscribers:1000}")
+    private int maxSubscribers;
+    
+    @Value("${orders.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+    
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    
+    private final ExecutorService dispatcher;
+    
+    public OrderStreamService(@Value("${orders.stream.dispatcher-threads:4}") int dispatcherThreads,
+                              MeterRegistry meterRegistry) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.dispatcher = Executors.newFixedThreadPool(dispatcherThreads, runnable -> {
+            Thread thread = new Thread(runnable, "order-stream-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        meterRegistry.gauge("orders.stream.subscribers", subscribers, Set::size);
+    }
+    
+    public SseEmitter subscribe(Set<OrderStatus> statuses, String customerId) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new IllegalStateException("Too many order stream subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, statuses, customerId);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        logger.debug("Order stream subscriber added ({} active)", subscribers.size());
+        return emitter;
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderChange(OrderChangeEvent event) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.matches(event)) {
+                subscriber.offer(event);
+            }
+        }
+    }
+    
+    // Keeps idle connections open through proxies and detects dead clients
+    @Scheduled(fixedDelayString = "${orders.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(HEARTBEAT);
+        }
+    }
+    
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        dispatcher.shutdownNow();
+    }
+    
+    private class Subscriber {
+        private final SseEmitter emitter;
+        private final Set<OrderStatus> statuses;
+        private final String customerId;
+        private final BlockingQueue<Object> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean overflowed = new AtomicBoolean();
+        
+        Subscriber(SseEmitter emitter, Set<OrderStatus> statuses, String customerId) {
+            this.emitter = emitter;
+            this.statuses = statuses;
+            this.customerId = customerId;
+        }
+        
+        // Orders leaving a filtered status are delivered too so clients can drop them
+        boolean matches(OrderChangeEvent event) {
+            if (customerId != null && !customerId.equals(event.customerId())) {
+                return false;
+            }
+            return statuses.isEmpty()
+                || statuses.contains(event.status())
+                || (event.previousStatus() != null && statuses.contains(event.previousStatus()));
+        }
+        
+        // Never blocks the writer: a full buffer is discarded and the client is told to resync
+        void offer(Object message) {
+            if (!buffer.offer(message)) {
+                overflowed.set(true);
+                buffer.clear();
+            }
+            if (draining.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+        
+        private void drain() {
+            try {
+                do {
+                    if (overflowed.getAndSet(false)) {
+                        emitter.send(SseEmitter.event().name("resync").data("{}", MediaType.APPLICATION_JSON));
+                    }
+                    Object message;
+                    while ((message = buffer.poll()) != null) {
+                        send(message);
+                    }
+                    draining.set(false);
+                } while ((!buffer.isEmpty() || overflowed.get()) && draining.compareAndSet(false, true));
+            } catch (IOException | IllegalStateException e) {
+                // Client went away or the emitter already completed
+                logger.debug("Dropping order stream subscriber: {}", e.getMessage());
+                drop(e);
+            } catch (RuntimeException e) {
+                // Anything else (e.g. a serialization failure) would otherwise leave draining set
+                // forever, so the subscriber would never be drained or removed
+                logger.warn("Dropping order stream subscriber after send failure: {}", e.getMessage(), e);
+                drop(e);
+            }
+        }
+        
+        private void drop(Exception cause) {
+            subscribers.remove(this);
+            buffer.clear();
+            emitter.completeWithError(cause);
+        }
+        
+        private void send(Object message) throws IOException {
+            if (message == HEARTBEAT) {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+                return;
+            }
+            OrderChangeEvent event = (OrderChangeEvent) message;
+            emitter.send(SseEmitter.event()
+                .name(event.type().name())
+                .data(event, MediaType.APPLICATION_JSON));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.orderms.service;
+
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+import java.io.IOException;
+
+public class S3ArchiveStorage implements ArchiveStorage, AutoCloseable {
+    
+    private final S3Client s3Client;
+    private final String bucket;
+    private final String prefix;
+    
+    public S3ArchiveStorage(S3Client s3Client, String bucket, String prefix) {
+        this.s3Client = s3Client;
+        this.bucket = bucket;
+        this.prefix = prefix;
+    }
+    
+    @Override
+    public void write(String path, byte[] content) throws IOException {
+        try {
+            s3Client.putObject(PutObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(prefix + path)
+                    .contentType("application/gzip")
+                    .build(),
+                RequestBody.fromBytes(content));
+        } catch (SdkException e) {
+            throw new IOException("Failed to write archive segment " + path, e);
+        }
+    }
+    
+    // Ranged GET: only the block holding the order is transferred
+    @Override
+    public byte[] read(String path, long offset, int length) throws IOException {
+        try {
+            return s3Client.getObjectAsBytes(GetObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(prefix + path)
+                    .range("bytes=" + offset + "-" + (offset + length - 1))
+                    .build())
+                .asByteArray();
+        } catch (SdkException e) {
+            throw new IOException("Failed to read archive segment " + path, e);
+        }
+    }
+    
+    @Override
+    public void close() {
+        s3Client.close();
+    }
+}
@@ -0,0 +1,246 @@
+package com.orderms.service;
+
+import com.orderms.model.OrderIdGenerator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Moves buckets to the shard the consistent hash ring now places them on, which after shards
+// have been appended to orders.sharding.shards is about 1/N of them. One bucket at a time:
+//   1. mark it moving and wait out the grace period, after which every instance refuses writes
+//   2. copy its orders, items, completed idempotency keys and customer summaries to the target
+//   3. point the bucket at the target and wait again, so every instance reads it from there
+//   4. delete the old copy and clear the moving flag
+// Reads are served throughout. A run that stops part way is finished by the next one: a bucket
+// still marked moving is copied again from scratch, or only cleaned up if it was already flipped.
+@Service
+public class ShardRebalancer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardRebalancer.class);
+
+    @Autowired
+    private OrderShards orderShards;
+
+    @Autowired
+    private OrderStatsService orderStatsService;
+
+    @Value("${orders.sharding.rebalance.batch-size:500}")
+    private int batchSize;
+
+    // Longer than orders.sharding.refresh-ms plus the longest order transaction
+    @Value("${orders.sharding.rebalance.grace-ms:10000}")
+    private long graceMs;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "order-shard-rebalancer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Counter movedOrders;
+    private final Counter movedBuckets;
+    private volatile Map<String, Object> lastRun = Map.of();
+
+    public ShardRebalancer(DataSource dataSource, PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.movedOrders = meterRegistry.counter("orders.sharding.rebalance.orders");
+        this.movedBuckets = meterRegistry.counter("orders.sharding.rebalance.buckets");
+    }
+
+    // Runs in the background; false if a run is already in progress
+    public boolean start() {
+        if (!orderShards.isEnabled()) {
+            throw new IllegalStateException("Sharding is not enabled");
+        }
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        worker.execute(this::run);
+        return true;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>(orderShards.getStats());
+        stats.put("rebalancing", running.get());
+        stats.put("lastRebalance", lastRun);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private void run() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        int buckets = 0;
+        long orders = 0;
+        String error = null;
+        try {
+            for (int bucket = 0; bucket < OrderIdGenerator.BUCKETS; bucket++) {
+                int source = orderShards.ownerOf(bucket);
+                int target = orderShards.plannedOwnerOf(bucket);
+                if (source != target || orderShards.isMoving(bucket)) {
+                    orders += move(bucket, source, target);
+                    buckets++;
+                }
+            }
+            logger.info("Rebalanced {} buckets, {} orders", buckets, orders);
+        } catch (RuntimeException e) {
+            error = e.getMessage();
+            logger.error("Rebalance stopped after {} buckets: {}", buckets, e.getMessage(), e);
+        } finally {
+            Map<String, Object> run = new HashMap<>();
+            run.put("startedAt", startedAt.toString());
+            run.put("finishedAt", LocalDateTime.now().toString());
+            run.put("buckets", buckets);
+            run.put("orders", orders);
+            if (error != null) {
+                run.put("error", error);
+            }
+            lastRun = run;
+            running.set(false);
+        }
+        // Counts read while a bucket existed on two shards may have included it twice
+        orderStatsService.reconcile();
+    }
+
+    private long move(int bucket, int source, int target) {
+        long copied = 0;
+        if (source != target) {
+            orderShards.markMoving(bucket, true);
+            pause();
+            copied = copy(bucket, source, target);
+            orderShards.assign(bucket, target);
+            pause();
+        }
+        for (int shard = 0; shard < orderShards.getShardCount(); shard++) {
+            if (shard != target) {
+                deleteBucket(shard, bucket);
+            }
+        }
+        orderShards.markMoving(bucket, false);
+        movedBuckets.increment();
+        movedOrders.increment(copied);
+        logger.debug("Moved bucket {} from shard {} to shard {}: {} orders", bucket, source, target, copied);
+        return copied;
+    }
+
+    private long copy(int bucket, int source, int target) {
+        // Left over from an earlier attempt that did not finish
+        deleteBucket(target, bucket);
+        Set<String> customers = new HashSet<>();
+        long copied = 0;
+        long lastId = 0;
+        while (true) {
+            long after = lastId;
+            List<Map<String, Object>> orders = orderShards.onShard(source, () -> jdbcTemplate.queryForList(
+                "SELECT * FROM orders WHERE shard_bucket = ? AND id > ? ORDER BY id LIMIT ?", bucket, after, batchSize));
+            if (orders.isEmpty()) {
+                return copied;
+            }
+            List<Long> ids = orders.stream().map(row -> ((Number) row.get("id")).longValue()).toList();
+            List<String> newCustomers = orders.stream().map(row -> (String) row.get("customer_id"))
+                .distinct().filter(customer -> !customers.contains(customer)).toList();
+            Map<String, List<Map<String, Object>>> related = orderShards.onShard(source, () -> {
+                Map<String, List<Map<String, Object>>> rows = new HashMap<>();
+                rows.put("order_items", select("order_items", "order_id", ids));
+                rows.put("order_idempotency_keys", select("order_idempotency_keys", "order_id", ids));
+                rows.put("customer_order_summary", select("customer_order_summary", "customer_id", newCustomers));
+                return rows;
+            });
+            orderShards.onShard(target, () -> transactionTemplate.execute(status -> {
+                insert("orders", orders);
+                insert("order_items", related.get("order_items"));
+                insert("order_idempotency_keys", related.get("order_idempotency_keys"));
+                insert("customer_order_summary", related.get("customer_order_summary"));
+                return null;
+            }));
+            customers.addAll(newCustomers);
+            copied += orders.size();
+            lastId = ids.get(ids.size() - 1);
+        }
+    }
+
+    // Summaries of customers who no longer have any orders in the bucket are not found here and
+    // stay behind; they are never read again because the customer now routes to another shard
+    private void deleteBucket(int shard, int bucket) {
+        orderShards.onShard(shard, () -> transactionTemplate.execute(status -> {
+            List<String> customers = jdbcTemplate.queryForList(
+                "SELECT DISTINCT customer_id FROM orders WHERE shard_bucket = ?", String.class, bucket);
+            jdbcTemplate.update("DELETE FROM order_idempotency_keys WHERE order_id IN " +
+                "(SELECT id FROM orders WHERE shard_bucket = ?)", bucket);
+            jdbcTemplate.update("DELETE FROM order_items WHERE order_id IN " +
+                "(SELECT id FROM orders WHERE shard_bucket = ?)", bucket);
+            jdbcTemplate.update("DELETE FROM orders WHERE shard_bucket = ?", bucket);
+            for (int from = 0; from < customers.size(); from += batchSize) {
+                List<String> chunk = customers.subList(from, Math.min(from + batchSize, customers.size()));
+                jdbcTemplate.update("DELETE FROM customer_order_summary WHERE customer_id IN (" +
+                    placeholders(chunk.size()) + ")", chunk.toArray());
+            }
+            return null;
+        }));
+    }
+
+    private List<Map<String, Object>> select(String table, String column, Collection<?> values) {
+        if (values.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.queryForList("SELECT * FROM " + table + " WHERE " + column + " IN (" +
+            placeholders(values.size()) + ")", values.toArray());
+    }
+
+    // Rows are copied column for column, so the copy follows whatever the migrations created
+    private void insert(String table, List<Map<String, Object>> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<String> columns = new ArrayList<>(rows.get(0).keySet());
+        String sql = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES (" +
+            placeholders(columns.size()) + ")";
+        List<Object[]> args = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            args.add(columns.stream().map(row::get).toArray());
+        }
+        jdbcTemplate.batchUpdate(sql, args);
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(graceMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Rebalance interrupted", e);
+        }
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+}
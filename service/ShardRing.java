@@ -0,0 +1,43 @@
+package com.orderms.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+// Consistent hash ring placing the logical buckets on shards. Each shard owns many points on
+// the ring, so appending a shard takes roughly an equal share of buckets from every existing
+// shard and leaves all other assignments where they were.
+public class ShardRing {
+    
+    private final TreeMap<Long, Integer> points = new TreeMap<>();
+    
+    public ShardRing(int shards, int virtualNodes) {
+        for (int shard = 0; shard < shards; shard++) {
+            for (int node = 0; node < virtualNodes; node++) {
+                points.put(hash("shard-" + shard + "#" + node), shard);
+            }
+        }
+    }
+    
+    public int ownerOf(int bucket) {
+        Map.Entry<Long, Integer> point = points.ceilingEntry(mix(bucket * 0x9E3779B97F4A7C15L));
+        return point != null ? point.getValue() : points.firstEntry().getValue();
+    }
+    
+    private static long hash(String value) {
+        CRC32 crc = new CRC32();
+        crc.update(value.getBytes(StandardCharsets.UTF_8));
+        return mix(crc.getValue() * 0x9E3779B97F4A7C15L + value.length());
+    }
+    
+    // MurmurHash3 fmix64: spreads nearby inputs over the whole ring
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
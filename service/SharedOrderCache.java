@@ -0,0 +1,32 @@
+package com.orderms.service;
+
+import com.orderms.dto.OrderDetail;
+
+import java.util.Optional;
+
+// Second cache tier shared between nodes (e.g. Redis); consulted on a local miss
+public interface SharedOrderCache {
+    
+    Optional<OrderDetail> get(Long id);
+    
+    void put(OrderDetail order);
+    
+    void evict(Long id);
+    
+    static SharedOrderCache none() {
+        return new SharedOrderCache() {
+            @Override
+            public Optional<OrderDetail> get(Long id) {
+                return Optional.empty();
+            }
+            
+            @Override
+            public void put(OrderDetail order) {
+            }
+            
+            @Override
+            public void evict(Long id) {
+            }
+        };
+    }
+}
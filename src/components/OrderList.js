@@ -1,4 +1,4 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import {
   Box,
   Paper,
@@ -41,6 +41,8 @@ const OrderList = () => {
   const [deleteDialogOpen, setDeleteDialogOpen] = useState(false);
   const [orderToDelete, setOrderToDelete] = useState(null);
   const [stats, setStats] = useState({});
+  // Read by the stream handler, which is registered once
+  const statusFilterRef = useRef(statusFilter);
 
   const orderStatuses = [
     'ALL',
@@ -52,18 +54,33 @@ const OrderList = () => {
   ];
 
   useEffect(() => {
-    fetchOrders();
     fetchStats();
+
+    // Apply pushed deltas instead of refetching the list and stats after every change.
+    // The stream is unfiltered because the stats cover every status.
+    const unsubscribe = orderService.subscribeToOrderChanges(applyOrderChange, () => {
+      fetchOrders(statusFilterRef.current);
+      fetchStats();
+    });
+    return unsubscribe;
   }, []);
 
+  // The list holds only the orders in the selected status
+  useEffect(() => {
+    statusFilterRef.current = statusFilter;
+    fetchOrders(statusFilter);
+  }, [statusFilter]);
+
   useEffect(() => {
     filterOrders();
   }, [orders, searchTerm, statusFilter]);
 
-  const fetchOrders = async () => {
+  const fetchOrders = async (status = statusFilter) => {
     try {
       setLoading(true);
-      const data = await orderService.getAllOrdersSimple();
+      const data = status === 'ALL'
+        ? await orderService.getAllOrdersSimple()
+        : await orderService.getOrdersByStatus(status);
       setOrders(data);
       toast.success('Orders loaded successfully');
     } catch (error) {
@@ -74,6 +91,43 @@ const OrderList = () => {
     }
   };
 
+  const applyOrderChange = (change) => {
+    // Archived orders leave the live tables exactly like deleted ones
+    const removed = change.type === 'DELETED' || change.type === 'ARCHIVED';
+    const selected = statusFilterRef.current;
+    const inFilter = selected === 'ALL' || change.status === selected;
+    setOrders((current) => {
+      // New orders outside the filter are not added, and orders that left it are dropped
+      if (removed || !inFilter) {
+        return current.filter((order) => order.id !== change.orderId);
+      }
+      const existing = current.find((order) => order.id === change.orderId);
+      if (!existing) {
+        return [change.order, ...current];
+      }
+      return current.map((order) =>
+        order.id === change.orderId ? { ...order, ...change.order } : order
+      );
+    });
+
+    setStats((current) => {
+      if (!current.statusCounts) return current;
+      const statusCounts = { ...current.statusCounts };
+      let totalOrders = current.totalOrders;
+      if (change.type === 'CREATED') {
+        statusCounts[change.status] = (statusCounts[change.status] || 0) + 1;
+        totalOrders += 1;
+      } else if (removed) {
+        statusCounts[change.status] = (statusCounts[change.status] || 0) - 1;
+        totalOrders -= 1;
+      } else if (change.type === 'STATUS_CHANGED') {
+        statusCounts[change.previousStatus] = (statusCounts[change.previousStatus] || 0) - 1;
+        statusCounts[change.status] = (statusCounts[change.status] || 0) + 1;
+      }
+      return { ...current, totalOrders, statusCounts };
+    });
+  };
+
   const fetchStats = async () => {
     try {
       const statsData = await orderService.getOrderStats();
@@ -104,8 +158,6 @@ const OrderList = () => {
   const handleStatusUpdate = async (orderId, newStatus) => {
     try {
       await orderService.updateOrderStatus(orderId, newStatus);
-      await fetchOrders();
-      await fetchStats();
       toast.success(`Order status updated to ${newStatus.replace('_', ' ')}`);
     } catch (error) {
       console.error('Error updating order status:', error);
@@ -118,8 +170,6 @@ const OrderList = () => {
 
     try {
       await orderService.deleteOrder(orderToDelete.id);
-      await fetchOrders();
-      await fetchStats();
       toast.success('Order deleted successfully');
       setDeleteDialogOpen(false);
       setOrderToDelete(null);
@@ -253,7 +303,10 @@ const OrderList = () => {
               fullWidth
               variant="outlined"
               startIcon={<Refresh />}
-              onClick={fetchOrders}
+              onClick={() => {
+                fetchOrders();
+                fetchStats();
+              }}
             >
               Refresh
             </Button>
@@ -304,7 +357,7 @@ const OrderList = () => {
                   </Typography>
                   
                   <Typography color="textSecondary" variant="body2" mb={1}>
-                    <strong>Items:</strong> {order.items?.length || 0}
+                    <strong>Items:</strong> {order.itemCount ?? order.items?.length ?? 0}
                   </Typography>
                   
                   <Typography color="textSecondary" variant="body2" mb={2}>
@@ -45,6 +45,14 @@ export const orderService = {
     return response.data;
   },
 
+  // Get orders with keyset pagination (pass the previous nextCursor, '' for the first page)
+  getOrdersByCursor: async (cursor = '', size = 20, sortBy = 'id', sortDir = 'desc', includeTotal = false) => {
+    const response = await api.get('/orders', {
+      params: { cursor, size, sortBy, sortDir, includeTotal }
+    });
+    return response.data;
+  },
+
   // Get all orders (simple)
   getAllOrdersSimple: async () => {
     const response = await api.get('/orders/all');
@@ -63,16 +71,30 @@ export const orderService = {
     return response.data;
   },
 
+  // Newest orders of a customer, one page at a time; pass the previous nextCursor to continue
+  getRecentOrdersByCustomerId: async (customerId, cursor = null, size = 20) => {
+    const params = { size };
+    if (cursor) params.cursor = cursor;
+    const response = await api.get(`/orders/customer/${customerId}/recent`, { params });
+    return response.data;
+  },
+
+  // Lifetime order count and spend, last order and open orders by status
+  getCustomerSummary: async (customerId) => {
+    const response = await api.get(`/orders/customer/${customerId}/summary`);
+    return response.data;
+  },
+
   // Get orders by status
   getOrdersByStatus: async (status) => {
     const response = await api.get(`/orders/status/${status}`);
     return response.data;
   },
 
-  // Search orders
-  searchOrders: async (searchTerm) => {
+  // Search orders (ranked, paged)
+  searchOrders: async (searchTerm, page = 0, size = 20) => {
     const response = await api.get('/orders/search', {
-      params: { q: searchTerm }
+      params: { q: searchTerm, page, size }
     });
     return response.data;
   },
@@ -85,23 +107,74 @@ export const orderService = {
     return response.data;
   },
 
+  // Move many orders to one status: pass { ids } or a filter { currentStatus, createdFrom, createdTo }
+  updateOrderStatuses: async (status, selection) => {
+    const response = await api.post('/orders/status/bulk', { ...selection, status });
+    return response.data;
+  },
+
   // Update order
   updateOrder: async (id, orderData) => {
     const response = await api.put(`/orders/${id}`, orderData);
     return response.data;
   },
 
+  // Partially update order: only the given fields; items with an id are edited in place,
+  // items without one are added, and removedItemIds are deleted
+  patchOrder: async (id, changes) => {
+    const response = await api.patch(`/orders/${id}`, changes);
+    return response.data;
+  },
+
   // Delete order
   deleteOrder: async (id) => {
     const response = await api.delete(`/orders/${id}`);
     return response.data;
   },
 
+  // Subscribe to the server-sent order change feed; returns an unsubscribe function
+  subscribeToOrderChanges: (onChange, onResync, filters = {}) => {
+    const params = new URLSearchParams();
+    (filters.statuses || []).forEach((status) => params.append('status', status));
+    if (filters.customerId) params.append('customerId', filters.customerId);
+    const query = params.toString();
+    const source = new EventSource(`${API_BASE_URL}/orders/stream${query ? `?${query}` : ''}`);
+
+    ['CREATED', 'UPDATED', 'STATUS_CHANGED', 'DELETED', 'ARCHIVED'].forEach((type) => {
+      source.addEventListener(type, (event) => onChange(JSON.parse(event.data)));
+    });
+    // The server dropped buffered deltas for this client; reload a full snapshot
+    source.addEventListener('resync', () => onResync());
+    // EventSource reconnects on its own; changes may have been missed meanwhile
+    let disconnected = false;
+    source.onerror = () => { disconnected = true; };
+    source.onopen = () => {
+      if (disconnected) {
+        disconnected = false;
+        onResync();
+      }
+    };
+
+    return () => source.close();
+  },
+
   // Get order statistics
   getOrderStats: async () => {
     const response = await api.get('/orders/stats');
     return response.data;
   },
+
+  // Orders, items and revenue per time bucket, split by status or category
+  getRollups: async ({ granularity = 'hour', dimension = 'status', value, from, to }) => {
+    const response = await api.get('/analytics/rollups', { params: { granularity, dimension, value, from, to } });
+    return response.data;
+  },
+
+  // Orders, items and revenue per time bucket across all statuses
+  getRollupTotals: async ({ granularity = 'hour', from, to }) => {
+    const response = await api.get('/analytics/totals', { params: { granularity, from, to } });
+    return response.data;
+  },
 };
 
 export default orderService;
@@ -0,0 +1,54 @@
+package com.orderms.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DatabaseConcurrencyFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final DatabaseConcurrencyFilter filter = new DatabaseConcurrencyFilter(1, 0, registry);
+
+    @Test
+    void synchronousRequestReleasesPermitOnReturn() throws Exception {
+        filter.doFilter(request("/api/orders/all"), new MockHttpServletResponse(), (req, res) -> { });
+
+        assertEquals(0, active());
+    }
+
+    @Test
+    void asyncRequestHoldsPermitUntilComplete() throws Exception {
+        MockHttpServletRequest export = request("/api/orders/export");
+        filter.doFilter(export, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+        assertEquals(1, active());
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(request("/api/orders/all"), rejected, (req, res) -> { });
+        assertEquals(503, rejected.getStatus());
+
+        ((MockAsyncContext) export.getAsyncContext()).complete();
+        assertEquals(0, active());
+    }
+
+    @Test
+    void streamIsNotLimited() throws Exception {
+        MockHttpServletRequest stream = request("/api/orders/stream");
+        filter.doFilter(stream, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+        assertEquals(0, active());
+    }
+
+    private MockHttpServletRequest request(String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setAsyncSupported(true);
+        return request;
+    }
+
+    private double active() {
+        return registry.get("orders.requests.active").gauge().value();
+    }
+}
@@ -0,0 +1,132 @@
+package com.orderms.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+// Two in-memory H2 databases stand in for the primary and the replica
+class ReplicaRoutingDataSourceTest {
+
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() {
+        primary = pool("primary");
+        replica = pool("replica");
+        routing = new ReplicaRoutingDataSource(primary, replica, 5, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        RequestContextHolder.resetRequestAttributes();
+        routing.close();
+    }
+
+    @Test
+    void readsStayOnPrimaryUntilReplicaIsChecked() throws SQLException {
+        readOnlyTransaction();
+
+        assertEquals("primary", target());
+    }
+
+    @Test
+    void readOnlyTransactionsGoToHealthyReplica() throws SQLException {
+        routing.checkReplica();
+
+        readOnlyTransaction();
+        assertEquals("replica", target());
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        assertEquals("primary", target());
+    }
+
+    @Test
+    void laggingReplicaFallsBackToPrimaryUntilItCatchesUp() throws SQLException {
+        routing.checkReplica();
+        readOnlyTransaction();
+
+        routing.recordLag(30L);
+        assertEquals("primary", target());
+
+        routing.recordLag(2L);
+        assertEquals("replica", target());
+
+        routing.recordLag(null);
+        assertEquals("primary", target());
+    }
+
+    @Test
+    void failedReplicaConnectionFallsBackToPrimary() throws SQLException {
+        routing.checkReplica();
+        replica.close();
+        readOnlyTransaction();
+
+        assertEquals("primary", target());
+        assertFalse(routing.isReplicaAvailable());
+    }
+
+    @Test
+    void readsAfterWriteInSameRequestUsePrimary() throws SQLException {
+        routing.checkReplica();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        assertEquals("primary", target());
+
+        readOnlyTransaction();
+        assertEquals("primary", target());
+    }
+
+    @Test
+    void onPrimaryOverridesReadOnly() throws SQLException {
+        routing.checkReplica();
+        readOnlyTransaction();
+
+        assertEquals("primary", DataSourceRouting.onPrimary(() -> {
+            try {
+                return target();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+    }
+
+    private void readOnlyTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    }
+
+    // The pool name is part of each database's URL
+    private String target() throws SQLException {
+        try (Connection connection = routing.getConnection()) {
+            String url = connection.getMetaData().getURL();
+            return url.contains("primary") ? "primary" : "replica";
+        }
+    }
+
+    private static HikariDataSource pool(String name) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(name);
+        pool.setJdbcUrl("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        pool.setMaximumPoolSize(2);
+        pool.setConnectionTimeout(1000);
+        return pool;
+    }
+}
@@ -0,0 +1,103 @@
+package com.orderms.controller;
+
+import com.orderms.model.Order;
+import com.orderms.model.OrderItem;
+import com.orderms.repository.OrderRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The list endpoints serialize the items of each order they return. These checks pin the number
+// of SQL statements per request so a lazy items load per order (1 + N) cannot creep back in.
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.jpa.show-sql=false",
+    "logging.level.org.hibernate.SQL=WARN",
+    "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+    "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN",
+    // Keep background jobs from running statements while a request is measured
+    "orders.outbox.poll-interval-ms=3600000",
+    "orders.outbox.backlog-refresh-ms=3600000",
+    "orders.analytics.flush-interval-ms=3600000",
+    "orders.stats.reconcile-interval-ms=3600000"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OrderQueryCountTest {
+    
+    private static final int ORDERS_PER_CUSTOMER = 10;
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private OrderRepository orderRepository;
+    
+    private Statistics statistics;
+    
+    @BeforeAll
+    void seed() throws Exception {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<Order> orders = new ArrayList<>();
+        for (String customer : List.of("QC-1", "QC-2", "QC-3")) {
+            for (int i = 0; i < ORDERS_PER_CUSTOMER; i++) {
+                Order order = new Order(customer, "Query Count");
+                order.setCustomerEmail("qc@example.com");
+                order.setDeliveryAddress("1 Test Street");
+                order.addItem(new OrderItem("A", 1, 1.5));
+                order.addItem(new OrderItem("B", 2, 2.5));
+                order.addItem(new OrderItem("C", 3, 3.5));
+                orders.add(order);
+            }
+        }
+        orderRepository.saveAll(orders);
+        awaitQuiet();
+    }
+    
+    @Test
+    void allOrdersIsOneStatement() throws Exception {
+        assertStatements(1, "/api/orders/all");
+    }
+    
+    @Test
+    void customerOrdersIsOneStatement() throws Exception {
+        assertStatements(1, "/api/orders/customer/QC-2");
+    }
+    
+    @Test
+    void ordersByStatusIsOneStatement() throws Exception {
+        assertStatements(1, "/api/orders/status/ORDER_PLACED");
+    }
+    
+    private void assertStatements(long expected, String url) throws Exception {
+        long before = statistics.getPrepareStatementCount();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        assertEquals(expected, statistics.getPrepareStatementCount() - before, "SQL statements for GET " + url);
+    }
+    
+    // After-commit work (search indexing) runs on its own thread; wait until it stops issuing SQL
+    private void awaitQuiet() throws InterruptedException {
+        long last = -1;
+        while (statistics.getPrepareStatementCount() != last) {
+            last = statistics.getPrepareStatementCount();
+            Thread.sleep(200);
+        }
+    }
+}
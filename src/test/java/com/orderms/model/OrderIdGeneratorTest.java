@@ -0,0 +1,80 @@
+package com.orderms.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Calls the generator directly, so the process-wide sharding switch stays off for other tests
+class OrderIdGeneratorTest {
+
+    @Test
+    void bucketRoundTrips() {
+        long now = System.currentTimeMillis();
+        for (int bucket = 0; bucket < OrderIdGenerator.BUCKETS; bucket++) {
+            assertEquals(bucket, OrderIdGenerator.bucketOf(OrderIdGenerator.next(bucket, now)));
+        }
+    }
+
+    // Far more ids than the 256 a millisecond holds, so the sequence rolls over many times
+    @Test
+    void idsIncreaseThroughSequenceRollover() {
+        long now = System.currentTimeMillis();
+        long previous = OrderIdGenerator.next(42, now);
+        for (int i = 0; i < 10_000; i++) {
+            long id = OrderIdGenerator.next(42, now);
+            assertTrue(id > previous, "id " + id + " after " + previous);
+            previous = id;
+        }
+    }
+
+    @Test
+    void backwardClockStepNeitherRepeatsNorWaits() {
+        long now = System.currentTimeMillis();
+        long before = OrderIdGenerator.next(3, now);
+        long after = OrderIdGenerator.next(3, now - 60_000);
+        assertTrue(after > before, "id " + after + " after " + before);
+        assertEquals(3, OrderIdGenerator.bucketOf(after));
+    }
+
+    @Test
+    void idsAreUniqueAcrossThreads() throws Exception {
+        int threads = 8;
+        int perThread = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int bucket = t;
+                Callable<long[]> task = () -> {
+                    long[] ids = new long[perThread];
+                    for (int i = 0; i < perThread; i++) {
+                        ids[i] = OrderIdGenerator.next(bucket, System.currentTimeMillis());
+                    }
+                    return ids;
+                };
+                futures.add(executor.submit(task));
+            }
+            Set<Long> seen = new HashSet<>();
+            for (Future<long[]> future : futures) {
+                long[] ids = future.get();
+                for (int i = 0; i < ids.length; i++) {
+                    assertTrue(seen.add(ids[i]), "duplicate id " + ids[i]);
+                    assertTrue(i == 0 || ids[i] > ids[i - 1], "ids of one thread must increase");
+                }
+            }
+            assertEquals(threads * perThread, seen.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.orderms.service;
+
+import com.orderms.dto.BulkStatusRequest;
+import com.orderms.dto.BulkStatusResult;
+import com.orderms.dto.BulkStatusResult.Outcome;
+import com.orderms.dto.OrderSummary;
+import com.orderms.model.OrderStatus;
+import com.orderms.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+// The repository is stubbed with an in-memory status table; chunking and outcomes are what is under test
+@ExtendWith(MockitoExtension.class)
+class BulkStatusUpdateTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+    @Mock
+    private OrderStatsService orderStatsService;
+    @Mock
+    private OrderAnalyticsService orderAnalyticsService;
+    @Mock
+    private CustomerSummaryService customerSummaryService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private OrderOutboxService orderOutboxService;
+    @Mock
+    private OrderShards orderShards;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private OrderBatchService orderBatchService;
+
+    private final Map<Long, OrderStatus> statuses = new HashMap<>();
+    private final List<Collection<Long>> updateCalls = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(orderBatchService, "chunkSize", 2);
+        ReflectionTestUtils.setField(orderBatchService, "maxRecords", 100);
+        lenient().when(orderShards.groupByShard(any(), any()))
+            .thenAnswer(invocation -> Map.of(0, invocation.getArgument(0)));
+        lenient().when(orderRepository.lockStatusesByIdIn(anyCollection())).thenAnswer(invocation -> {
+            List<Object[]> rows = new ArrayList<>();
+            for (Long id : invocation.<Collection<Long>>getArgument(0)) {
+                if (statuses.containsKey(id)) {
+                    rows.add(new Object[] {id, statuses.get(id)});
+                }
+            }
+            return rows;
+        });
+        lenient().when(orderRepository.updateStatusesIfCurrent(anyCollection(), anyCollection(), any(), any()))
+            .thenAnswer(invocation -> {
+                Collection<Long> ids = List.copyOf(invocation.<Collection<Long>>getArgument(0));
+                updateCalls.add(ids);
+                ids.forEach(id -> statuses.put(id, invocation.getArgument(2)));
+                return ids.size();
+            });
+        lenient().when(orderRepository.findSummariesByIdIn(anyCollection())).thenAnswer(invocation ->
+            invocation.<Collection<Long>>getArgument(0).stream().map(BulkStatusUpdateTest::summary).toList());
+    }
+
+    @Test
+    void reportsAnOutcomePerIdInRequestOrder() {
+        statuses.put(1L, OrderStatus.ORDER_PROCESSING);
+        statuses.put(2L, OrderStatus.ORDER_READY);
+        statuses.put(3L, OrderStatus.ORDER_DELIVERED);
+
+        List<BulkStatusResult> results = orderBatchService.updateStatuses(request(List.of(3L, 99L, 2L, 1L)));
+
+        assertEquals(List.of(3L, 99L, 2L, 1L), results.stream().map(BulkStatusResult::orderId).toList());
+        assertEquals(List.of(Outcome.INVALID_TRANSITION, Outcome.NOT_FOUND, Outcome.UNCHANGED, Outcome.UPDATED),
+            results.stream().map(BulkStatusResult::outcome).toList());
+        assertEquals(OrderStatus.ORDER_PROCESSING, results.get(3).previousStatus());
+    }
+
+    @Test
+    void updatesEachChunkWithOneGuardedStatement() {
+        for (long id = 1; id <= 5; id++) {
+            statuses.put(id, OrderStatus.ORDER_PROCESSING);
+        }
+
+        orderBatchService.updateStatuses(request(List.of(1L, 2L, 3L, 4L, 5L)));
+
+        assertEquals(List.of(List.of(1L, 2L), List.of(3L, 4L), List.of(5L)),
+            updateCalls.stream().map(ids -> ids.stream().sorted().toList()).toList());
+        // Only statuses that may move to ORDER_READY are allowed to match in SQL
+        verify(orderRepository, times(3)).updateStatusesIfCurrent(anyCollection(),
+            eq(Set.of(OrderStatus.ORDER_PROCESSING)), eq(OrderStatus.ORDER_READY), any());
+        verify(orderOutboxService, times(5)).append(any(OrderSummary.class), eq("STATUS_CHANGED"), any());
+    }
+
+    @Test
+    void failedChunkDoesNotAffectOthers() {
+        for (long id = 1; id <= 4; id++) {
+            statuses.put(id, OrderStatus.ORDER_PROCESSING);
+        }
+        lenient().when(orderRepository.lockStatusesByIdIn(List.of(3L, 4L))).thenThrow(new IllegalStateException("deadlock"));
+
+        List<BulkStatusResult> results = orderBatchService.updateStatuses(request(List.of(1L, 2L, 3L, 4L)));
+
+        assertEquals(List.of(Outcome.UPDATED, Outcome.UPDATED, Outcome.FAILED, Outcome.FAILED),
+            results.stream().map(BulkStatusResult::outcome).toList());
+        assertTrue(results.get(2).error().contains("deadlock"));
+    }
+
+    @Test
+    void requiresIdsOrCurrentStatus() {
+        BulkStatusRequest empty = new BulkStatusRequest();
+        empty.setStatus(OrderStatus.ORDER_READY);
+        assertThrows(IllegalArgumentException.class, () -> orderBatchService.updateStatuses(empty));
+
+        List<Long> withNull = new ArrayList<>();
+        withNull.add(null);
+        assertThrows(IllegalArgumentException.class, () -> orderBatchService.updateStatuses(request(withNull)));
+    }
+
+    private static BulkStatusRequest request(List<Long> ids) {
+        BulkStatusRequest request = new BulkStatusRequest();
+        request.setIds(ids);
+        request.setStatus(OrderStatus.ORDER_READY);
+        return request;
+    }
+
+    private static OrderSummary summary(Long id) {
+        return new OrderSummary(id, "CUST-" + id, "Customer " + id, null, null, OrderStatus.ORDER_READY, 10.0,
+            null, null, 1L, LocalDateTime.now(), LocalDateTime.now(), 1L);
+    }
+}
@@ -0,0 +1,114 @@
+package com.orderms.service;
+
+import com.orderms.service.NotificationPublisher.OutboundMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.sns.SnsClient;
+import software.amazon.awssdk.services.sns.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequest;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequestEntry;
+import software.amazon.awssdk.services.sns.model.PublishBatchResponse;
+import software.amazon.awssdk.services.sns.model.SnsException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NotificationPublisherTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void splitsMessagesIntoBatchesOfTen() {
+        StubSnsClient sns = new StubSnsClient(request -> PublishBatchResponse.builder().build());
+
+        Set<String> failed = publisher(sns).publish(messages(23));
+
+        assertTrue(failed.isEmpty());
+        assertEquals(List.of(10, 10, 3), sns.requests.stream().map(r -> r.publishBatchRequestEntries().size()).toList());
+        assertEquals(23, registry.counter("notifications.published").count());
+    }
+
+    @Test
+    void sendsTheMessageIdAsEventId() {
+        StubSnsClient sns = new StubSnsClient(request -> PublishBatchResponse.builder().build());
+
+        publisher(sns).publish(messages(2));
+
+        PublishBatchRequestEntry entry = sns.requests.get(0).publishBatchRequestEntries().get(1);
+        assertEquals("event-1", entry.messageAttributes().get("eventId").stringValue());
+        assertEquals("subject-1", entry.subject());
+    }
+
+    @Test
+    void returnsIdsOfEntriesSnsRejected() {
+        StubSnsClient sns = new StubSnsClient(request -> PublishBatchResponse.builder()
+            .failed(BatchResultErrorEntry.builder().id("2").code("InternalError").message("try again").build())
+            .build());
+
+        Set<String> failed = publisher(sns).publish(messages(13));
+
+        // Entry ids restart at 0 in every batch, so entry 2 fails in both
+        assertEquals(Set.of("event-2", "event-12"), failed);
+        assertEquals(2, registry.counter("notifications.publish.errors", "kind", "entry").count());
+        assertEquals(11, registry.counter("notifications.published").count());
+    }
+
+    @Test
+    void failedCallFailsOnlyItsBatch() {
+        StubSnsClient sns = new StubSnsClient(request -> {
+            if (request.publishBatchRequestEntries().size() == 10) {
+                throw SnsException.builder().message("throttled").build();
+            }
+            return PublishBatchResponse.builder().build();
+        });
+
+        Set<String> failed = publisher(sns).publish(messages(15));
+
+        assertEquals(IntStream.range(0, 10).mapToObj(i -> "event-" + i).collect(Collectors.toSet()),
+            failed);
+        assertEquals(1, registry.counter("notifications.publish.errors", "kind", "request").count());
+        assertEquals(5, registry.counter("notifications.published").count());
+    }
+
+    private NotificationPublisher publisher(SnsClient sns) {
+        return new NotificationPublisher(sns, "arn:aws:sns:us-east-1:000000000000:orders", registry);
+    }
+
+    private static List<OutboundMessage> messages(int count) {
+        return IntStream.range(0, count)
+            .mapToObj(i -> new OutboundMessage("event-" + i, "subject-" + i, "message " + i))
+            .toList();
+    }
+
+    private static final class StubSnsClient implements SnsClient {
+
+        private final Function<PublishBatchRequest, PublishBatchResponse> handler;
+        private final List<PublishBatchRequest> requests = new ArrayList<>();
+
+        StubSnsClient(Function<PublishBatchRequest, PublishBatchResponse> handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public PublishBatchResponse publishBatch(PublishBatchRequest request) {
+            requests.add(request);
+            return handler.apply(request);
+        }
+
+        @Override
+        public String serviceName() {
+            return "sns";
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.orderms.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orderms.dto.OrderRequest;
+import com.orderms.model.Order;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Runs against the in-process store with OrderService stubbed out
+class OrderIdempotencyServiceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final OrderService orderService = mock(OrderService.class);
+    private final AtomicLong nextId = new AtomicLong(100);
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private OrderIdempotencyService service;
+
+    @BeforeEach
+    void setUp() {
+        OrderShards orderShards = mock(OrderShards.class);
+        when(orderShards.onCustomerShard(any(), any()))
+            .thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(1)).get());
+        when(orderService.getOrderWithItems(anyLong()))
+            .thenAnswer(invocation -> Optional.of(order(invocation.getArgument(0))));
+
+        service = new OrderIdempotencyService(mock(PlatformTransactionManager.class), registry);
+        ReflectionTestUtils.setField(service, "orderService", orderService);
+        ReflectionTestUtils.setField(service, "idempotencyStore",
+            new InMemoryIdempotencyStore(Duration.ofHours(1), 1000, registry));
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(service, "orderShards", orderShards);
+        ReflectionTestUtils.setField(service, "waitMs", 5000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void retryReplaysTheCreatedOrder() {
+        when(orderService.createOrder(any())).thenAnswer(invocation -> order(nextId.incrementAndGet()));
+
+        OrderIdempotencyService.Result first = service.createOrder("key-1", request("Ann"));
+        OrderIdempotencyService.Result retry = service.createOrder("key-1", request("Ann"));
+
+        assertFalse(first.replayed());
+        assertTrue(retry.replayed());
+        assertEquals(first.order().getId(), retry.order().getId());
+        verify(orderService, times(1)).createOrder(any());
+    }
+
+    @Test
+    void concurrentDuplicateWaitsForTheFirstRequest() throws Exception {
+        CountDownLatch creating = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        when(orderService.createOrder(any())).thenAnswer(invocation -> {
+            creating.countDown();
+            assertTrue(finish.await(5, TimeUnit.SECONDS));
+            return order(nextId.incrementAndGet());
+        });
+
+        Future<OrderIdempotencyService.Result> first = executor.submit(() -> service.createOrder("key-2", request("Ann")));
+        assertTrue(creating.await(5, TimeUnit.SECONDS));
+        Future<OrderIdempotencyService.Result> duplicate =
+            executor.submit(() -> service.createOrder("key-2", request("Ann")));
+        while (registry.counter("orders.idempotency.waits").count() == 0) {
+            Thread.sleep(5);
+        }
+        finish.countDown();
+
+        assertFalse(first.get(5, TimeUnit.SECONDS).replayed());
+        assertTrue(duplicate.get(5, TimeUnit.SECONDS).replayed());
+        assertEquals(first.get().order().getId(), duplicate.get().order().getId());
+        verify(orderService, times(1)).createOrder(any());
+    }
+
+    @Test
+    void duplicateGivesUpWhenTheFirstRequestOutlastsTheWait() throws Exception {
+        ReflectionTestUtils.setField(service, "waitMs", 50L);
+        CountDownLatch creating = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        when(orderService.createOrder(any())).thenAnswer(invocation -> {
+            creating.countDown();
+            assertTrue(finish.await(5, TimeUnit.SECONDS));
+            return order(nextId.incrementAndGet());
+        });
+
+        Future<OrderIdempotencyService.Result> first = executor.submit(() -> service.createOrder("key-3", request("Ann")));
+        assertTrue(creating.await(5, TimeUnit.SECONDS));
+        try {
+            assertThrows(IllegalStateException.class, () -> service.createOrder("key-3", request("Ann")));
+        } finally {
+            finish.countDown();
+        }
+        first.get(5, TimeUnit.SECONDS);
+        assertEquals(1, registry.counter("orders.idempotency.requests", "outcome", "in-progress").count());
+    }
+
+    @Test
+    void keyReusedForDifferentRequestIsRejected() {
+        when(orderService.createOrder(any())).thenAnswer(invocation -> order(nextId.incrementAndGet()));
+        service.createOrder("key-4", request("Ann"));
+
+        assertThrows(IllegalArgumentException.class, () -> service.createOrder("key-4", request("Bob")));
+        assertEquals(1, registry.counter("orders.idempotency.requests", "outcome", "mismatch").count());
+        verify(orderService, times(1)).createOrder(any());
+    }
+
+    @Test
+    void failedCreateReleasesTheKey() {
+        when(orderService.createOrder(any()))
+            .thenThrow(new IllegalArgumentException("Order must have at least one item"))
+            .thenAnswer(invocation -> order(nextId.incrementAndGet()));
+
+        assertThrows(IllegalArgumentException.class, () -> service.createOrder("key-5", request("Ann")));
+        OrderIdempotencyService.Result retry = service.createOrder("key-5", request("Ann"));
+
+        assertFalse(retry.replayed());
+        verify(orderService, times(2)).createOrder(any());
+    }
+
+    private static OrderRequest request(String customerName) {
+        OrderRequest request = new OrderRequest();
+        request.setCustomerId("CUST-1");
+        request.setCustomerName(customerName);
+        request.setCustomerEmail("customer@example.com");
+        return request;
+    }
+
+    private static Order order(long id) {
+        Order order = new Order();
+        order.setId(id);
+        return order;
+    }
+}
@@ -0,0 +1,149 @@
+package com.orderms.service;
+
+import com.orderms.dto.OrderPatchRequest;
+import com.orderms.dto.OrderRequest;
+import com.orderms.model.Order;
+import com.orderms.model.OrderItem;
+import com.orderms.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+// PUT and PATCH diff the loaded order's items in memory; Hibernate then writes only the dirty rows
+@ExtendWith(MockitoExtension.class)
+class OrderItemDiffTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+    @Mock
+    private OrderOutboxService orderOutboxService;
+    @Mock
+    private OrderStatsService orderStatsService;
+    @Mock
+    private OrderAnalyticsService orderAnalyticsService;
+    @Mock
+    private CustomerSummaryService customerSummaryService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private OrderSearchIndex orderSearchIndex;
+    @Mock
+    private OrderShards orderShards;
+
+    @InjectMocks
+    private OrderService orderService;
+
+    private Order order;
+    private OrderItem keyboard;
+    private OrderItem mouse;
+
+    @BeforeEach
+    void setUp() {
+        order = new Order();
+        order.setId(1L);
+        order.setCustomerId("CUST-1");
+        order.setCustomerName("Ann");
+        order.setCreatedAt(LocalDateTime.now());
+        order.setItems(new ArrayList<>());
+        keyboard = item(11L, "Keyboard", 1, 50.0);
+        mouse = item(12L, "Mouse", 2, 20.0);
+        order.addItem(keyboard);
+        order.addItem(mouse);
+        when(orderRepository.findByIdWithItems(1L)).thenReturn(order);
+    }
+
+    @Test
+    void unchangedRequestWritesAndPublishesNothing() {
+        Order result = orderService.updateOrder(1L, request(line(11L, "Keyboard", 1, 50.0), line(12L, "Mouse", 2, 20.0)));
+
+        assertEquals(List.of(keyboard, mouse), result.getItems());
+        assertEquals(90.0, result.getTotalAmount());
+        verifyNoInteractions(orderOutboxService, orderStatsService, eventPublisher);
+    }
+
+    @Test
+    void itemsAreUpdatedInPlaceAddedAndRemoved() {
+        Order result = orderService.updateOrder(1L, request(line(11L, "Keyboard", 3, 50.0), line(null, "Monitor", 1, 200.0)));
+
+        assertEquals(2, result.getItems().size());
+        assertSame(keyboard, result.getItems().get(0));
+        assertEquals(3, keyboard.getQuantity());
+        assertEquals("Monitor", result.getItems().get(1).getProductName());
+        assertEquals(350.0, result.getTotalAmount());
+        verify(orderStatsService).recordAmountChanged(any(), eq(90.0), eq(350.0));
+        verify(orderOutboxService).append(eq(order), eq("UPDATED"), any());
+    }
+
+    @Test
+    void unknownOrRepeatedItemIdIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+            () -> orderService.updateOrder(1L, request(line(99L, "Keyboard", 1, 50.0))));
+        assertThrows(IllegalArgumentException.class,
+            () -> orderService.updateOrder(1L, request(line(11L, "Keyboard", 1, 50.0), line(11L, "Keyboard", 2, 50.0))));
+    }
+
+    @Test
+    void patchTouchesOnlyGivenFieldsAndItems() {
+        OrderPatchRequest.OrderItemPatch quantity = new OrderPatchRequest.OrderItemPatch();
+        quantity.setId(12L);
+        quantity.setQuantity(5);
+        OrderPatchRequest patch = new OrderPatchRequest();
+        patch.setOrderNotes("Leave at the door");
+        patch.setItems(List.of(quantity));
+
+        Order result = orderService.patchOrder(1L, patch);
+
+        assertEquals("Ann", result.getCustomerName());
+        assertEquals("Leave at the door", result.getOrderNotes());
+        assertEquals(5, mouse.getQuantity());
+        assertEquals("Mouse", mouse.getProductName());
+        assertEquals(150.0, result.getTotalAmount());
+    }
+
+    @Test
+    void patchCannotRemoveTheLastItem() {
+        OrderPatchRequest patch = new OrderPatchRequest();
+        patch.setRemovedItemIds(List.of(11L, 12L));
+
+        assertThrows(IllegalArgumentException.class, () -> orderService.patchOrder(1L, patch));
+    }
+
+    private OrderRequest request(OrderRequest.OrderItemRequest... items) {
+        OrderRequest request = new OrderRequest();
+        request.setCustomerName(order.getCustomerName());
+        request.setItems(List.of(items));
+        return request;
+    }
+
+    private static OrderRequest.OrderItemRequest line(Long id, String productName, int quantity, double price) {
+        OrderRequest.OrderItemRequest item = new OrderRequest.OrderItemRequest();
+        item.setId(id);
+        item.setProductName(productName);
+        item.setQuantity(quantity);
+        item.setPrice(price);
+        return item;
+    }
+
+    private static OrderItem item(Long id, String productName, int quantity, double price) {
+        OrderItem item = new OrderItem(productName, quantity, price);
+        item.setId(id);
+        return item;
+    }
+}
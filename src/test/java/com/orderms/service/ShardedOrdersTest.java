@@ -0,0 +1,138 @@
+package com.orderms.service;
+
+import com.orderms.dto.OrderRequest;
+import com.orderms.model.Order;
+import com.orderms.model.OrderStatus;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs on the three embedded H2 shards of application-sharded.yml. The context is closed
+// afterwards because sharded id generation is switched on process-wide while it is open.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+    "spring.jpa.show-sql=false",
+    "logging.level.org.hibernate.SQL=WARN",
+    "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+    "orders.stats.reconcile-interval-ms=3600000"
+})
+@ActiveProfiles("sharded")
+@DirtiesContext
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ShardedOrdersTest {
+
+    private static final int CUSTOMERS = 12;
+    private static final int ORDERS_PER_CUSTOMER = 3;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderShards orderShards;
+
+    @Autowired
+    private OrderStatsService orderStatsService;
+
+    private final Map<Long, String> customerOfOrder = new HashMap<>();
+
+    @BeforeAll
+    void createOrders() {
+        for (int c = 0; c < CUSTOMERS; c++) {
+            for (int i = 0; i < ORDERS_PER_CUSTOMER; i++) {
+                Order order = orderService.createOrder(request("SHARD-" + c));
+                customerOfOrder.put(order.getId(), order.getCustomerId());
+            }
+        }
+    }
+
+    @Test
+    void ordersAreStoredOnTheirCustomersShardOnly() {
+        List<DataSource> shards = orderShards.getPrimaryDataSources();
+        assertEquals(3, shards.size());
+        Set<Integer> used = new HashSet<>();
+        for (Map.Entry<Long, String> entry : customerOfOrder.entrySet()) {
+            int shard = orderShards.shardOfCustomer(entry.getValue());
+            // The id alone routes to the same shard
+            assertEquals(shard, orderShards.shardOfOrder(entry.getKey()));
+            for (int s = 0; s < shards.size(); s++) {
+                Integer rows = new JdbcTemplate(shards.get(s))
+                    .queryForObject("SELECT COUNT(*) FROM orders WHERE id = ?", Integer.class, entry.getKey());
+                assertEquals(s == shard ? 1 : 0, rows, "order " + entry.getKey() + " on shard " + s);
+            }
+            used.add(shard);
+        }
+        assertTrue(used.size() > 1, "customers should spread over several shards");
+    }
+
+    @Test
+    void customerQueryReturnsOnlyThatCustomersOrders() {
+        List<Order> orders = orderService.getOrdersByCustomerId("SHARD-5");
+
+        assertEquals(ORDERS_PER_CUSTOMER, orders.size());
+        assertTrue(orders.stream().allMatch(order -> order.getCustomerId().equals("SHARD-5")));
+    }
+
+    @Test
+    void statusQueryMergesEveryShardInIdOrder() {
+        List<Long> ids = orderService.getOrdersByStatus(OrderStatus.ORDER_PLACED).stream()
+            .map(Order::getId)
+            .filter(customerOfOrder::containsKey)
+            .toList();
+
+        assertEquals(customerOfOrder.keySet().stream().sorted().toList(), ids);
+    }
+
+    @Test
+    void pagesAreCutFromTheMergedOrder() {
+        List<Long> expected = new ArrayList<>(customerOfOrder.keySet());
+        expected.sort(Comparator.reverseOrder());
+        Sort newestFirst = Sort.by(Sort.Direction.DESC, "id");
+
+        List<Long> seen = new ArrayList<>();
+        for (int page = 0; page * 10 < expected.size(); page++) {
+            Page<Order> result = orderService.getAllOrders(PageRequest.of(page, 10, newestFirst));
+            assertEquals(expected.size(), result.getTotalElements());
+            result.getContent().forEach(order -> seen.add(order.getId()));
+        }
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    void statsAddUpAcrossShards() {
+        orderStatsService.reconcile();
+
+        assertEquals(customerOfOrder.size(), orderStatsService.getTotalOrders());
+    }
+
+    private static OrderRequest request(String customerId) {
+        OrderRequest.OrderItemRequest item = new OrderRequest.OrderItemRequest();
+        item.setProductName("Widget");
+        item.setQuantity(2);
+        item.setPrice(5.0);
+        OrderRequest request = new OrderRequest();
+        request.setCustomerId(customerId);
+        request.setCustomerName("Customer " + customerId);
+        request.setCustomerEmail(customerId.toLowerCase() + "@example.com");
+        request.setItems(List.of(item));
+        return request;
+    }
+}